@@ -0,0 +1,134 @@
+package com.example.ossupload.benchmark;
+
+import com.example.ossupload.config.OssConfig;
+import com.example.ossupload.service.SignatureAdmission;
+import com.example.ossupload.util.TokenBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 签名准入控制在多线程下的开销（不依赖Spring容器）
+ * <p>
+ * 限流阈值设得足够高，只测量准入路径本身：多客户端（按IP分散到不同令牌桶）与单客户端（所有线程争用同一令牌桶），
+ * 以及无锁令牌桶与 synchronized 实现的对照。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class AdmissionBenchmark {
+    
+    private static final int CLIENT_COUNT = 4096;
+    
+    private SignatureAdmission admission;
+    private TokenBucket sharedBucket;
+    private SynchronizedTokenBucket synchronizedBucket;
+    
+    @Setup
+    public void setUp() {
+        OssConfig ossConfig = new OssConfig();
+        OssConfig.RateLimit rateLimit = ossConfig.getRateLimit();
+        rateLimit.setRequestsPerSecond(1e9);
+        rateLimit.setBurst(1_000_000);
+        rateLimit.setMaxConcurrentSignings(64);
+        
+        admission = new SignatureAdmission(ossConfig, new SimpleMeterRegistry());
+        admission.init();
+        sharedBucket = new TokenBucket(1_000_000, 1e9);
+        synchronizedBucket = new SynchronizedTokenBucket(1_000_000, 1e9);
+    }
+    
+    /**
+     * 每个线程预先构造的请求
+     */
+    @State(Scope.Thread)
+    public static class ClientRequests {
+        
+        private final MockHttpServletRequest[] requests = new MockHttpServletRequest[CLIENT_COUNT];
+        private final MockHttpServletRequest singleClient = new MockHttpServletRequest();
+        private int next;
+        
+        @Setup
+        public void setUp() {
+            for (int i = 0; i < CLIENT_COUNT; i++) {
+                requests[i] = new MockHttpServletRequest();
+                requests[i].setRemoteAddr("10.0." + (i >> 8) + "." + (i & 0xFF));
+            }
+            singleClient.setRemoteAddr("10.255.255.1");
+            next = ThreadLocalRandom.current().nextInt(CLIENT_COUNT);
+        }
+        
+        private MockHttpServletRequest nextRequest() {
+            next = (next + 1) & (CLIENT_COUNT - 1);
+            return requests[next];
+        }
+    }
+    
+    @Benchmark
+    public void admitManyClients(ClientRequests clients) {
+        admission.acquire(clients.nextRequest(), 1);
+        admission.release();
+    }
+    
+    @Benchmark
+    public void admitSingleClient(ClientRequests clients) {
+        admission.acquire(clients.singleClient, 1);
+        admission.release();
+    }
+    
+    @Benchmark
+    public boolean lockFreeBucket() {
+        return sharedBucket.tryAcquire();
+    }
+    
+    @Benchmark
+    public boolean synchronizedBucket() {
+        return synchronizedBucket.tryAcquire();
+    }
+    
+    /**
+     * 基于synchronized的令牌桶，作为对照
+     */
+    private static class SynchronizedTokenBucket {
+        
+        private final long capacity;
+        private final double refillPerNano;
+        private double tokens;
+        private long lastRefill;
+        
+        private SynchronizedTokenBucket(long capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+        
+        private synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+            lastRefill = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+    }
+}
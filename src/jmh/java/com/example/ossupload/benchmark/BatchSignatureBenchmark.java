@@ -0,0 +1,115 @@
+package com.example.ossupload.benchmark;
+
+import com.example.ossupload.OssUploadApplication;
+import com.example.ossupload.dto.FileUploadRequest;
+import com.example.ossupload.dto.OssSignatureResponse;
+import com.example.ossupload.service.FileStatisticsCounter;
+import com.example.ossupload.service.OssService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 逐个签名与批量签名对照：同样签发 files 个文件，分别调用 files 次单文件签名和一次批量签名
+ * <p>
+ * 启动时预置rows条文件信息，每次调用结束后删除本次签名插入的记录，
+ * 两组基准的每次调用都在相同的表大小（rows）下测量。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BatchSignatureBenchmark {
+    
+    @Param({"1000"})
+    public int files;
+    
+    @Param({"100000"})
+    public int rows;
+    
+    private ConfigurableApplicationContext context;
+    private OssService ossService;
+    private JdbcTemplate jdbcTemplate;
+    private FileStatisticsCounter fileStatisticsCounter;
+    private List<FileUploadRequest> requests;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(OssUploadApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:batch-signature",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.com.example.ossupload=WARN",
+                        "oss.storage.type=local",
+                        "oss.storage.local-root=target/benchmark-storage",
+                        "oss.sweeper.enabled=false")
+                .run();
+        ossService = context.getBean(OssService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        fileStatisticsCounter = context.getBean(FileStatisticsCounter.class);
+        BenchmarkSeed.seedFileInfos(jdbcTemplate, rows);
+        fileStatisticsCounter.reconcile();
+        
+        requests = new ArrayList<>(files);
+        for (int i = 0; i < files; i++) {
+            FileUploadRequest request = new FileUploadRequest();
+            request.setFileName("batch-" + i + ".pdf");
+            request.setFileSize(1024L * 1024);
+            request.setContentType("application/pdf");
+            request.setFileExtension("pdf");
+            requests.add(request);
+        }
+    }
+    
+    /**
+     * 删除本次调用签名插入的记录（每次调用插入files条，耗时为毫秒级，按调用清理的开销可以忽略）
+     */
+    @TearDown(Level.Invocation)
+    public void trimInserted() {
+        BenchmarkSeed.trimInserted(jdbcTemplate, rows);
+    }
+    
+    @Setup(Level.Iteration)
+    public void reconcileCounters() {
+        fileStatisticsCounter.reconcile();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public void singleCalls(Blackhole blackhole) {
+        for (FileUploadRequest request : requests) {
+            blackhole.consume(ossService.generateSignature(request));
+        }
+    }
+    
+    @Benchmark
+    public List<OssSignatureResponse> batchCall() {
+        return ossService.generateSignatures(requests);
+    }
+}
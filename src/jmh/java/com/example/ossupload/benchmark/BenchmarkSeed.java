@@ -0,0 +1,67 @@
+package com.example.ossupload.benchmark;
+
+import com.example.ossupload.util.FileNameTokenizer;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 基准数据预置工具
+ */
+final class BenchmarkSeed {
+    
+    /**
+     * 按ID 1..rows 预置文件信息（文件名 report-{id}.pdf，状态轮流取0/1/2）
+     */
+    private static final String FILE_INFO_SQL =
+            "INSERT INTO file_info (id, original_name, oss_key, file_size, content_type, file_extension, " +
+            "upload_status, create_time, update_time) " +
+            "SELECT X, CONCAT('report-', X, '.pdf'), CONCAT('benchmark/', X, '.pdf'), 1024 + MOD(X, 1048576), " +
+            "'application/pdf', 'pdf', MOD(X, 3), " +
+            "DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'), " +
+            "DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00') " +
+            "FROM SYSTEM_RANGE(1, ?)";
+    
+    /**
+     * 为ID区间内的文件信息写入文件名三元组，与 FileNameTokenizer 的切分一致（小写、去重）
+     */
+    private static final String NAME_GRAM_SQL =
+            "INSERT INTO file_name_gram (gram, file_info_id) " +
+            "SELECT DISTINCT SUBSTRING(LOWER(f.original_name), p.X, " + FileNameTokenizer.GRAM_LENGTH + "), f.id " +
+            "FROM file_info f JOIN SYSTEM_RANGE(1, 255) p " +
+            "ON p.X <= CHAR_LENGTH(f.original_name) - " + (FileNameTokenizer.GRAM_LENGTH - 1) + " " +
+            "WHERE f.id BETWEEN ? AND ?";
+    
+    /**
+     * 每批写入三元组的文件数
+     */
+    private static final int GRAM_BATCH_SIZE = 200000;
+    
+    private BenchmarkSeed() {
+    }
+    
+    /**
+     * 直接以SQL预置rows条文件信息及其文件名三元组，并将序列移到预置ID之后，
+     * 此后新插入的记录ID均大于rows，可按ID删除以恢复表大小
+     */
+    static void seedFileInfos(JdbcTemplate jdbcTemplate, int rows) {
+        jdbcTemplate.update(FILE_INFO_SQL, rows);
+        seedNameGrams(jdbcTemplate, 1, rows);
+        jdbcTemplate.execute("ALTER SEQUENCE file_info_seq RESTART WITH " + (rows + 100));
+    }
+    
+    /**
+     * 删除预置ID之后插入的文件信息及其文件名三元组
+     */
+    static void trimInserted(JdbcTemplate jdbcTemplate, int rows) {
+        jdbcTemplate.update("DELETE FROM file_name_gram WHERE file_info_id > ?", rows);
+        jdbcTemplate.update("DELETE FROM file_info WHERE id > ?", rows);
+    }
+    
+    /**
+     * 按批为 [fromId, toId] 内的文件信息写入文件名三元组
+     */
+    static void seedNameGrams(JdbcTemplate jdbcTemplate, long fromId, long toId) {
+        for (long from = fromId; from <= toId; from += GRAM_BATCH_SIZE) {
+            jdbcTemplate.update(NAME_GRAM_SQL, from, Math.min(toId, from + GRAM_BATCH_SIZE - 1));
+        }
+    }
+}
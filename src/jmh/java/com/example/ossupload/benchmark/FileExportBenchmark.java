@@ -0,0 +1,146 @@
+package com.example.ossupload.benchmark;
+
+import com.example.ossupload.OssUploadApplication;
+import com.example.ossupload.service.FileExportService;
+import com.example.ossupload.service.FileStatisticsCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 小堆下的全表导出：以 -Xmx128m 启动，导出数百万行文件信息
+ * <p>
+ * 内存占用随行数增长时导出会以OutOfMemoryError失败；每次迭代后输出堆内存峰值，用于确认内存平稳。
+ * 数据库使用 durable profile 的文件型H2（位于 target/benchmark-db-export），避免内存库本身占用堆。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms128m", "-Xmx128m"})
+public class FileExportBenchmark {
+    
+    private static final String SEED_SQL =
+            "INSERT INTO file_info (id, original_name, oss_key, file_size, content_type, file_extension, " +
+            "upload_status, create_time, update_time, remark) " +
+            "SELECT X, CONCAT('report-', X, '.pdf'), CONCAT('benchmark/', X, '.pdf'), 1024 + MOD(X * 7919, 1048576), " +
+            "'application/pdf', 'pdf', MOD(X, 3), " +
+            "DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'), " +
+            "DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'), '文件上传成功' " +
+            "FROM SYSTEM_RANGE(?, ?)";
+    
+    private static final String DATABASE_DIR = "target/benchmark-db-export";
+    
+    /**
+     * 每批预置的行数（小堆下分批写入）
+     */
+    private static final int SEED_BATCH_SIZE = 100000;
+    
+    @Param({"3000000"})
+    public int rows;
+    
+    @Param({FileExportService.FORMAT_NDJSON, FileExportService.FORMAT_CSV})
+    public String format;
+    
+    private ConfigurableApplicationContext context;
+    private FileExportService fileExportService;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        FileSystemUtils.deleteRecursively(new File(DATABASE_DIR));
+        context = new SpringApplicationBuilder(OssUploadApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("durable")
+                .properties(
+                        "spring.datasource.url=jdbc:h2:file:./" + DATABASE_DIR + "/files;DB_CLOSE_ON_EXIT=FALSE",
+                        "logging.level.com.example.ossupload=WARN",
+                        "oss.storage.type=local",
+                        "oss.storage.local-root=target/benchmark-storage",
+                        "oss.sweeper.enabled=false")
+                .run();
+        fileExportService = context.getBean(FileExportService.class);
+        
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        for (long from = 1; from <= rows; from += SEED_BATCH_SIZE) {
+            jdbcTemplate.update(SEED_SQL, from, Math.min(rows, from + SEED_BATCH_SIZE - 1));
+        }
+        jdbcTemplate.execute("ALTER SEQUENCE file_info_seq RESTART WITH " + (rows + 100));
+        context.getBean(FileStatisticsCounter.class).reconcile();
+        resetPeakUsage();
+    }
+    
+    @TearDown(Level.Iteration)
+    public void reportHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        System.out.printf("== %s: 堆内存峰值 %d MB ==%n", format, peak / (1024 * 1024));
+        resetPeakUsage();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public long export() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        long exported = fileExportService.export(null, null, format, out);
+        if (exported != rows) {
+            throw new IllegalStateException("导出行数不符: " + exported + " != " + rows);
+        }
+        return out.count;
+    }
+    
+    private static void resetPeakUsage() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            pool.resetPeakUsage();
+        }
+    }
+    
+    /**
+     * 只计数不保存的输出流
+     */
+    private static class CountingOutputStream extends OutputStream {
+        
+        private long count;
+        
+        @Override
+        public void write(int b) {
+            count++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.ossupload.benchmark;
+
+import com.example.ossupload.OssUploadApplication;
+import com.example.ossupload.dto.FileInfoListItem;
+import com.example.ossupload.dto.FileListPage;
+import com.example.ossupload.repository.FileInfoRepository;
+import com.example.ossupload.service.FileInfoService;
+import com.example.ossupload.service.FileStatisticsCounter;
+import com.example.ossupload.util.FileNameTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文件名子串检索：三元组索引与LIKE全表扫描对照
+ * <p>
+ * 文件名由4种前缀、序号和3种扩展名组成，检索词覆盖高频三元组（pdf约占1/3的行，invoice约1/4）
+ * 与高选择度的序号片段。两种方式都查询第一页并统计总数，与列表接口一致。
+ * 以 durable profile 在 target/benchmark-db-search 下新建数据库，1000万行（约1.6亿条三元组）预置需较长时间。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class FileNameSearchBenchmark {
+    
+    private static final String SEED_SQL =
+            "INSERT INTO file_info (id, original_name, oss_key, file_size, content_type, file_extension, " +
+            "upload_status, create_time, update_time) " +
+            "SELECT X, CONCAT(CASE MOD(X, 4) WHEN 0 THEN 'report-' WHEN 1 THEN 'invoice-' WHEN 2 THEN 'photo-' " +
+            "ELSE 'contract-' END, X, CASE MOD(X, 3) WHEN 0 THEN '.pdf' WHEN 1 THEN '.jpg' ELSE '.docx' END), " +
+            "CONCAT('benchmark/', X), 1024 + MOD(X * 7919, 1048576), 'application/octet-stream', 'bin', MOD(X, 3), " +
+            "DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'), " +
+            "DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00') " +
+            "FROM SYSTEM_RANGE(?, ?)";
+    
+    private static final String DATABASE_DIR = "target/benchmark-db-search";
+    
+    private static final int SEED_BATCH_SIZE = 1000000;
+    
+    @Param({"1000000", "10000000"})
+    public int rows;
+    
+    /**
+     * pdf、invoice：高频三元组；1234567：高选择度；oice-99：中等选择度
+     */
+    @Param({"pdf", "invoice", "1234567", "oice-99"})
+    public String term;
+    
+    private ConfigurableApplicationContext context;
+    private FileInfoRepository fileInfoRepository;
+    private FileInfoService fileInfoService;
+    private Set<String> grams;
+    private Pageable firstPage;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        FileSystemUtils.deleteRecursively(new File(DATABASE_DIR));
+        context = new SpringApplicationBuilder(OssUploadApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("durable")
+                .properties(
+                        "spring.datasource.url=jdbc:h2:file:./" + DATABASE_DIR + "/files;DB_CLOSE_ON_EXIT=FALSE",
+                        "logging.level.com.example.ossupload=WARN",
+                        "oss.storage.type=local",
+                        "oss.storage.local-root=target/benchmark-storage",
+                        "oss.sweeper.enabled=false")
+                .run();
+        fileInfoRepository = context.getBean(FileInfoRepository.class);
+        fileInfoService = context.getBean(FileInfoService.class);
+        
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        for (long from = 1; from <= rows; from += SEED_BATCH_SIZE) {
+            jdbcTemplate.update(SEED_SQL, from, Math.min(rows, from + SEED_BATCH_SIZE - 1));
+        }
+        BenchmarkSeed.seedNameGrams(jdbcTemplate, 1, rows);
+        jdbcTemplate.execute("ALTER SEQUENCE file_info_seq RESTART WITH " + (rows + 100));
+        jdbcTemplate.execute("ANALYZE");
+        context.getBean(FileStatisticsCounter.class).reconcile();
+        
+        grams = FileNameTokenizer.tokenize(term);
+        firstPage = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createTime", "id"));
+        System.out.println("== " + term + ": 匹配 " + fileInfoRepository.countByNameGrams(grams, grams.size(), term, null)
+                + " 行 ==");
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public Page<FileInfoListItem> gramIndex() {
+        return fileInfoRepository.findByNameGrams(grams, grams.size(), term, null, firstPage);
+    }
+    
+    @Benchmark
+    public Page<FileInfoListItem> likeScan() {
+        return fileInfoRepository.findByConditions(term, null, firstPage);
+    }
+    
+    @Benchmark
+    public FileListPage listEndpoint() {
+        return fileInfoService.getFileInfoPage(term, null, 0, 20, "createTime", "desc", false);
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.ossupload.benchmark;
+
+import com.example.ossupload.OssUploadApplication;
+import com.example.ossupload.dto.CursorPage;
+import com.example.ossupload.dto.FileInfoListItem;
+import com.example.ossupload.dto.FileListPage;
+import com.example.ossupload.repository.FileInfoRepository;
+import com.example.ossupload.service.FileInfoService;
+import com.example.ossupload.service.FileStatisticsCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 持久化配置下的列表查询基准：以 durable profile 启动（文件型H2 + Flyway迁移），按rows预置文件信息
+ * <p>
+ * 每次运行在 target/benchmark-db 下新建数据库，按批以SQL预置数据（1000万行需数分钟）。
+ * 预置后先输出各查询形态的执行计划（EXPLAIN），再测量列表、排序、状态过滤与计数的延迟。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class FileQueryBenchmark {
+
+    private static final String SEED_SQL =
+            "INSERT INTO file_info (id, original_name, oss_key, file_size, content_type, file_extension, " +
+            "upload_status, create_time, update_time) " +
+            "SELECT X, CONCAT('report-', X, '.pdf'), CONCAT('benchmark/', X, '.pdf'), 1024 + MOD(X * 7919, 1048576), " +
+            "'application/pdf', 'pdf', MOD(X, 3), " +
+            "DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'), " +
+            "DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00') " +
+            "FROM SYSTEM_RANGE(?, ?)";
+
+    private static final String DATABASE_DIR = "target/benchmark-db";
+
+    /**
+     * 每批预置的行数
+     */
+    private static final int SEED_BATCH_SIZE = 1000000;
+
+    private static final String LIST_COLUMNS =
+            "SELECT id, original_name, file_size, file_extension, upload_status, create_time, oss_key FROM file_info ";
+
+    /**
+     * 与仓库查询生成的SQL形态一致的语句，用于输出执行计划
+     */
+    private static final Map<String, String> QUERY_SHAPES = new LinkedHashMap<>();
+
+    static {
+        QUERY_SHAPES.put("列表（创建时间倒序）", LIST_COLUMNS + "ORDER BY create_time DESC, id DESC LIMIT 20");
+        QUERY_SHAPES.put("列表（状态过滤）", LIST_COLUMNS
+                + "WHERE upload_status = 1 ORDER BY create_time DESC, id DESC LIMIT 20");
+        QUERY_SHAPES.put("列表（文件大小倒序）", LIST_COLUMNS + "ORDER BY file_size DESC, id DESC LIMIT 20");
+        QUERY_SHAPES.put("列表（文件名正序）", LIST_COLUMNS + "ORDER BY original_name ASC, id ASC LIMIT 20");
+        QUERY_SHAPES.put("游标（创建时间倒序）", LIST_COLUMNS
+                + "WHERE (create_time < TIMESTAMP '2024-03-01 00:00:00' OR (create_time = TIMESTAMP '2024-03-01 00:00:00' "
+                + "AND id < 5000000)) ORDER BY create_time DESC, id DESC LIMIT 21");
+        QUERY_SHAPES.put("待上传清理", "SELECT id, oss_key FROM file_info WHERE upload_status = 0 AND upload_id IS NULL "
+                + "AND create_time < TIMESTAMP '2024-02-01 00:00:00' ORDER BY create_time LIMIT 500");
+        QUERY_SHAPES.put("按状态计数", "SELECT upload_status, COUNT(*) FROM file_info GROUP BY upload_status");
+    }
+
+    @Param({"10000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private FileInfoService fileInfoService;
+    private FileInfoRepository fileInfoRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        FileSystemUtils.deleteRecursively(new File(DATABASE_DIR));
+        context = new SpringApplicationBuilder(OssUploadApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("durable")
+                .properties(
+                        "spring.datasource.url=jdbc:h2:file:./" + DATABASE_DIR + "/files;DB_CLOSE_ON_EXIT=FALSE",
+                        "logging.level.com.example.ossupload=WARN",
+                        "oss.storage.type=local",
+                        "oss.storage.local-root=target/benchmark-storage",
+                        "oss.sweeper.enabled=false")
+                .run();
+        fileInfoService = context.getBean(FileInfoService.class);
+        fileInfoRepository = context.getBean(FileInfoRepository.class);
+
+        // 直接以SQL预置数据，并将序列移到预置ID之后；ANALYZE更新选择度供优化器使用
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        for (long from = 1; from <= rows; from += SEED_BATCH_SIZE) {
+            jdbcTemplate.update(SEED_SQL, from, Math.min(rows, from + SEED_BATCH_SIZE - 1));
+        }
+        jdbcTemplate.execute("ALTER SEQUENCE file_info_seq RESTART WITH " + (rows + 100));
+        jdbcTemplate.execute("ANALYZE");
+        context.getBean(FileStatisticsCounter.class).reconcile();
+
+        for (Map.Entry<String, String> shape : QUERY_SHAPES.entrySet()) {
+            String plan = jdbcTemplate.queryForObject("EXPLAIN " + shape.getValue(), String.class);
+            System.out.println("== " + shape.getKey() + " ==\n" + plan + "\n");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public FileListPage pageByCreateTime() {
+        return fileInfoService.getFileInfoPage(null, null, 0, 20, "createTime", "desc", false);
+    }
+
+    @Benchmark
+    public FileListPage pageByStatus() {
+        return fileInfoService.getFileInfoPage(null, 1, 0, 20, "createTime", "desc", false);
+    }
+
+    @Benchmark
+    public FileListPage pageByFileSize() {
+        return fileInfoService.getFileInfoPage(null, null, 0, 20, "fileSize", "desc", false);
+    }
+
+    @Benchmark
+    public FileListPage pageByOriginalName() {
+        return fileInfoService.getFileInfoPage(null, null, 0, 20, "originalName", "asc", false);
+    }
+
+    @Benchmark
+    public CursorPage<FileInfoListItem> cursorByFileSize() {
+        return fileInfoService.getFileInfoCursorPage(null, null, null, "next", 20, "fileSize", "desc", false);
+    }
+
+    @Benchmark
+    public List<Object[]> countByUploadStatus() {
+        return fileInfoRepository.countByUploadStatus();
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.ossupload.benchmark;
+
+import com.example.ossupload.OssUploadApplication;
+import com.example.ossupload.dto.ApiResponse;
+import com.example.ossupload.entity.FileInfo;
+import com.example.ossupload.repository.FileInfoRepository;
+import com.example.ossupload.service.DownloadUrlService;
+import com.example.ossupload.service.FileInfoService;
+import com.example.ossupload.service.FileStatisticsCounter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 列表接口序列化前后对照
+ * <p>
+ * entityPage 复现改造前的路径：查询完整实体的 Page&lt;FileInfo&gt;，逐个填充ossUrl后连同Spring Data分页信息序列化；
+ * projectionPage 为当前路径：列表投影加 FileListPage 流式序列化。两者都以应用的ObjectMapper写出 ApiResponse。
+ * 启动时输出每次请求的响应字节数与当前线程分配字节数，测量阶段给出耗时。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ListSerializationBenchmark {
+    
+    private static final String SEED_SQL =
+            "INSERT INTO file_info (id, original_name, oss_key, file_size, content_hash, content_type, file_extension, " +
+            "upload_status, create_time, update_time, remark) " +
+            "SELECT X, CONCAT('report-', X, '.pdf'), CONCAT('2024/01/01/', RANDOM_UUID(), '.pdf'), " +
+            "1024 + MOD(X * 7919, 1048576), LPAD(X, 64, '0'), 'application/pdf', 'pdf', 1, " +
+            "DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'), " +
+            "DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'), '文件上传成功' " +
+            "FROM SYSTEM_RANGE(1, ?)";
+    
+    /**
+     * 统计分配与字节数时每种路径的调用次数
+     */
+    private static final int SAMPLE_REQUESTS = 2000;
+    
+    @Param({"10000"})
+    public int rows;
+    
+    @Param({"10", "100"})
+    public int pageSize;
+    
+    private ConfigurableApplicationContext context;
+    private FileInfoService fileInfoService;
+    private FileInfoRepository fileInfoRepository;
+    private DownloadUrlService downloadUrlService;
+    private ObjectMapper objectMapper;
+    private Pageable pageable;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(OssUploadApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:list-serialization",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.com.example.ossupload=WARN",
+                        "oss.storage.type=local",
+                        "oss.storage.local-root=target/benchmark-storage",
+                        "oss.sweeper.enabled=false")
+                .run();
+        fileInfoService = context.getBean(FileInfoService.class);
+        fileInfoRepository = context.getBean(FileInfoRepository.class);
+        downloadUrlService = context.getBean(DownloadUrlService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        pageable = PageRequest.of(0, pageSize, Sort.by(Sort.Direction.DESC, "createTime", "id"));
+        
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update(SEED_SQL, rows);
+        jdbcTemplate.execute("ALTER SEQUENCE file_info_seq RESTART WITH " + (rows + 100));
+        context.getBean(FileStatisticsCounter.class).reconcile();
+        
+        report("改造前（实体 + Page）", this::entityPage);
+        report("改造后（投影 + 流式）", this::projectionPage);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public byte[] entityPage() throws Exception {
+        Page<FileInfo> page = fileInfoRepository.findAll(pageable).map(downloadUrlService::withUrl);
+        return objectMapper.writeValueAsBytes(ApiResponse.success(page));
+    }
+    
+    @Benchmark
+    public byte[] projectionPage() throws Exception {
+        return objectMapper.writeValueAsBytes(ApiResponse.success(
+                fileInfoService.getFileInfoPage(null, null, 0, pageSize, "createTime", "desc", false)));
+    }
+    
+    /**
+     * 预热后统计单次请求的响应字节数与当前线程分配字节数
+     */
+    private void report(String label, Callable<byte[]> request) throws Exception {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int bytes = 0;
+        for (int i = 0; i < SAMPLE_REQUESTS; i++) {
+            bytes = request.call().length;
+        }
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < SAMPLE_REQUESTS; i++) {
+            request.call();
+        }
+        long allocated = (threadBean.getThreadAllocatedBytes(threadId) - before) / SAMPLE_REQUESTS;
+        System.out.printf("== %s pageSize=%d: 响应 %d 字节，分配 %d 字节/请求 ==%n", label, pageSize, bytes, allocated);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.ossupload.benchmark;
+
+import com.example.ossupload.config.OssConfig;
+import com.example.ossupload.storage.DatePathKeyGenerator;
+import com.example.ossupload.storage.PostPolicySigner;
+import com.example.ossupload.storage.ShardedKeyGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 签名与对象键生成基准（不依赖Spring和数据库）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SigningBenchmark {
+    
+    private static final String FILE_NAME = "quarterly-report.pdf";
+    
+    private PostPolicySigner signer;
+    private ShardedKeyGenerator shardedKeyGenerator;
+    private DatePathKeyGenerator datePathKeyGenerator;
+    private String fileKey;
+    private String encodedPolicy;
+    private long expireTime;
+    
+    @Setup
+    public void setUp() {
+        OssConfig ossConfig = new OssConfig();
+        ossConfig.setAccessKeyId("benchmark-access-key-id");
+        ossConfig.setAccessKeySecret("benchmark-access-key-secret");
+        
+        signer = new PostPolicySigner(ossConfig);
+        signer.init();
+        shardedKeyGenerator = new ShardedKeyGenerator(ossConfig);
+        datePathKeyGenerator = new DatePathKeyGenerator(ossConfig);
+        
+        fileKey = shardedKeyGenerator.generate(FILE_NAME);
+        expireTime = System.currentTimeMillis() + ossConfig.getSignatureExpireTime() * 1000;
+        encodedPolicy = Base64.getEncoder().encodeToString(
+                signer.generatePostPolicy(fileKey, expireTime).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    @Benchmark
+    public String encodePolicy() {
+        return Base64.getEncoder().encodeToString(
+                signer.generatePostPolicy(fileKey, expireTime).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    @Benchmark
+    public String hmacSignature() {
+        return signer.calculateSignature(encodedPolicy);
+    }
+    
+    @Benchmark
+    public PostPolicySigner.SignedPolicy signPolicy() {
+        return signer.sign(fileKey, expireTime);
+    }
+    
+    @Benchmark
+    public String shardedKey() {
+        return shardedKeyGenerator.generate(FILE_NAME);
+    }
+    
+    @Benchmark
+    public String datePathKey() {
+        return datePathKeyGenerator.generate(FILE_NAME);
+    }
+    
+    /**
+     * 旧实现：每次创建SimpleDateFormat并使用UUID.randomUUID()，作为对照
+     */
+    @Benchmark
+    public String legacyKey() {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy/MM/dd");
+        String datePath = sdf.format(new Date());
+        String uuid = UUID.randomUUID().toString().replace("-", "");
+        String extension = "";
+        if (FILE_NAME.contains(".")) {
+            extension = FILE_NAME.substring(FILE_NAME.lastIndexOf("."));
+        }
+        return "uploads/" + datePath + "/" + uuid + extension;
+    }
+    
+    /**
+     * 多线程下的对象键生成（旧实现的SecureRandom竞争在此体现）
+     */
+    @Benchmark
+    @Threads(8)
+    public String shardedKeyContended() {
+        return shardedKeyGenerator.generate(FILE_NAME);
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public String legacyKeyContended() {
+        return legacyKey();
+    }
+}
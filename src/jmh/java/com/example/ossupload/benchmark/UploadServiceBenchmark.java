@@ -0,0 +1,146 @@
+package com.example.ossupload.benchmark;
+
+import com.example.ossupload.OssUploadApplication;
+import com.example.ossupload.dto.FileInfoListItem;
+import com.example.ossupload.dto.FileUploadCallbackRequest;
+import com.example.ossupload.dto.FileUploadRequest;
+import com.example.ossupload.dto.OssSignatureResponse;
+import com.example.ossupload.repository.FileInfoRepository;
+import com.example.ossupload.service.FileInfoService;
+import com.example.ossupload.service.FileStatisticsCounter;
+import com.example.ossupload.service.OssService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 上传相关服务与查询基准：启动完整Spring上下文（本地存储后端 + 内存H2），按rows预置文件信息
+ * <p>
+ * 1000万行需要较大堆内存，预置数据耗时也较长，可通过 -Djmh.include 与 JMH 的 -p rows=... 缩小范围。
+ * generateSignature 每次调用都会插入记录，每次迭代前删除预置ID之后的记录，保持表大小为rows。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx12g"})
+public class UploadServiceBenchmark {
+    
+    @Param({"10000", "1000000", "10000000"})
+    public int rows;
+    
+    private ConfigurableApplicationContext context;
+    private OssService ossService;
+    private FileInfoService fileInfoService;
+    private FileInfoRepository fileInfoRepository;
+    private JdbcTemplate jdbcTemplate;
+    private FileStatisticsCounter fileStatisticsCounter;
+    private MethodHandle validateFile;
+    private FileUploadRequest uploadRequest;
+    private Pageable deepPage;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(OssUploadApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.com.example.ossupload=WARN",
+                        "oss.storage.type=local",
+                        "oss.storage.local-root=target/benchmark-storage",
+                        "oss.sweeper.enabled=false")
+                .run();
+        ossService = context.getBean(OssService.class);
+        fileInfoService = context.getBean(FileInfoService.class);
+        fileInfoRepository = context.getBean(FileInfoRepository.class);
+        
+        fileStatisticsCounter = context.getBean(FileStatisticsCounter.class);
+        
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkSeed.seedFileInfos(jdbcTemplate, rows);
+        fileStatisticsCounter.reconcile();
+        
+        Method method = OssService.class.getDeclaredMethod("validateFile", FileUploadRequest.class);
+        method.setAccessible(true);
+        validateFile = MethodHandles.lookup().unreflect(method);
+        
+        uploadRequest = new FileUploadRequest();
+        uploadRequest.setFileName("benchmark.pdf");
+        uploadRequest.setFileSize(1024L * 1024);
+        uploadRequest.setContentType("application/pdf");
+        uploadRequest.setFileExtension("pdf");
+        
+        // 深分页：偏移量约为表大小的十分之一
+        deepPage = PageRequest.of(rows / 10 / 20, 20, Sort.by(Sort.Direction.DESC, "createTime"));
+    }
+    
+    /**
+     * 删除上一次迭代中签名插入的记录
+     */
+    @Setup(Level.Iteration)
+    public void trimInserted() {
+        BenchmarkSeed.trimInserted(jdbcTemplate, rows);
+        fileStatisticsCounter.reconcile();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public OssSignatureResponse generateSignature() {
+        return ossService.generateSignature(uploadRequest);
+    }
+    
+    @Benchmark
+    public void validateFile() throws Throwable {
+        validateFile.invoke(ossService, uploadRequest);
+    }
+    
+    @Benchmark
+    public void handleUploadCallback() {
+        FileUploadCallbackRequest request = new FileUploadCallbackRequest();
+        request.setFileInfoId(ThreadLocalRandom.current().nextLong(1, rows + 1));
+        request.setUploadStatus(1);
+        request.setActualFileSize(2048L);
+        ossService.handleUploadCallback(request);
+    }
+    
+    @Benchmark
+    public Page<FileInfoListItem> findByConditionsLikeDeepOffset() {
+        return fileInfoRepository.findByConditions("report-1", null, deepPage);
+    }
+    
+    @Benchmark
+    public Map<String, Object> getFileStatistics() {
+        return fileInfoService.getFileStatistics();
+    }
+}
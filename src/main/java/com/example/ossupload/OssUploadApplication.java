@@ -2,11 +2,13 @@ package com.example.ossupload;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * OSS文件上传演示应用启动类
  */
 @SpringBootApplication
+@EnableScheduling
 public class OssUploadApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,26 @@
+package com.example.ossupload.config;
+
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.OSSClientBuilder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * OSS客户端配置类
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "oss.storage", name = "type", havingValue = "oss", matchIfMissing = true)
+public class OssClientConfiguration {
+    
+    /**
+     * 全局共享的OSS客户端（线程安全），应用关闭时释放连接池
+     */
+    @Bean(destroyMethod = "shutdown")
+    public OSS ossClient(OssConfig ossConfig) {
+        return new OSSClientBuilder().build(
+                ossConfig.getEndpoint(),
+                ossConfig.getAccessKeyId(),
+                ossConfig.getAccessKeySecret());
+    }
+}
@@ -4,6 +4,9 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * OSS配置类
  */
@@ -46,4 +49,506 @@ public class OssConfig {
      * 允许的文件类型
      */
     private String allowedFileTypes;
-}
\ No newline at end of file
+    
+    /**
+     * 上传回调写入配置
+     */
+    private Callback callback = new Callback();
+    
+    /**
+     * 存储后端配置
+     */
+    private Storage storage = new Storage();
+    
+    /**
+     * 分片上传配置
+     */
+    private Multipart multipart = new Multipart();
+    
+    /**
+     * 统计配置
+     */
+    private Statistics statistics = new Statistics();
+    
+    /**
+     * 删除配置
+     */
+    private Delete delete = new Delete();
+    
+    /**
+     * 待上传记录清理配置
+     */
+    private Sweeper sweeper = new Sweeper();
+    
+    /**
+     * 文件信息缓存配置
+     */
+    private Cache cache = new Cache();
+    
+    /**
+     * 对象键生成配置
+     */
+    private Key key = new Key();
+    
+    /**
+     * 签名接口限流配置
+     */
+    private RateLimit rateLimit = new RateLimit();
+    
+    /**
+     * 文件下载地址配置
+     */
+    private Download download = new Download();
+    
+    /**
+     * 文件变更事件推送配置
+     */
+    private Events events = new Events();
+    
+    /**
+     * 签名请求幂等配置
+     */
+    private Idempotency idempotency = new Idempotency();
+    
+    /**
+     * 待上传预留（延迟落库）配置
+     */
+    private Reservation reservation = new Reservation();
+    
+    /**
+     * 历史文件信息归档配置
+     */
+    private Archive archive = new Archive();
+    
+    /**
+     * 秒传配置
+     */
+    private InstantUpload instantUpload = new InstantUpload();
+    
+    /**
+     * 存储桶访问域名，如 https://bucket.oss-cn-hangzhou.aliyuncs.com
+     */
+    public String getBucketHost() {
+        return endpoint.replace("https://", "https://" + bucketName + ".");
+    }
+    
+    /**
+     * 上传回调写入配置
+     */
+    @Data
+    public static class Callback {
+        
+        /**
+         * 是否启用异步合并写入：回调入队即返回，由后台线程批量更新
+         */
+        private boolean asyncEnabled = false;
+        
+        /**
+         * 队列容量
+         */
+        private int queueCapacity = 10000;
+        
+        /**
+         * 单次批量写入的最大回调数
+         */
+        private int flushSize = 500;
+        
+        /**
+         * 批量写入间隔（毫秒）
+         */
+        private long flushInterval = 200L;
+        
+        /**
+         * 队列已满时入队等待时间（毫秒），超时后在请求线程同步写入
+         */
+        private long offerTimeout = 50L;
+    }
+    
+    /**
+     * 分片上传配置
+     */
+    @Data
+    public static class Multipart {
+        
+        /**
+         * 分片大小（字节），最后一片可小于该值
+         */
+        private Long partSize = 8388608L; // 8MB
+        
+        /**
+         * 分片上传最大文件大小（字节）
+         */
+        private Long maxFileSize = 10737418240L; // 10GB
+        
+        /**
+         * 单次最多获取的分片上传URL数量
+         */
+        private int urlBatchSize = 50;
+        
+        /**
+         * 前端并发上传的分片数
+         */
+        private int concurrency = 4;
+    }
+    
+    /**
+     * 存储后端配置
+     */
+    @Data
+    public static class Storage {
+        
+        /**
+         * 存储后端类型：oss-阿里云OSS，local-本地磁盘
+         */
+        private String type = "oss";
+        
+        /**
+         * 本地存储根目录（仅local）
+         */
+        private String localRoot = "./data/storage";
+        
+        /**
+         * 本地存储对外访问地址（仅local）
+         */
+        private String localBaseUrl = "http://localhost:9000/local-storage";
+    }
+    
+    /**
+     * 统计配置
+     */
+    @Data
+    public static class Statistics {
+        
+        /**
+         * 内存状态计数与数据库对账的间隔（毫秒）
+         */
+        private long reconcileInterval = 300000L;
+    }
+    
+    /**
+     * 删除配置
+     */
+    @Data
+    public static class Delete {
+        
+        /**
+         * 每批删除的数据库行数（IN列表长度）
+         */
+        private int chunkSize = 1000;
+        
+        /**
+         * 并发删除存储对象的线程数
+         */
+        private int objectDeleteParallelism = 4;
+        
+        /**
+         * 删除存储对象失败后的重试次数
+         */
+        private int objectDeleteRetries = 3;
+        
+        /**
+         * 删除任务结束后保留状态的时间（毫秒）
+         */
+        private long jobRetention = 3600000L;
+    }
+    
+    /**
+     * 待上传记录清理配置
+     */
+    @Data
+    public static class Sweeper {
+        
+        /**
+         * 是否启用清理
+         */
+        private boolean enabled = true;
+        
+        /**
+         * 清理间隔（毫秒）
+         */
+        private long interval = 600000L;
+        
+        /**
+         * 每批检查的记录数
+         */
+        private int batchSize = 500;
+        
+        /**
+         * 单次清理最多处理的批数
+         */
+        private int maxBatchesPerRun = 20;
+        
+        /**
+         * 并发检查存储对象的线程数
+         */
+        private int parallelism = 8;
+        
+        /**
+         * 每秒最多发起的对象检查请求数
+         */
+        private double headRateLimit = 50;
+        
+        /**
+         * 对象不存在时的处理方式：fail-标记为上传失败，purge-删除记录
+         */
+        private String abandonedAction = "fail";
+    }
+    
+    /**
+     * 文件信息缓存配置
+     */
+    @Data
+    public static class Cache {
+        
+        /**
+         * 最大缓存条数
+         */
+        private long maximumSize = 10000L;
+        
+        /**
+         * 写入后过期时间（毫秒）
+         */
+        private long expireAfterWrite = 600000L;
+    }
+    
+    /**
+     * 对象键生成配置
+     */
+    @Data
+    public static class Key {
+        
+        /**
+         * 生成策略：sharded-哈希分片前缀（默认），date-按日期分目录
+         */
+        private String strategy = "sharded";
+        
+        /**
+         * 对象键前缀
+         */
+        private String prefix = "uploads/";
+        
+        /**
+         * 分片前缀长度（十六进制字符数，1-4）
+         */
+        private int shardPrefixLength = 2;
+    }
+    
+    /**
+     * 签名接口限流配置
+     */
+    @Data
+    public static class RateLimit {
+        
+        /**
+         * 是否启用限流
+         */
+        private boolean enabled = true;
+        
+        /**
+         * 每个客户端每秒允许的签名数
+         */
+        private double requestsPerSecond = 20;
+        
+        /**
+         * 每个客户端允许的突发签名数（令牌桶容量）
+         */
+        private int burst = 40;
+        
+        /**
+         * 全局同时进行的签名数上限
+         */
+        private int maxConcurrentSignings = 16;
+        
+        /**
+         * 等待全局签名许可的最长时间（毫秒）
+         */
+        private long acquireTimeout = 20L;
+        
+        /**
+         * 识别客户端的请求头（API Key），缺省时按客户端IP识别
+         */
+        private String clientIdHeader = "X-API-Key";
+        
+        /**
+         * 已登记的API Key；请求头的值不在其中时仍按客户端IP识别，避免伪造请求头绕过限流
+         */
+        private Set<String> apiKeys = new HashSet<>();
+        
+        /**
+         * 最多跟踪的客户端数
+         */
+        private long maxClients = 100000L;
+        
+        /**
+         * 客户端空闲多久后丢弃其令牌桶（毫秒）
+         */
+        private long clientIdleTimeout = 600000L;
+    }
+    
+    /**
+     * 文件下载地址配置
+     */
+    @Data
+    public static class Download {
+        
+        /**
+         * 下载地址模式：public-公共读地址，signed-预签名地址（私有存储桶）
+         */
+        private String mode = "public";
+        
+        /**
+         * 预签名地址有效期（秒）
+         */
+        private long urlExpireTime = 3600L;
+        
+        /**
+         * 预签名地址到期前多久重新签名（秒）
+         */
+        private long refreshBeforeExpire = 300L;
+        
+        /**
+         * 预签名地址缓存的最大条目数
+         */
+        private long cacheMaximumSize = 100000L;
+    }
+    
+    /**
+     * 文件变更事件推送配置（SSE）
+     */
+    @Data
+    public static class Events {
+        
+        /**
+         * 保留的历史事件数，断线重连时按Last-Event-ID补发
+         */
+        private int historySize = 1000;
+        
+        /**
+         * 待推送事件队列容量
+         */
+        private int queueCapacity = 10000;
+        
+        /**
+         * 单个连接的最长保持时间（毫秒），到期后由浏览器自动重连
+         */
+        private long emitterTimeout = 1800000L;
+        
+        /**
+         * 心跳间隔（毫秒），用于发现已断开的连接
+         */
+        private long heartbeatInterval = 30000L;
+        
+        /**
+         * 建议浏览器的重连间隔（毫秒）
+         */
+        private long reconnectTime = 3000L;
+        
+        /**
+         * 每个订阅者的发送队列容量，写出跟不上导致溢出时断开该连接
+         */
+        private int subscriberQueueCapacity = 256;
+        
+        /**
+         * 写出事件的线程数
+         */
+        private int sendParallelism = 4;
+    }
+    
+    /**
+     * 签名请求幂等配置
+     */
+    @Data
+    public static class Idempotency {
+        
+        /**
+         * 内存中保留的最大幂等键数
+         */
+        private long maximumSize = 100000L;
+        
+        /**
+         * 幂等键在内存中的保留时间（毫秒），过期后按数据库记录恢复
+         */
+        private long expireAfterWrite = 3600000L;
+        
+        /**
+         * 签名距离过期不足该时间（秒）时重新签名
+         */
+        private long resignBeforeExpire = 300L;
+    }
+    
+    /**
+     * 待上传预留（延迟落库）配置
+     */
+    @Data
+    public static class Reservation {
+        
+        /**
+         * 是否启用：启用后表单直传获取签名时不写库，上传回调到达时才插入文件信息
+         */
+        private boolean enabled = false;
+        
+        /**
+         * 内存中保留的最大预留数，超出时淘汰的预留按过期处理
+         */
+        private long maximumSize = 1000000L;
+        
+        /**
+         * 预留在签名有效期之外额外保留的时间（秒），用于等待迟到的回调
+         */
+        private long gracePeriod = 600L;
+    }
+    
+    /**
+     * 历史文件信息归档配置
+     */
+    @Data
+    public static class Archive {
+        
+        /**
+         * 是否启用归档
+         */
+        private boolean enabled = false;
+        
+        /**
+         * 归档间隔（毫秒）
+         */
+        private long interval = 3600000L;
+        
+        /**
+         * 上传成功超过该天数的文件信息移入归档表
+         */
+        private int retentionDays = 180;
+        
+        /**
+         * 每批移动的记录数（单个事务）
+         */
+        private int batchSize = 1000;
+        
+        /**
+         * 单次归档最多处理的批数
+         */
+        private int maxBatchesPerRun = 100;
+    }
+    
+    /**
+     * 秒传配置
+     */
+    @Data
+    public static class InstantUpload {
+        
+        /**
+         * 是否启用秒传（知道内容哈希与大小即可引用已上传的对象，仅适用于可信客户端）
+         */
+        private boolean enabled = true;
+        
+        /**
+         * 并发校验存储对象内容哈希的线程数
+         */
+        private int verifyParallelism = 2;
+        
+        /**
+         * 等待校验的内容哈希数上限，超出时放弃本次校验
+         */
+        private int verifyQueueCapacity = 1000;
+    }
+}
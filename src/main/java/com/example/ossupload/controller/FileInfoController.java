@@ -1,13 +1,28 @@
 package com.example.ossupload.controller;
 
 import com.example.ossupload.dto.ApiResponse;
+import com.example.ossupload.dto.CursorPage;
+import com.example.ossupload.dto.DeleteJobStatus;
+import com.example.ossupload.dto.FileInfoListItem;
+import com.example.ossupload.dto.FileListPage;
 import com.example.ossupload.entity.FileInfo;
+import com.example.ossupload.service.FileEventPublisher;
+import com.example.ossupload.service.FileExportService;
 import com.example.ossupload.service.FileInfoService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -23,28 +38,87 @@ import java.util.Optional;
 public class FileInfoController {
     
     private final FileInfoService fileInfoService;
+    private final FileExportService fileExportService;
+    private final FileEventPublisher fileEventPublisher;
     
     /**
-     * 分页查询文件信息
+     * 分页查询文件信息；If-None-Match与当前ETag一致时直接返回304，不查询数据库
      */
     @GetMapping
-    public ApiResponse<Page<FileInfo>> getFileInfoPage(
+    public ResponseEntity<ApiResponse<FileListPage>> getFileInfoPage(
             @RequestParam(required = false) String originalName,
             @RequestParam(required = false) Integer uploadStatus,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createTime") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = fileInfoService.getFileListETag(
+                originalName, uploadStatus, page, size, sortBy, sortDir, includeArchived);
+        if (matchesETag(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
         try {
-            Page<FileInfo> result = fileInfoService.getFileInfoPage(
-                    originalName, uploadStatus, page, size, sortBy, sortDir);
-            return ApiResponse.success(result);
+            FileListPage result = fileInfoService.getFileInfoPage(
+                    originalName, uploadStatus, page, size, sortBy, sortDir, includeArchived);
+            return withETag(etag, ApiResponse.success(result));
         } catch (Exception e) {
             log.error("查询文件信息失败", e);
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * 游标分页查询文件信息
+     */
+    @GetMapping("/cursor")
+    public ApiResponse<CursorPage<FileInfoListItem>> getFileInfoCursorPage(
+            @RequestParam(required = false) String originalName,
+            @RequestParam(required = false) Integer uploadStatus,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "next") String direction,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "createTime") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            CursorPage<FileInfoListItem> result = fileInfoService.getFileInfoCursorPage(
+                    originalName, uploadStatus, cursor, direction, size, sortBy, sortDir, withTotal);
+            return ApiResponse.success(result);
+        } catch (Exception e) {
+            log.error("游标查询文件信息失败", e);
             return ApiResponse.error(e.getMessage());
         }
     }
     
+    /**
+     * 流式导出文件信息（NDJSON或CSV），支持与列表相同的过滤条件
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportFileInfo(
+            @RequestParam(required = false) String originalName,
+            @RequestParam(required = false) Integer uploadStatus,
+            @RequestParam(defaultValue = FileExportService.FORMAT_NDJSON) String format) {
+        boolean csv = FileExportService.FORMAT_CSV.equalsIgnoreCase(format);
+        StreamingResponseBody body = out -> fileExportService.export(originalName, uploadStatus, format, out);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(csv ? "file_info.csv" : "file_info.ndjson").build().toString())
+                .body(body);
+    }
+    
+    /**
+     * 订阅文件变更事件（SSE）：created、status、deleted，以及需要重新加载列表时的reset
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeFileEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return fileEventPublisher.subscribe(lastEventId);
+    }
+    
     /**
      * 根据ID获取文件信息
      */
@@ -64,15 +138,33 @@ public class FileInfoController {
     }
     
     /**
-     * 获取文件统计信息
+     * 获取文件统计信息；If-None-Match与当前ETag一致时直接返回304
      */
     @GetMapping("/statistics")
-    public ApiResponse<Map<String, Object>> getFileStatistics() {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getFileStatistics(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = fileInfoService.getFileStatisticsETag();
+        if (matchesETag(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
         try {
             Map<String, Object> statistics = fileInfoService.getFileStatistics();
-            return ApiResponse.success(statistics);
+            return withETag(etag, ApiResponse.success(statistics));
         } catch (Exception e) {
             log.error("获取文件统计信息失败", e);
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * 获取文件信息缓存统计（命中、未命中、淘汰次数）
+     */
+    @GetMapping("/cache/statistics")
+    public ApiResponse<Map<String, Object>> getCacheStatistics() {
+        try {
+            return ApiResponse.success(fileInfoService.getCacheStatistics());
+        } catch (Exception e) {
+            log.error("获取缓存统计信息失败", e);
             return ApiResponse.error(e.getMessage());
         }
     }
@@ -104,4 +196,69 @@ public class FileInfoController {
             return ApiResponse.error(e.getMessage());
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * 提交后台批量删除任务（适用于大批量删除）
+     */
+    @PostMapping("/delete-jobs")
+    public ApiResponse<DeleteJobStatus> submitDeleteJob(@RequestBody List<Long> ids) {
+        try {
+            return ApiResponse.success(fileInfoService.submitDeleteJob(ids));
+        } catch (Exception e) {
+            log.error("提交批量删除任务失败", e);
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+    
+    /**
+     * 查询批量删除任务状态
+     */
+    @GetMapping("/delete-jobs/{jobId}")
+    public ApiResponse<DeleteJobStatus> getDeleteJobStatus(@PathVariable String jobId) {
+        try {
+            return ApiResponse.success(fileInfoService.getDeleteJobStatus(jobId));
+        } catch (Exception e) {
+            log.error("查询批量删除任务失败", e);
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+    
+    /**
+     * If-None-Match是否包含当前ETag（忽略弱校验前缀）
+     */
+    private static boolean matchesETag(String ifNoneMatch, String etag) {
+        if (!StringUtils.hasText(ifNoneMatch)) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if ("*".equals(tag) || etag.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 304响应
+     */
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .build();
+    }
+    
+    /**
+     * 携带ETag的成功响应；要求浏览器每次使用前重新验证
+     */
+    private static <T> ResponseEntity<T> withETag(String etag, T body) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .body(body);
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.ossupload.controller;
+
+import com.example.ossupload.dto.ApiResponse;
+import com.example.ossupload.storage.LocalStorageBackend;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.tomcat.util.http.fileupload.FileItemIterator;
+import org.apache.tomcat.util.http.fileupload.FileItemStream;
+import org.apache.tomcat.util.http.fileupload.FileUpload;
+import org.apache.tomcat.util.http.fileupload.FileUploadException;
+import org.apache.tomcat.util.http.fileupload.servlet.ServletRequestContext;
+import org.apache.tomcat.util.http.fileupload.util.Streams;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 本地磁盘存储控制器（oss.storage.type=local 时启用）
+ * <p>
+ * 模拟OSS的PostObject上传、分片PUT上传及对象读取接口，前端无需区分存储后端。
+ */
+@Slf4j
+@RestController
+@RequestMapping(LocalStorageController.BASE_PATH)
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*", exposedHeaders = HttpHeaders.ETAG)
+@ConditionalOnProperty(prefix = "oss.storage", name = "type", havingValue = "local")
+public class LocalStorageController {
+    
+    public static final String BASE_PATH = "/local-storage";
+    
+    private static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+    
+    private final LocalStorageBackend localStorageBackend;
+    private final MultipartProperties multipartProperties;
+    
+    /**
+     * PostObject表单上传，成功返回204（与OSS一致）
+     * <p>
+     * 按流式解析表单（需关闭Spring的预先解析，见 spring.servlet.multipart.resolve-lazily），
+     * 文件内容不经Servlet临时文件中转，直接写入目标目录。与OSS一致，file须为表单最后一个字段。
+     */
+    @PostMapping
+    public ResponseEntity<ApiResponse<Void>> postObject(HttpServletRequest request) {
+        String key = null;
+        try {
+            FileUpload upload = new FileUpload();
+            upload.setSizeMax(multipartProperties.getMaxRequestSize().toBytes());
+            Map<String, String> fields = new HashMap<>();
+            FileItemIterator items = upload.getItemIterator(new ServletRequestContext(request));
+            while (items.hasNext()) {
+                FileItemStream item = items.next();
+                if (item.isFormField()) {
+                    try (InputStream in = item.openStream()) {
+                        fields.put(item.getFieldName(), Streams.asString(in, StandardCharsets.UTF_8.name()));
+                    }
+                } else if ("file".equals(item.getFieldName())) {
+                    key = fields.get("key");
+                    String policy = fields.get("policy");
+                    String signature = fields.get("signature");
+                    if (key == null || policy == null || signature == null) {
+                        return ResponseEntity.badRequest().body(ApiResponse.error(400, "缺少key、policy或signature字段"));
+                    }
+                    try (InputStream in = item.openStream();
+                         ReadableByteChannel body = Channels.newChannel(in)) {
+                        localStorageBackend.storePostObject(key, policy, signature, body);
+                    }
+                    return ResponseEntity.noContent().build();
+                }
+            }
+            return ResponseEntity.badRequest().body(ApiResponse.error(400, "缺少文件内容"));
+        } catch (SecurityException | IllegalArgumentException e) {
+            log.warn("本地存储上传被拒绝: {}, {}", key, e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResponse.error(403, e.getMessage()));
+        } catch (FileUploadException e) {
+            log.warn("本地存储上传表单无效: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(ApiResponse.error(400, e.getMessage()));
+        } catch (Exception e) {
+            log.error("本地存储上传失败", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * 分片上传（预签名PUT地址），成功返回200及ETag响应头（与OSS一致）
+     */
+    @PutMapping("/**")
+    public ResponseEntity<ApiResponse<Void>> uploadPart(@RequestParam String uploadId,
+                                                        @RequestParam int partNumber,
+                                                        @RequestParam long expires,
+                                                        @RequestParam String signature,
+                                                        HttpServletRequest request) {
+        String key = extractKey(request);
+        try {
+            long size = request.getContentLengthLong();
+            if (size < 0) {
+                return ResponseEntity.status(HttpStatus.LENGTH_REQUIRED).body(ApiResponse.error(411, "缺少Content-Length"));
+            }
+            String etag = localStorageBackend.storePart(key, uploadId, partNumber, expires, signature,
+                    request.getInputStream(), size);
+            return ResponseEntity.ok().eTag(etag).build();
+        } catch (SecurityException | IllegalArgumentException e) {
+            log.warn("本地存储分片上传被拒绝: {}, {}", key, e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResponse.error(403, e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(404, e.getMessage()));
+        } catch (Exception e) {
+            log.error("本地存储分片上传失败", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * 读取对象：Tomcat支持时使用sendfile零拷贝发送，否则通过FileChannel.transferTo写出
+     */
+    @GetMapping("/**")
+    public void getObject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String key = extractKey(request);
+        
+        Path path;
+        try {
+            path = localStorageBackend.getObjectPath(key);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        if (path == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        
+        long size = path.toFile().length();
+        response.setContentType(MediaTypeFactory.getMediaType(key)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setContentLengthLong(size);
+        
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTR, path.toString());
+            request.setAttribute(SENDFILE_START_ATTR, 0L);
+            request.setAttribute(SENDFILE_END_ATTR, size);
+        } else {
+            localStorageBackend.transferObject(key, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+    
+    /**
+     * 从请求路径中解析对象键
+     */
+    private static String extractKey(HttpServletRequest request) {
+        String prefix = request.getContextPath() + BASE_PATH + "/";
+        return UriUtils.decode(request.getRequestURI().substring(prefix.length()), StandardCharsets.UTF_8);
+    }
+}
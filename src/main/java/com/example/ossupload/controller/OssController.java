@@ -1,15 +1,27 @@
 package com.example.ossupload.controller;
 
 import com.example.ossupload.dto.ApiResponse;
+import com.example.ossupload.dto.FileUploadBatchRequest;
 import com.example.ossupload.dto.FileUploadCallbackRequest;
 import com.example.ossupload.dto.FileUploadRequest;
+import com.example.ossupload.dto.MultipartPartInfo;
+import com.example.ossupload.dto.MultipartPartUrl;
+import com.example.ossupload.dto.MultipartPartUrlRequest;
+import com.example.ossupload.dto.MultipartUploadResponse;
 import com.example.ossupload.dto.OssSignatureResponse;
+import com.example.ossupload.entity.FileInfo;
 import com.example.ossupload.service.OssService;
+import com.example.ossupload.service.SignatureAdmission;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.util.List;
 
 /**
  * OSS文件上传控制器
@@ -22,19 +34,43 @@ import javax.validation.Valid;
 public class OssController {
     
     private final OssService ossService;
+    private final SignatureAdmission signatureAdmission;
     
     /**
      * 获取OSS上传签名
      */
     @PostMapping("/signature")
-    public ApiResponse<OssSignatureResponse> getUploadSignature(@Valid @RequestBody FileUploadRequest request) {
+    public ApiResponse<OssSignatureResponse> getUploadSignature(@Valid @RequestBody FileUploadRequest request,
+                                                                HttpServletRequest httpRequest) {
+        signatureAdmission.acquire(httpRequest, 1);
         try {
-            log.info("获取OSS上传签名请求: {}", request.getFileName());
+            log.debug("获取OSS上传签名请求: {}", request.getFileName());
             OssSignatureResponse signature = ossService.generateSignature(request);
             return ApiResponse.success(signature);
         } catch (Exception e) {
             log.error("获取OSS上传签名失败", e);
             return ApiResponse.error(e.getMessage());
+        } finally {
+            signatureAdmission.release();
+        }
+    }
+    
+    /**
+     * 批量获取OSS上传签名
+     */
+    @PostMapping("/signatures")
+    public ApiResponse<List<OssSignatureResponse>> getUploadSignatures(@Valid @RequestBody FileUploadBatchRequest request,
+                                                                       HttpServletRequest httpRequest) {
+        signatureAdmission.acquire(httpRequest, request.getFiles().size());
+        try {
+            log.debug("批量获取OSS上传签名请求，数量: {}", request.getFiles().size());
+            List<OssSignatureResponse> signatures = ossService.generateSignatures(request.getFiles());
+            return ApiResponse.success(signatures);
+        } catch (Exception e) {
+            log.error("批量获取OSS上传签名失败", e);
+            return ApiResponse.error(e.getMessage());
+        } finally {
+            signatureAdmission.release();
         }
     }
     
@@ -44,13 +80,112 @@ public class OssController {
     @PostMapping("/callback")
     public ApiResponse<Void> uploadCallback(@RequestBody FileUploadCallbackRequest request) {
         try {
-            log.info("文件上传回调: fileInfoId={}, status={}", 
+            log.debug("文件上传回调: fileInfoId={}, status={}", 
                     request.getFileInfoId(), request.getUploadStatus());
-            ossService.handleUploadCallback(request);
+            ossService.acceptUploadCallback(request);
             return ApiResponse.success();
         } catch (Exception e) {
             log.error("处理文件上传回调失败", e);
             return ApiResponse.error(e.getMessage());
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * 初始化分片上传
+     */
+    @PostMapping("/multipart/initiate")
+    public ApiResponse<MultipartUploadResponse> initiateMultipartUpload(@Valid @RequestBody FileUploadRequest request,
+                                                                        HttpServletRequest httpRequest) {
+        signatureAdmission.acquire(httpRequest, 1);
+        try {
+            log.info("初始化分片上传请求: {}, 大小: {}", request.getFileName(), request.getFileSize());
+            return ApiResponse.success(ossService.initiateMultipartUpload(request));
+        } catch (Exception e) {
+            log.error("初始化分片上传失败", e);
+            return ApiResponse.error(e.getMessage());
+        } finally {
+            signatureAdmission.release();
+        }
+    }
+    
+    /**
+     * 查询分片上传进度
+     */
+    @GetMapping("/multipart/{fileInfoId}")
+    public ApiResponse<MultipartUploadResponse> getMultipartUpload(@PathVariable Long fileInfoId) {
+        try {
+            return ApiResponse.success(ossService.getMultipartUpload(fileInfoId));
+        } catch (Exception e) {
+            log.error("查询分片上传进度失败", e);
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+    
+    /**
+     * 批量获取分片上传地址
+     */
+    @PostMapping("/multipart/{fileInfoId}/urls")
+    public ApiResponse<List<MultipartPartUrl>> getPartUploadUrls(@PathVariable Long fileInfoId,
+                                                                 @Valid @RequestBody MultipartPartUrlRequest request) {
+        try {
+            return ApiResponse.success(ossService.generatePartUrls(fileInfoId, request.getPartNumbers()));
+        } catch (Exception e) {
+            log.error("获取分片上传地址失败", e);
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+    
+    /**
+     * 记录已完成的分片
+     */
+    @PostMapping("/multipart/{fileInfoId}/parts")
+    public ApiResponse<Void> recordPart(@PathVariable Long fileInfoId,
+                                        @Valid @RequestBody MultipartPartInfo request) {
+        try {
+            ossService.recordPart(fileInfoId, request);
+            return ApiResponse.success();
+        } catch (Exception e) {
+            log.error("记录分片失败", e);
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+    
+    /**
+     * 完成分片上传
+     */
+    @PostMapping("/multipart/{fileInfoId}/complete")
+    public ApiResponse<FileInfo> completeMultipartUpload(@PathVariable Long fileInfoId) {
+        try {
+            log.info("完成分片上传请求: fileInfoId={}", fileInfoId);
+            return ApiResponse.success(ossService.completeMultipartUpload(fileInfoId));
+        } catch (Exception e) {
+            log.error("完成分片上传失败", e);
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+    
+    /**
+     * 取消分片上传
+     */
+    @DeleteMapping("/multipart/{fileInfoId}")
+    public ApiResponse<Void> abortMultipartUpload(@PathVariable Long fileInfoId) {
+        try {
+            log.info("取消分片上传请求: fileInfoId={}", fileInfoId);
+            ossService.abortMultipartUpload(fileInfoId);
+            return ApiResponse.success();
+        } catch (Exception e) {
+            log.error("取消分片上传失败", e);
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+    
+    /**
+     * 签名准入被拒绝：立即返回429，不进入签名流程
+     */
+    @ExceptionHandler(SignatureAdmission.RejectedException.class)
+    public ResponseEntity<ApiResponse<Void>> handleAdmissionRejected(SignatureAdmission.RejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(ApiResponse.error(HttpStatus.TOO_MANY_REQUESTS.value(), e.getMessage()));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.ossupload.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 游标分页结果DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    
+    /**
+     * 当前页数据
+     */
+    private List<T> content;
+    
+    /**
+     * 每页数量
+     */
+    private Integer size;
+    
+    /**
+     * 下一页游标，无下一页时为空
+     */
+    private String nextCursor;
+    
+    /**
+     * 上一页游标，无上一页时为空
+     */
+    private String prevCursor;
+    
+    /**
+     * 是否有下一页
+     */
+    private Boolean hasNext;
+    
+    /**
+     * 是否有上一页
+     */
+    private Boolean hasPrev;
+    
+    /**
+     * 总数量（仅在请求时统计）
+     */
+    private Long totalElements;
+    
+    /**
+     * 对象访问URL前缀（列表项的ossKey拼接后即为访问地址；签名下载模式下为空，各列表项携带downloadUrl）
+     */
+    private String urlPrefix;
+}
@@ -0,0 +1,61 @@
+package com.example.ossupload.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 批量删除任务状态DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeleteJobStatus {
+    
+    /**
+     * 任务ID
+     */
+    private String jobId;
+    
+    /**
+     * 任务状态：RUNNING-执行中，COMPLETED-已完成，FAILED-失败
+     */
+    private String status;
+    
+    /**
+     * 提交的文件数量
+     */
+    private Long total;
+    
+    /**
+     * 已删除的数据库记录数
+     */
+    private Long deletedRows;
+    
+    /**
+     * 已删除的存储对象数
+     */
+    private Long deletedObjects;
+    
+    /**
+     * 重试后仍删除失败的存储对象数
+     */
+    private Long failedObjects;
+    
+    /**
+     * 错误信息
+     */
+    private String errorMessage;
+    
+    /**
+     * 创建时间（时间戳）
+     */
+    private Long createTime;
+    
+    /**
+     * 结束时间（时间戳）
+     */
+    private Long finishTime;
+}
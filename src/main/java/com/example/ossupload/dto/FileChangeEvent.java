@@ -0,0 +1,44 @@
+package com.example.ossupload.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 文件变更事件DTO（通过SSE推送给文件列表页）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileChangeEvent {
+    
+    /**
+     * 事件类型：created-新建，status-状态变化，deleted-删除
+     */
+    private String type;
+    
+    /**
+     * 变更后的列表项（新建、状态变化）
+     */
+    private List<FileInfoListItem> items;
+    
+    /**
+     * 删除的文件信息ID
+     */
+    private List<Long> ids;
+    
+    /**
+     * 各状态数量的变化：pending/success/failed -> 增量
+     */
+    private Map<String, Long> statisticsDelta;
+    
+    /**
+     * 对象访问URL前缀（签名下载模式下为空，列表项携带downloadUrl）
+     */
+    private String urlPrefix;
+}
@@ -0,0 +1,110 @@
+package com.example.ossupload.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 文件列表项DTO（只读投影，仅包含列表页展示的字段）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonSerialize(using = FileInfoListItem.Serializer.class)
+public class FileInfoListItem {
+    
+    /**
+     * 文件信息ID
+     */
+    private Long id;
+    
+    /**
+     * 原始文件名
+     */
+    private String originalName;
+    
+    /**
+     * 文件大小（字节）
+     */
+    private Long fileSize;
+    
+    /**
+     * 文件扩展名
+     */
+    private String fileExtension;
+    
+    /**
+     * 上传状态：0-待上传，1-上传成功，2-上传失败
+     */
+    private Integer uploadStatus;
+    
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+    
+    /**
+     * OSS中的文件名（与列表的urlPrefix拼接即为访问地址）
+     */
+    private String ossKey;
+    
+    /**
+     * 下载地址（仅签名下载模式下填充，此时列表不返回urlPrefix）
+     */
+    private String downloadUrl;
+    
+    /**
+     * 列表查询投影使用的构造器
+     */
+    public FileInfoListItem(Long id, String originalName, Long fileSize, String fileExtension,
+                            Integer uploadStatus, LocalDateTime createTime, String ossKey) {
+        this(id, originalName, fileSize, fileExtension, uploadStatus, createTime, ossKey, null);
+    }
+    
+    /**
+     * 流式序列化：直接写出字段，不经过Bean反射
+     */
+    public static class Serializer extends StdSerializer<FileInfoListItem> {
+        
+        public Serializer() {
+            super(FileInfoListItem.class);
+        }
+        
+        @Override
+        public void serialize(FileInfoListItem item, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            writeNumberField(gen, "id", item.getId());
+            gen.writeStringField("originalName", item.getOriginalName());
+            writeNumberField(gen, "fileSize", item.getFileSize());
+            gen.writeStringField("fileExtension", item.getFileExtension());
+            if (item.getUploadStatus() != null) {
+                gen.writeNumberField("uploadStatus", item.getUploadStatus());
+            } else {
+                gen.writeNullField("uploadStatus");
+            }
+            gen.writeStringField("createTime", item.getCreateTime() == null
+                    ? null : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(item.getCreateTime()));
+            gen.writeStringField("ossKey", item.getOssKey());
+            if (item.getDownloadUrl() != null) {
+                gen.writeStringField("downloadUrl", item.getDownloadUrl());
+            }
+            gen.writeEndObject();
+        }
+        
+        private void writeNumberField(JsonGenerator gen, String name, Long value) throws IOException {
+            if (value != null) {
+                gen.writeNumberField(name, value);
+            } else {
+                gen.writeNullField(name);
+            }
+        }
+    }
+}
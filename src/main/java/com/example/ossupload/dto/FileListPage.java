@@ -0,0 +1,84 @@
+package com.example.ossupload.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 文件列表分页结果DTO
+ * <p>
+ * 只保留前端分页所需字段（不含Spring Data Page的pageable/sort等信息），使用流式序列化输出。
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonSerialize(using = FileListPage.Serializer.class)
+public class FileListPage {
+    
+    /**
+     * 当前页数据
+     */
+    private List<FileInfoListItem> content;
+    
+    /**
+     * 当前页码（从0开始）
+     */
+    private int number;
+    
+    /**
+     * 每页数量
+     */
+    private int size;
+    
+    /**
+     * 总数量
+     */
+    private long totalElements;
+    
+    /**
+     * 总页数
+     */
+    private int totalPages;
+    
+    /**
+     * 对象访问URL前缀（签名下载模式下为空，各列表项携带downloadUrl）
+     */
+    private String urlPrefix;
+    
+    /**
+     * 流式序列化：直接写出字段，不经过Bean反射
+     */
+    public static class Serializer extends StdSerializer<FileListPage> {
+        
+        private final FileInfoListItem.Serializer itemSerializer = new FileInfoListItem.Serializer();
+        
+        public Serializer() {
+            super(FileListPage.class);
+        }
+        
+        @Override
+        public void serialize(FileListPage page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeArrayFieldStart("content");
+            for (FileInfoListItem item : page.getContent()) {
+                itemSerializer.serialize(item, gen, provider);
+            }
+            gen.writeEndArray();
+            gen.writeNumberField("number", page.getNumber());
+            gen.writeNumberField("size", page.getSize());
+            gen.writeNumberField("totalElements", page.getTotalElements());
+            gen.writeNumberField("totalPages", page.getTotalPages());
+            gen.writeStringField("urlPrefix", page.getUrlPrefix());
+            gen.writeEndObject();
+        }
+    }
+}
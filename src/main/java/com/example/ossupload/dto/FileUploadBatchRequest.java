@@ -0,0 +1,23 @@
+package com.example.ossupload.dto;
+
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * 批量文件上传请求DTO
+ */
+@Data
+public class FileUploadBatchRequest {
+    
+    /**
+     * 待上传文件列表
+     */
+    @Valid
+    @NotEmpty(message = "文件列表不能为空")
+    @Size(max = 1000, message = "单次最多申请1000个文件的签名")
+    private List<FileUploadRequest> files;
+}
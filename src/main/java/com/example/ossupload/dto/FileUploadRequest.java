@@ -4,6 +4,8 @@ import lombok.Data;
 
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
 
 /**
  * 文件上传请求DTO
@@ -23,6 +25,12 @@ public class FileUploadRequest {
     @NotNull(message = "文件大小不能为空")
     private Long fileSize;
     
+    /**
+     * 内容哈希（SHA-256，十六进制，可选）；与已上传文件相同时秒传
+     */
+    @Pattern(regexp = "^[0-9a-fA-F]{64}$", message = "内容哈希格式不正确")
+    private String contentHash;
+    
     /**
      * 文件类型
      */
@@ -37,4 +45,10 @@ public class FileUploadRequest {
      * 备注
      */
     private String remark;
+    
+    /**
+     * 幂等键（可选，如客户端生成的UUID）；重试时携带相同的键将返回首次请求的签名，不会重复创建文件信息
+     */
+    @Size(max = 64, message = "幂等键长度不能超过64")
+    private String idempotencyKey;
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.example.ossupload.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+/**
+ * 分片信息DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultipartPartInfo {
+    
+    /**
+     * 分片序号（1-10000）
+     */
+    @NotNull(message = "分片序号不能为空")
+    @Min(value = 1, message = "分片序号最小为1")
+    @Max(value = 10000, message = "分片序号最大为10000")
+    private Integer partNumber;
+    
+    /**
+     * 分片ETag
+     */
+    @NotBlank(message = "分片ETag不能为空")
+    private String etag;
+    
+    /**
+     * 分片大小（字节）
+     */
+    private Long size;
+}
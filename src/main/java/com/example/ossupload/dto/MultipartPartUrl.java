@@ -0,0 +1,24 @@
+package com.example.ossupload.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 分片上传预签名URL DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultipartPartUrl {
+    
+    /**
+     * 分片序号
+     */
+    private Integer partNumber;
+    
+    /**
+     * 预签名的UploadPart地址（PUT）
+     */
+    private String url;
+}
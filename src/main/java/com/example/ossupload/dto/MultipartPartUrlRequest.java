@@ -0,0 +1,19 @@
+package com.example.ossupload.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+/**
+ * 获取分片上传URL请求DTO
+ */
+@Data
+public class MultipartPartUrlRequest {
+    
+    /**
+     * 分片序号列表
+     */
+    @NotEmpty(message = "分片序号不能为空")
+    private List<Integer> partNumbers;
+}
@@ -0,0 +1,58 @@
+package com.example.ossupload.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 分片上传任务响应DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultipartUploadResponse {
+    
+    /**
+     * 文件信息ID
+     */
+    private Long fileInfoId;
+    
+    /**
+     * 文件在OSS中的键（路径）
+     */
+    private String key;
+    
+    /**
+     * 分片上传ID
+     */
+    private String uploadId;
+    
+    /**
+     * 分片大小（字节）
+     */
+    private Long partSize;
+    
+    /**
+     * 分片总数
+     */
+    private Integer partCount;
+    
+    /**
+     * 建议的并发上传分片数
+     */
+    private Integer concurrency;
+    
+    /**
+     * 单次最多获取的分片上传URL数量
+     */
+    private Integer urlBatchSize;
+    
+    /**
+     * 已完成的分片（用于断点续传）
+     */
+    private List<MultipartPartInfo> parts;
+}
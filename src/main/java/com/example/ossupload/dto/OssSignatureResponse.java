@@ -53,4 +53,9 @@ public class OssSignatureResponse {
      * 文件信息ID（用于后续更新文件状态）
      */
     private Long fileInfoId;
+    
+    /**
+     * 是否秒传：为true时文件已存在，无需上传和回调，签名字段为空
+     */
+    private Boolean instant;
 }
\ No newline at end of file
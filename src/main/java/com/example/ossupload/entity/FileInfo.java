@@ -12,11 +12,22 @@ import java.time.LocalDateTime;
  */
 @Data
 @Entity
-@Table(name = "file_info")
+@Table(name = "file_info", indexes = {
+        @Index(name = "idx_file_info_create_time_id", columnList = "create_time, id"),
+        @Index(name = "idx_file_info_status_create_time", columnList = "upload_status, create_time, id"),
+        @Index(name = "idx_file_info_file_size_id", columnList = "file_size, id"),
+        @Index(name = "idx_file_info_original_name_id", columnList = "original_name, id"),
+        @Index(name = "idx_file_info_oss_key", columnList = "oss_key"),
+        @Index(name = "idx_file_info_content_hash", columnList = "content_hash")
+})
 public class FileInfo {
     
+    /**
+     * 主键：使用pooled序列分配，以便批量插入时Hibernate能够合并为JDBC批处理
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "file_info_seq")
+    @SequenceGenerator(name = "file_info_seq", sequenceName = "file_info_seq", allocationSize = 50)
     private Long id;
     
     /**
@@ -26,17 +37,23 @@ public class FileInfo {
     private String originalName;
     
     /**
-     * OSS中的文件名（包含路径）
+     * OSS中的文件名（包含路径）；秒传的文件与源文件共享同一对象
      */
-    @Column(name = "oss_key", nullable = false, unique = true)
+    @Column(name = "oss_key", nullable = false)
     private String ossKey;
     
     /**
      * 文件大小（字节）
      */
-    @Column(name = "file_size")
+    @Column(name = "file_size", nullable = false)
     private Long fileSize;
     
+    /**
+     * 内容哈希（SHA-256，小写十六进制，可选）
+     */
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
     /**
      * 文件类型
      */
@@ -50,22 +67,34 @@ public class FileInfo {
     private String fileExtension;
     
     /**
-     * OSS访问URL
+     * 访问URL（不落库，返回前按下载模式生成，见DownloadUrlService）
      */
-    @Column(name = "oss_url", length = 500)
+    @Transient
     private String ossUrl;
     
     /**
      * 上传状态：0-待上传，1-上传成功，2-上传失败
      */
-    @Column(name = "upload_status")
+    @Column(name = "upload_status", nullable = false)
     private Integer uploadStatus = 0;
     
+    /**
+     * 分片上传ID（仅分片上传）
+     */
+    @Column(name = "upload_id", length = 64)
+    private String uploadId;
+    
+    /**
+     * 分片大小（仅分片上传）
+     */
+    @Column(name = "part_size")
+    private Long partSize;
+    
     /**
      * 创建时间
      */
     @CreationTimestamp
-    @Column(name = "create_time")
+    @Column(name = "create_time", nullable = false)
     private LocalDateTime createTime;
     
     /**
@@ -80,4 +109,10 @@ public class FileInfo {
      */
     @Column(name = "remark")
     private String remark;
+    
+    /**
+     * 客户端提供的幂等键，重复的签名请求返回同一条记录
+     */
+    @Column(name = "idempotency_key", length = 64, unique = true)
+    private String idempotencyKey;
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.example.ossupload.entity;
+
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 已归档的文件信息（冷数据）
+ * <p>
+ * 字段与 {@link FileInfo} 一致（ID沿用原记录），另记录归档时间；由归档任务从 file_info 批量移入，不再修改。
+ */
+@Data
+@Entity
+@Table(name = "file_info_archive", indexes = {
+        @Index(name = "idx_file_info_archive_create_time_id", columnList = "create_time, id"),
+        @Index(name = "idx_file_info_archive_oss_key", columnList = "oss_key")
+})
+public class FileInfoArchive {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "original_name", nullable = false)
+    private String originalName;
+    
+    @Column(name = "oss_key", nullable = false)
+    private String ossKey;
+    
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+    
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
+    @Column(name = "content_type")
+    private String contentType;
+    
+    @Column(name = "file_extension")
+    private String fileExtension;
+    
+    @Column(name = "upload_status", nullable = false)
+    private Integer uploadStatus;
+    
+    @Column(name = "upload_id", length = 64)
+    private String uploadId;
+    
+    @Column(name = "part_size")
+    private Long partSize;
+    
+    @Column(name = "create_time", nullable = false)
+    private LocalDateTime createTime;
+    
+    @Column(name = "update_time")
+    private LocalDateTime updateTime;
+    
+    @Column(name = "remark")
+    private String remark;
+    
+    /**
+     * 原记录的幂等键，归档后重放同一个键仍返回原记录
+     */
+    @Column(name = "idempotency_key", length = 64, unique = true)
+    private String idempotencyKey;
+    
+    /**
+     * 归档时间
+     */
+    @Column(name = "archive_time")
+    private LocalDateTime archiveTime;
+}
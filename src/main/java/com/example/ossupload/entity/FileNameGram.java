@@ -0,0 +1,51 @@
+package com.example.ossupload.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * 文件名三元组倒排索引实体类
+ * <p>
+ * 主键 (gram, file_info_id) 即为按三元组查找文件的索引。
+ */
+@Data
+@Entity
+@IdClass(FileNameGram.Key.class)
+@Table(name = "file_name_gram", indexes = {
+        @Index(name = "idx_file_name_gram_file_info_id", columnList = "file_info_id")
+})
+public class FileNameGram {
+    
+    /**
+     * 文件名三元组（小写）
+     */
+    @Id
+    @Column(name = "gram", length = 3)
+    private String gram;
+    
+    /**
+     * 文件信息ID
+     */
+    @Id
+    @Column(name = "file_info_id")
+    private Long fileInfoId;
+    
+    /**
+     * 联合主键
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private String gram;
+        
+        private Long fileInfoId;
+    }
+}
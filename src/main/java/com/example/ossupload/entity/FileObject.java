@@ -0,0 +1,55 @@
+package com.example.ossupload.entity;
+
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 可复用的存储对象实体类（秒传）
+ * <p>
+ * 按内容哈希唯一登记已上传成功的存储对象，引用计数为指向该对象的文件信息条数，
+ * 计数归零时才删除存储对象。
+ */
+@Data
+@Entity
+@Table(name = "file_object")
+public class FileObject {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "file_object_seq")
+    @SequenceGenerator(name = "file_object_seq", sequenceName = "file_object_seq", allocationSize = 50)
+    private Long id;
+    
+    /**
+     * 内容哈希（SHA-256，小写十六进制）
+     */
+    @Column(name = "content_hash", nullable = false, unique = true, length = 64)
+    private String contentHash;
+    
+    /**
+     * 文件大小（字节）
+     */
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+    
+    /**
+     * 存储对象键
+     */
+    @Column(name = "oss_key", nullable = false, unique = true)
+    private String ossKey;
+    
+    /**
+     * 引用计数
+     */
+    @Column(name = "ref_count", nullable = false)
+    private Long refCount;
+    
+    /**
+     * 创建时间
+     */
+    @CreationTimestamp
+    @Column(name = "create_time")
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,53 @@
+package com.example.ossupload.entity;
+
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 分片上传已完成分片实体类
+ */
+@Data
+@Entity
+@Table(name = "file_part",
+       uniqueConstraints = @UniqueConstraint(name = "uk_file_part", columnNames = {"file_info_id", "part_number"}))
+public class FilePart {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "file_part_seq")
+    @SequenceGenerator(name = "file_part_seq", sequenceName = "file_part_seq", allocationSize = 50)
+    private Long id;
+    
+    /**
+     * 文件信息ID
+     */
+    @Column(name = "file_info_id", nullable = false)
+    private Long fileInfoId;
+    
+    /**
+     * 分片序号（从1开始）
+     */
+    @Column(name = "part_number", nullable = false)
+    private Integer partNumber;
+    
+    /**
+     * 分片ETag
+     */
+    @Column(name = "etag", nullable = false, length = 64)
+    private String etag;
+    
+    /**
+     * 分片大小（字节）
+     */
+    @Column(name = "part_size")
+    private Long partSize;
+    
+    /**
+     * 创建时间
+     */
+    @CreationTimestamp
+    @Column(name = "create_time")
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,47 @@
+package com.example.ossupload.repository;
+
+import com.example.ossupload.entity.FileInfoArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 归档文件信息数据访问层
+ */
+@Repository
+public interface FileInfoArchiveRepository extends JpaRepository<FileInfoArchive, Long> {
+    
+    /**
+     * 根据OSS键查找归档文件信息（秒传文件共享对象时返回最早的一条）
+     */
+    Optional<FileInfoArchive> findFirstByOssKeyOrderByIdAsc(String ossKey);
+    
+    /**
+     * 统计引用指定OSS键的归档文件信息数量
+     */
+    long countByOssKey(String ossKey);
+    
+    /**
+     * 按幂等键查询
+     */
+    Optional<FileInfoArchive> findByIdempotencyKey(String idempotencyKey);
+    
+    /**
+     * 查询待删除归档文件的ID、OSS键、上传状态及幂等键
+     */
+    @Query("SELECT a.id, a.ossKey, a.uploadStatus, a.idempotencyKey FROM FileInfoArchive a WHERE a.id IN :ids")
+    List<Object[]> findDeleteTargetsByIds(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 按ID批量删除归档文件信息
+     */
+    @Modifying
+    @Query("DELETE FROM FileInfoArchive a WHERE a.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
@@ -1,45 +1,219 @@
 package com.example.ossupload.repository;
 
+import com.example.ossupload.dto.FileInfoListItem;
 import com.example.ossupload.entity.FileInfo;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * 文件信息数据访问层
  */
 @Repository
-public interface FileInfoRepository extends JpaRepository<FileInfo, Long> {
+public interface FileInfoRepository extends JpaRepository<FileInfo, Long>, FileInfoRepositoryCustom {
     
     /**
-     * 根据OSS键查找文件信息
+     * 通过三元组索引筛选候选文件：包含检索词全部三元组的文件ID
      */
-    Optional<FileInfo> findByOssKey(String ossKey);
+    String NAME_GRAM_SUBQUERY = "SELECT g.fileInfoId FROM FileNameGram g WHERE g.gram IN :grams " +
+            "GROUP BY g.fileInfoId HAVING COUNT(g) = :gramCount";
+    
+    /**
+     * 列表投影：只查询列表页展示的字段
+     */
+    String LIST_ITEM_FROM = "SELECT new com.example.ossupload.dto.FileInfoListItem(" +
+            "f.id, f.originalName, f.fileSize, f.fileExtension, f.uploadStatus, f.createTime, f.ossKey) " +
+            "FROM FileInfo f ";
+    
+    String LIST_ITEM_SELECT = LIST_ITEM_FROM + "WHERE ";
+    
+    /**
+     * 按文件名（LIKE）和状态过滤
+     */
+    String LIKE_CONDITIONS = "(:originalName IS NULL OR f.originalName LIKE %:originalName%) AND " +
+            "(:uploadStatus IS NULL OR f.uploadStatus = :uploadStatus)";
+    
+    /**
+     * 三元组候选集上复核文件名并按状态过滤
+     */
+    String NAME_GRAM_CONDITIONS = "f.id IN (" + NAME_GRAM_SUBQUERY + ") AND " +
+            "f.originalName LIKE %:originalName% AND " +
+            "(:uploadStatus IS NULL OR f.uploadStatus = :uploadStatus)";
+    
+    /**
+     * 根据OSS键查找文件信息（秒传文件共享对象时返回最早的一条）
+     */
+    Optional<FileInfo> findFirstByOssKeyOrderByIdAsc(String ossKey);
+    
+    /**
+     * 根据内容哈希和大小查找指定状态的文件信息
+     */
+    Optional<FileInfo> findFirstByContentHashAndFileSizeAndUploadStatus(String contentHash, Long fileSize,
+                                                                         Integer uploadStatus);
+    
+    /**
+     * 统计引用同一OSS键的文件信息数量
+     */
+    long countByOssKey(String ossKey);
+    
+    /**
+     * 清除引用指定对象的内容哈希（对象内容与哈希不一致时）
+     */
+    @Modifying
+    @Query("UPDATE FileInfo f SET f.contentHash = NULL WHERE f.ossKey = :ossKey AND f.contentHash = :contentHash")
+    int clearContentHash(@Param("ossKey") String ossKey, @Param("contentHash") String contentHash);
     
     /**
      * 根据上传状态查找文件列表
      */
     List<FileInfo> findByUploadStatus(Integer uploadStatus);
     
+    /**
+     * 无过滤条件的列表页，按 (排序字段, id) 索引读取，不执行count
+     */
+    @Query(LIST_ITEM_FROM)
+    List<FileInfoListItem> findListItems(Pageable pageable);
+    
+    /**
+     * 按状态等值过滤的列表页，按 (upload_status, create_time, id) 索引读取，不执行count
+     */
+    @Query(LIST_ITEM_SELECT + "f.uploadStatus = :uploadStatus")
+    List<FileInfoListItem> findListItemsByStatus(@Param("uploadStatus") Integer uploadStatus, Pageable pageable);
+    
     /**
      * 分页查询文件信息
      */
-    @Query("SELECT f FROM FileInfo f WHERE " +
-           "(:originalName IS NULL OR f.originalName LIKE %:originalName%) AND " +
-           "(:uploadStatus IS NULL OR f.uploadStatus = :uploadStatus)")
-    Page<FileInfo> findByConditions(@Param("originalName") String originalName,
-                                   @Param("uploadStatus") Integer uploadStatus,
-                                   Pageable pageable);
+    @Query(value = LIST_ITEM_SELECT + LIKE_CONDITIONS,
+           countQuery = "SELECT COUNT(f) FROM FileInfo f WHERE " + LIKE_CONDITIONS)
+    Page<FileInfoListItem> findByConditions(@Param("originalName") String originalName,
+                                            @Param("uploadStatus") Integer uploadStatus,
+                                            Pageable pageable);
+    
+    /**
+     * 分页查询文件信息（文件名走三元组索引，检索词至少3个字符）
+     */
+    @Query(value = LIST_ITEM_SELECT + NAME_GRAM_CONDITIONS,
+           countQuery = "SELECT COUNT(f) FROM FileInfo f WHERE " + NAME_GRAM_CONDITIONS)
+    Page<FileInfoListItem> findByNameGrams(@Param("grams") Collection<String> grams,
+                                           @Param("gramCount") long gramCount,
+                                           @Param("originalName") String originalName,
+                                           @Param("uploadStatus") Integer uploadStatus,
+                                           Pageable pageable);
+    
+    /**
+     * 按条件统计文件数量（文件名走三元组索引，检索词至少3个字符）
+     */
+    @Query("SELECT COUNT(f) FROM FileInfo f WHERE " + NAME_GRAM_CONDITIONS)
+    long countByNameGrams(@Param("grams") Collection<String> grams,
+                          @Param("gramCount") long gramCount,
+                          @Param("originalName") String originalName,
+                          @Param("uploadStatus") Integer uploadStatus);
+    
+    /**
+     * 按条件流式读取文件信息（按ID排序，服务端游标分批获取，需在只读事务中消费）
+     */
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query("SELECT f FROM FileInfo f WHERE " + LIKE_CONDITIONS + " ORDER BY f.id")
+    Stream<FileInfo> streamByConditions(@Param("originalName") String originalName,
+                                        @Param("uploadStatus") Integer uploadStatus);
+    
+    /**
+     * 按条件流式读取文件信息（文件名走三元组索引，检索词至少3个字符）
+     */
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query("SELECT f FROM FileInfo f WHERE " + NAME_GRAM_CONDITIONS + " ORDER BY f.id")
+    Stream<FileInfo> streamByNameGrams(@Param("grams") Collection<String> grams,
+                                       @Param("gramCount") long gramCount,
+                                       @Param("originalName") String originalName,
+                                       @Param("uploadStatus") Integer uploadStatus);
+    
+    /**
+     * 按条件统计文件数量
+     */
+    @Query("SELECT COUNT(f) FROM FileInfo f WHERE " + LIKE_CONDITIONS)
+    long countByConditions(@Param("originalName") String originalName,
+                           @Param("uploadStatus") Integer uploadStatus);
     
     /**
      * 统计各状态文件数量
      */
     @Query("SELECT f.uploadStatus, COUNT(f) FROM FileInfo f GROUP BY f.uploadStatus")
     List<Object[]> countByUploadStatus();
-}
\ No newline at end of file
+    
+    /**
+     * 按幂等键查询
+     */
+    Optional<FileInfo> findByIdempotencyKey(String idempotencyKey);
+    
+    /**
+     * 按ID查询列表项
+     */
+    @Query(LIST_ITEM_SELECT + "f.id IN :ids")
+    List<FileInfoListItem> findListItemsByIds(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 查询待删除文件的ID、OSS键、上传状态及幂等键
+     */
+    @Query("SELECT f.id, f.ossKey, f.uploadStatus, f.idempotencyKey FROM FileInfo f WHERE f.id IN :ids")
+    List<Object[]> findDeleteTargetsByIds(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 按ID批量删除
+     */
+    @Modifying
+    @Query("DELETE FROM FileInfo f WHERE f.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * 按ID更新上传结果
+     */
+    @Modifying
+    @Query("UPDATE FileInfo f SET f.uploadStatus = :uploadStatus, f.fileSize = :fileSize, " +
+           "f.updateTime = :updateTime WHERE f.id = :id")
+    int updateUploadResult(@Param("id") Long id,
+                           @Param("uploadStatus") Integer uploadStatus,
+                           @Param("fileSize") Long fileSize,
+                           @Param("updateTime") LocalDateTime updateTime);
+    
+    /**
+     * 查询创建时间早于指定时间的上传成功记录ID（待归档），按创建时间升序
+     */
+    @Query("SELECT f.id FROM FileInfo f WHERE f.uploadStatus = 1 AND f.createTime < :createTime " +
+           "ORDER BY f.createTime, f.id")
+    List<Long> findArchivableIds(@Param("createTime") LocalDateTime createTime, Pageable pageable);
+    
+    /**
+     * 查询创建时间早于指定时间的待上传普通上传记录（ID、OSS键），按创建时间升序
+     */
+    @Query("SELECT f.id, f.ossKey FROM FileInfo f WHERE f.uploadStatus = 0 AND f.uploadId IS NULL " +
+           "AND f.createTime < :createTime ORDER BY f.createTime, f.id")
+    List<Object[]> findStalePending(@Param("createTime") LocalDateTime createTime, Pageable pageable);
+    
+    /**
+     * 将仍处于待上传状态的记录更新为指定状态（避免覆盖并发到达的回调结果）
+     */
+    @Modifying
+    @Query("UPDATE FileInfo f SET f.uploadStatus = :uploadStatus, f.updateTime = :updateTime " +
+           "WHERE f.id IN :ids AND f.uploadStatus = 0")
+    int updatePendingStatusByIds(@Param("ids") Collection<Long> ids,
+                                 @Param("uploadStatus") Integer uploadStatus,
+                                 @Param("updateTime") LocalDateTime updateTime);
+}
@@ -0,0 +1,38 @@
+package com.example.ossupload.repository;
+
+import com.example.ossupload.dto.FileInfoListItem;
+
+import java.util.List;
+
+/**
+ * 文件信息自定义查询
+ */
+public interface FileInfoRepositoryCustom {
+    
+    /**
+     * 游标（keyset）查询：按 (sortBy, id) 排序，返回位于 (lastSortValue, lastId) 之后的记录（列表投影），不执行count
+     *
+     * @param sortBy        排序字段
+     * @param ascending     是否升序
+     * @param lastSortValue 游标位置的排序字段值，为空表示从头开始
+     * @param lastId        游标位置的ID，为空表示从头开始
+     * @param limit         最多返回数量
+     */
+    List<FileInfoListItem> findByKeyset(String originalName, Integer uploadStatus,
+                                        String sortBy, boolean ascending,
+                                        Object lastSortValue, Long lastId, int limit);
+    
+    /**
+     * 同时查询在线表与归档表（列表投影）：两表各自按 (sortBy, id) 取前 offset + limit 条，合并排序后取一页
+     *
+     * @param sortBy    排序字段（须为允许的排序字段）
+     * @param ascending 是否升序
+     */
+    List<FileInfoListItem> findIncludingArchived(String originalName, Integer uploadStatus,
+                                                 String sortBy, boolean ascending, long offset, int limit);
+    
+    /**
+     * 统计在线表与归档表中符合条件的记录总数
+     */
+    long countIncludingArchived(String originalName, Integer uploadStatus);
+}
@@ -0,0 +1,182 @@
+package com.example.ossupload.repository;
+
+import com.example.ossupload.dto.FileInfoListItem;
+import com.example.ossupload.entity.FileInfo;
+import com.example.ossupload.entity.FileNameGram;
+import com.example.ossupload.util.FileNameTokenizer;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 文件信息自定义查询实现
+ */
+public class FileInfoRepositoryImpl implements FileInfoRepositoryCustom {
+    
+    private static final String LIST_COLUMNS =
+            "id, original_name, file_size, file_extension, upload_status, create_time, oss_key";
+    
+    /**
+     * 允许排序的属性对应的列名
+     */
+    private static final Map<String, String> SORT_COLUMNS = new HashMap<>();
+    
+    static {
+        SORT_COLUMNS.put("id", "id");
+        SORT_COLUMNS.put("createTime", "create_time");
+        SORT_COLUMNS.put("fileSize", "file_size");
+        SORT_COLUMNS.put("originalName", "original_name");
+        SORT_COLUMNS.put("uploadStatus", "upload_status");
+    }
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<FileInfoListItem> findByKeyset(String originalName, Integer uploadStatus,
+                                               String sortBy, boolean ascending,
+                                               Object lastSortValue, Long lastId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<FileInfoListItem> query = cb.createQuery(FileInfoListItem.class);
+        Root<FileInfo> root = query.from(FileInfo.class);
+        
+        List<Predicate> predicates = new ArrayList<>();
+        if (originalName != null) {
+            if (FileNameTokenizer.isIndexable(originalName)) {
+                // 通过三元组索引缩小候选集，再用LIKE复核
+                Set<String> grams = FileNameTokenizer.tokenize(originalName);
+                Subquery<Long> candidates = query.subquery(Long.class);
+                Root<FileNameGram> gram = candidates.from(FileNameGram.class);
+                candidates.select(gram.get("fileInfoId"))
+                        .where(gram.get("gram").in(grams))
+                        .groupBy(gram.get("fileInfoId"))
+                        .having(cb.equal(cb.count(gram), (long) grams.size()));
+                predicates.add(root.get("id").in(candidates));
+            }
+            predicates.add(cb.like(root.get("originalName"), "%" + originalName + "%"));
+        }
+        if (uploadStatus != null) {
+            predicates.add(cb.equal(root.get("uploadStatus"), uploadStatus));
+        }
+        
+        Expression sortPath = root.get(sortBy);
+        Expression<Long> idPath = root.get("id");
+        if (lastSortValue != null && lastId != null) {
+            // 等价于行值比较 (sortBy, id) > (?, ?)，按OR展开：sortBy越过游标，或sortBy相等且id越过游标；
+            // 排序字段均为NOT NULL，无需处理空值
+            Comparable value = (Comparable) lastSortValue;
+            Predicate beyondSort = ascending ? cb.greaterThan(sortPath, value) : cb.lessThan(sortPath, value);
+            Predicate beyondId = ascending ? cb.greaterThan(idPath, lastId) : cb.lessThan(idPath, lastId);
+            predicates.add(cb.or(beyondSort, cb.and(cb.equal(sortPath, value), beyondId)));
+        }
+        
+        query.select(cb.construct(FileInfoListItem.class,
+                        root.get("id"), root.get("originalName"), root.get("fileSize"), root.get("fileExtension"),
+                        root.get("uploadStatus"), root.get("createTime"), root.get("ossKey")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(ascending ? cb.asc(sortPath) : cb.desc(sortPath),
+                         ascending ? cb.asc(idPath) : cb.desc(idPath));
+        
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<FileInfoListItem> findIncludingArchived(String originalName, Integer uploadStatus,
+                                                        String sortBy, boolean ascending, long offset, int limit) {
+        String column = SORT_COLUMNS.get(sortBy);
+        if (column == null) {
+            throw new IllegalArgumentException("不支持的排序字段: " + sortBy);
+        }
+        String direction = ascending ? " ASC" : " DESC";
+        String orderBy = " ORDER BY " + column + direction + (column.equals("id") ? "" : ", id" + direction);
+        
+        // 两表各自走 (排序字段, id) 索引只取所需的前若干条，再在合并结果上排序分页
+        String sql = "SELECT " + LIST_COLUMNS + " FROM ("
+                + "(SELECT " + LIST_COLUMNS + " FROM file_info WHERE " + nativeConditions(originalName, uploadStatus, true)
+                + orderBy + " LIMIT :branchLimit) UNION ALL "
+                + "(SELECT " + LIST_COLUMNS + " FROM file_info_archive WHERE "
+                + nativeConditions(originalName, uploadStatus, false) + orderBy + " LIMIT :branchLimit)"
+                + ") u" + orderBy + " LIMIT :limit OFFSET :offset";
+        Query query = entityManager.createNativeQuery(sql)
+                .setParameter("branchLimit", offset + limit)
+                .setParameter("limit", limit)
+                .setParameter("offset", offset);
+        bindConditions(query, originalName, uploadStatus);
+        
+        List<Object[]> rows = query.getResultList();
+        List<FileInfoListItem> items = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            items.add(new FileInfoListItem(((Number) row[0]).longValue(), (String) row[1],
+                    row[2] == null ? null : ((Number) row[2]).longValue(), (String) row[3],
+                    row[4] == null ? null : ((Number) row[4]).intValue(), toLocalDateTime(row[5]), (String) row[6]));
+        }
+        return items;
+    }
+    
+    @Override
+    public long countIncludingArchived(String originalName, Integer uploadStatus) {
+        Query query = entityManager.createNativeQuery(
+                "SELECT (SELECT COUNT(*) FROM file_info WHERE " + nativeConditions(originalName, uploadStatus, true)
+                + ") + (SELECT COUNT(*) FROM file_info_archive WHERE "
+                + nativeConditions(originalName, uploadStatus, false) + ")");
+        bindConditions(query, originalName, uploadStatus);
+        return ((Number) query.getSingleResult()).longValue();
+    }
+    
+    /**
+     * 原生SQL过滤条件；在线表的文件名条件先经三元组索引缩小候选集，归档表直接LIKE
+     */
+    private static String nativeConditions(String originalName, Integer uploadStatus, boolean hot) {
+        StringBuilder conditions = new StringBuilder("1 = 1");
+        if (originalName != null) {
+            if (hot && FileNameTokenizer.isIndexable(originalName)) {
+                conditions.append(" AND id IN (SELECT file_info_id FROM file_name_gram WHERE gram IN (:grams)")
+                        .append(" GROUP BY file_info_id HAVING COUNT(*) = :gramCount)");
+            }
+            conditions.append(" AND original_name LIKE :originalName");
+        }
+        if (uploadStatus != null) {
+            conditions.append(" AND upload_status = :uploadStatus");
+        }
+        return conditions.toString();
+    }
+    
+    private static void bindConditions(Query query, String originalName, Integer uploadStatus) {
+        if (originalName != null) {
+            if (FileNameTokenizer.isIndexable(originalName)) {
+                Set<String> grams = FileNameTokenizer.tokenize(originalName);
+                query.setParameter("grams", grams);
+                query.setParameter("gramCount", (long) grams.size());
+            }
+            query.setParameter("originalName", "%" + originalName + "%");
+        }
+        if (uploadStatus != null) {
+            query.setParameter("uploadStatus", uploadStatus);
+        }
+    }
+    
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+}
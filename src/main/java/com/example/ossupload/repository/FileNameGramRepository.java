@@ -0,0 +1,24 @@
+package com.example.ossupload.repository;
+
+import com.example.ossupload.entity.FileNameGram;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+/**
+ * 文件名三元组索引数据访问层
+ */
+@Repository
+public interface FileNameGramRepository extends JpaRepository<FileNameGram, FileNameGram.Key> {
+    
+    /**
+     * 删除文件的全部三元组
+     */
+    @Modifying
+    @Query("DELETE FROM FileNameGram g WHERE g.fileInfoId IN :fileInfoIds")
+    int deleteByFileInfoIds(@Param("fileInfoIds") Collection<Long> fileInfoIds);
+}
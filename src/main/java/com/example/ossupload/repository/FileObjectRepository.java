@@ -0,0 +1,43 @@
+package com.example.ossupload.repository;
+
+import com.example.ossupload.entity.FileObject;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 存储对象数据访问层
+ */
+@Repository
+public interface FileObjectRepository extends JpaRepository<FileObject, Long> {
+    
+    /**
+     * 根据内容哈希查询
+     */
+    Optional<FileObject> findByContentHash(String contentHash);
+    
+    /**
+     * 根据存储对象键批量查询
+     */
+    List<FileObject> findByOssKeyIn(Collection<String> ossKeys);
+    
+    /**
+     * 调整引用计数
+     */
+    @Modifying
+    @Query("UPDATE FileObject o SET o.refCount = o.refCount + :delta WHERE o.id = :id AND o.refCount > 0")
+    int addRefCount(@Param("id") Long id, @Param("delta") long delta);
+    
+    /**
+     * 删除引用计数已归零的存储对象登记
+     */
+    @Modifying
+    @Query("DELETE FROM FileObject o WHERE o.ossKey IN :ossKeys AND o.refCount <= 0")
+    int deleteUnreferenced(@Param("ossKeys") Collection<String> ossKeys);
+}
@@ -0,0 +1,36 @@
+package com.example.ossupload.repository;
+
+import com.example.ossupload.entity.FilePart;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 分片信息数据访问层
+ */
+@Repository
+public interface FilePartRepository extends JpaRepository<FilePart, Long> {
+    
+    /**
+     * 查询文件已完成的分片，按分片序号排序
+     */
+    List<FilePart> findByFileInfoIdOrderByPartNumber(Long fileInfoId);
+    
+    /**
+     * 查询指定分片
+     */
+    Optional<FilePart> findByFileInfoIdAndPartNumber(Long fileInfoId, Integer partNumber);
+    
+    /**
+     * 删除文件的全部分片记录
+     */
+    @Modifying
+    @Query("DELETE FROM FilePart p WHERE p.fileInfoId IN :fileInfoIds")
+    int deleteByFileInfoIds(@Param("fileInfoIds") Collection<Long> fileInfoIds);
+}
@@ -0,0 +1,265 @@
+package com.example.ossupload.service;
+
+import com.example.ossupload.config.OssConfig;
+import com.example.ossupload.dto.FileUploadCallbackRequest;
+import com.example.ossupload.repository.FileInfoRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 上传回调异步合并写入队列
+ * <p>
+ * 回调入队即视为已受理，后台线程按flushSize/flushInterval攒批，同一文件的多次回调只保留最后一次，
+ * 锁定其中仍处于待上传状态的记录，再按上传状态分组执行 UPDATE ... WHERE id IN (...) AND upload_status = 0。队列满时在请求线程同步写入（背压），
+ * 应用关闭时先排空队列再退出，保证已受理的回调不丢失。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CallbackWriteBehindQueue {
+
+    private static final String UPDATE_FILE_SIZE_SQL = "UPDATE file_info SET file_size = ? WHERE id = ?";
+
+    private final OssConfig ossConfig;
+    private final FileInfoRepository fileInfoRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FileStatisticsCounter fileStatisticsCounter;
+    private final FileInfoCache fileInfoCache;
+    private final UploadMetrics uploadMetrics;
+    private final FileEventPublisher fileEventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    private BlockingQueue<FileUploadCallbackRequest> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    /**
+     * 入队持读锁、停止持写锁：停止标记设置后不会再有回调入队，排空后的队列不会遗留回调
+     */
+    private final ReadWriteLock submitLock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void start() {
+        OssConfig.Callback config = ossConfig.getCallback();
+        if (!config.isAsyncEnabled()) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        Gauge.builder("upload.callback.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        running = true;
+        writerThread = new Thread(this::runWriter, "callback-writer");
+        writerThread.start();
+        log.info("上传回调异步写入已启用，队列容量: {}, 批量大小: {}, 写入间隔: {}ms",
+                config.getQueueCapacity(), config.getFlushSize(), config.getFlushInterval());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        // 等待进行中的入队完成，此后提交的回调在调用线程同步写入
+        submitLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            submitLock.writeLock().unlock();
+        }
+        writerThread.join();
+
+        // 写线程在设置停止标记前最后一次检查队列后入队的回调，在此兜底写入
+        List<FileUploadCallbackRequest> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flushSafely(remaining);
+        }
+        log.info("上传回调异步写入已停止");
+    }
+
+    /**
+     * 是否启用异步写入
+     */
+    public boolean isEnabled() {
+        return queue != null;
+    }
+
+    /**
+     * 当前排队的回调数
+     */
+    public int getQueueSize() {
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * 提交回调；队列已满且等待超时时在调用线程同步写入
+     */
+    public void submit(FileUploadCallbackRequest request) {
+        if (request.getFileInfoId() == null || request.getUploadStatus() == null) {
+            throw new RuntimeException("文件信息ID和上传状态不能为空");
+        }
+
+        boolean offered = false;
+        boolean accepting = false;
+        submitLock.readLock().lock();
+        try {
+            accepting = running;
+            if (accepting) {
+                offered = queue.offer(request, ossConfig.getCallback().getOfferTimeout(), TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            submitLock.readLock().unlock();
+        }
+
+        if (!offered) {
+            if (accepting) {
+                log.warn("上传回调队列已满，同步写入，文件ID: {}", request.getFileInfoId());
+            }
+            flush(Collections.singletonList(request));
+        }
+    }
+
+    /**
+     * 后台写线程
+     */
+    private void runWriter() {
+        OssConfig.Callback config = ossConfig.getCallback();
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getFlushInterval());
+        List<FileUploadCallbackRequest> batch = new ArrayList<>(config.getFlushSize());
+
+        while (running || !queue.isEmpty()) {
+            try {
+                FileUploadCallbackRequest first = queue.poll(config.getFlushInterval(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // 攒批：达到flushSize或自首条起超过flushInterval即写入
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < config.getFlushSize()) {
+                    if (queue.drainTo(batch, config.getFlushSize() - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || !running) {
+                        break;
+                    }
+                    FileUploadCallbackRequest next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flushSafely(batch);
+            } catch (InterruptedException e) {
+                log.warn("上传回调写线程被中断，继续排空队列");
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 批量写入，失败时逐条重试
+     */
+    private void flushSafely(List<FileUploadCallbackRequest> batch) {
+        try {
+            flush(batch);
+        } catch (Exception e) {
+            log.error("批量写入上传回调失败，改为逐条写入，数量: {}", batch.size(), e);
+            for (FileUploadCallbackRequest request : batch) {
+                try {
+                    flush(Collections.singletonList(request));
+                } catch (Exception ex) {
+                    log.error("写入上传回调失败，文件ID: {}", request.getFileInfoId(), ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * 在单个事务中按状态分组批量更新
+     */
+    private void flush(List<FileUploadCallbackRequest> batch) {
+        // 同一文件的多次回调只保留最后一次
+        Map<Long, FileUploadCallbackRequest> latest = new LinkedHashMap<>();
+        for (FileUploadCallbackRequest request : batch) {
+            latest.put(request.getFileInfoId(), request);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int updated = transactionTemplate.execute(status -> {
+            // 只更新仍处于待上传状态的记录，重复或迟到的回调不再重复计数和推送
+            Set<Long> pendingIds = new HashSet<>(lockPending(new ArrayList<>(latest.keySet())));
+            Map<Integer, List<Long>> idsByStatus = new HashMap<>();
+            List<Object[]> fileSizeArgs = new ArrayList<>();
+            for (FileUploadCallbackRequest request : latest.values()) {
+                if (!pendingIds.contains(request.getFileInfoId())) {
+                    continue;
+                }
+                idsByStatus.computeIfAbsent(request.getUploadStatus(), k -> new ArrayList<>())
+                        .add(request.getFileInfoId());
+                if (request.getActualFileSize() != null) {
+                    fileSizeArgs.add(new Object[]{request.getActualFileSize(), request.getFileInfoId()});
+                }
+            }
+
+            int rows = 0;
+            for (Map.Entry<Integer, List<Long>> entry : idsByStatus.entrySet()) {
+                int groupRows = fileInfoRepository.updatePendingStatusByIds(entry.getValue(), entry.getKey(), now);
+                fileStatisticsCounter.onStatusChanged(0, entry.getKey(), groupRows);
+                fileEventPublisher.statusChanged(entry.getValue(), 0, entry.getKey(), groupRows);
+                uploadMetrics.completed(entry.getKey(), groupRows);
+                rows += groupRows;
+            }
+            if (!fileSizeArgs.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_FILE_SIZE_SQL, fileSizeArgs);
+            }
+            fileInfoCache.invalidate(pendingIds);
+            return rows;
+        });
+
+        if (updated != latest.size()) {
+            log.warn("部分上传回调对应的文件信息不存在或已不是待上传状态，回调数: {}, 更新数: {}", latest.size(), updated);
+        }
+        log.debug("批量写入上传回调完成，数量: {}", latest.size());
+    }
+
+    /**
+     * 锁定仍处于待上传状态的记录（需在事务内调用）
+     */
+    private List<Long> lockPending(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        return jdbcTemplate.queryForList("SELECT id FROM file_info WHERE id IN (" + placeholders
+                + ") AND upload_status = 0 FOR UPDATE", Long.class, ids.toArray());
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.ossupload.service;
+
+import com.example.ossupload.config.OssConfig;
+import com.example.ossupload.dto.FileInfoListItem;
+import com.example.ossupload.entity.FileInfo;
+import com.example.ossupload.storage.StorageBackend;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文件下载地址服务
+ * <p>
+ * 访问URL不落库，返回前按 oss.download.mode 生成：public 为公共读地址（前缀加对象键），
+ * signed 为预签名GET地址。预签名地址按ossKey缓存，缓存时长为有效期减去提前刷新时间，
+ * 即将过期的地址在下次访问时重新签名；同一页的未命中键一次批量签名，共用同一过期时间。
+ */
+@Component
+@RequiredArgsConstructor
+public class DownloadUrlService {
+
+    public static final String MODE_SIGNED = "signed";
+
+    private final OssConfig ossConfig;
+    private final StorageBackend storageBackend;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<String, String> signedUrls;
+
+    @PostConstruct
+    public void init() {
+        OssConfig.Download config = ossConfig.getDownload();
+        long cacheSeconds = Math.max(1L, config.getUrlExpireTime() - config.getRefreshBeforeExpire());
+        signedUrls = Caffeine.newBuilder()
+                .maximumSize(config.getCacheMaximumSize())
+                .expireAfterWrite(cacheSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, signedUrls, "downloadUrl");
+    }
+
+    /**
+     * 是否为签名下载模式
+     */
+    public boolean isSigned() {
+        return MODE_SIGNED.equalsIgnoreCase(ossConfig.getDownload().getMode());
+    }
+
+    /**
+     * 列表的公共访问URL前缀，签名下载模式下为空（各列表项单独携带下载地址）
+     */
+    public String getUrlPrefix() {
+        return isSigned() ? null : storageBackend.getObjectUrlPrefix();
+    }
+
+    /**
+     * 下载地址时间分段，纳入列表ETag：签名模式下每 refreshBeforeExpire 秒递增，
+     * 保证浏览器凭ETag复用的列表中的预签名地址仍在有效期内；公共读模式下恒为0
+     */
+    public long getUrlEpoch() {
+        if (!isSigned()) {
+            return 0L;
+        }
+        return System.currentTimeMillis() / 1000 / Math.max(1L, ossConfig.getDownload().getRefreshBeforeExpire());
+    }
+
+    /**
+     * 获取单个对象的下载地址（签名模式下优先使用缓存）
+     */
+    public String getUrl(String ossKey) {
+        if (!isSigned()) {
+            return storageBackend.getObjectUrl(ossKey);
+        }
+        return signedUrls.get(ossKey, key -> storageBackend.generateDownloadUrl(key, newExpiration()));
+    }
+
+    /**
+     * 批量获取下载地址，未命中缓存的键一次签名
+     *
+     * @return ossKey -> 下载地址
+     */
+    public Map<String, String> getUrls(Collection<String> ossKeys) {
+        Set<String> keys = new LinkedHashSet<>(ossKeys);
+        if (!isSigned()) {
+            Map<String, String> urls = new HashMap<>();
+            for (String key : keys) {
+                urls.put(key, storageBackend.getObjectUrl(key));
+            }
+            return urls;
+        }
+        return signedUrls.getAll(keys, this::signAll);
+    }
+
+    /**
+     * 签名下载模式下为上传成功的列表项批量填充下载地址
+     */
+    public void applyTo(List<FileInfoListItem> items) {
+        if (!isSigned()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(items.size());
+        for (FileInfoListItem item : items) {
+            if (isAvailable(item.getUploadStatus())) {
+                keys.add(item.getOssKey());
+            }
+        }
+        Map<String, String> urls = getUrls(keys);
+        for (FileInfoListItem item : items) {
+            if (isAvailable(item.getUploadStatus())) {
+                item.setDownloadUrl(urls.get(item.getOssKey()));
+            }
+        }
+    }
+    
+    /**
+     * 生成下载地址但不写入缓存（用于导出等一次性遍历大量对象的场景）
+     */
+    public String generateUrl(String ossKey) {
+        if (!isSigned()) {
+            return storageBackend.getObjectUrl(ossKey);
+        }
+        String cached = signedUrls.getIfPresent(ossKey);
+        return cached != null ? cached : storageBackend.generateDownloadUrl(ossKey, newExpiration());
+    }
+
+    /**
+     * 返回填充了访问URL的副本（仅上传成功的文件），原对象可能是只读的缓存快照
+     */
+    public FileInfo withUrl(FileInfo fileInfo) {
+        FileInfo copy = FileInfoCache.copyOf(fileInfo);
+        copy.setOssUrl(isAvailable(fileInfo.getUploadStatus()) ? getUrl(fileInfo.getOssKey()) : null);
+        return copy;
+    }
+
+    /**
+     * 是否可下载（上传成功）
+     */
+    public static boolean isAvailable(Integer uploadStatus) {
+        return uploadStatus != null && uploadStatus == 1;
+    }
+
+    private Map<String, String> signAll(Iterable<? extends String> keys) {
+        Date expiration = newExpiration();
+        Map<String, String> urls = new HashMap<>();
+        for (String key : keys) {
+            urls.put(key, storageBackend.generateDownloadUrl(key, expiration));
+        }
+        return urls;
+    }
+
+    private Date newExpiration() {
+        return new Date(System.currentTimeMillis() + ossConfig.getDownload().getUrlExpireTime() * 1000);
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.ossupload.service;
+
+import com.example.ossupload.config.OssConfig;
+import com.example.ossupload.entity.FileInfo;
+import com.example.ossupload.entity.FileInfoArchive;
+import com.example.ossupload.repository.FileInfoArchiveRepository;
+import com.example.ossupload.repository.FileInfoRepository;
+import com.example.ossupload.util.TransactionCallbacks;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 文件信息归档服务（冷热分离）
+ * <p>
+ * 定时将上传成功且创建时间早于 retentionDays 的记录按批移入 file_info_archive：每批在单个事务中锁定记录、
+ * INSERT ... SELECT 复制、清理文件名索引后删除，在线表只保留近期数据。按ID、OSS键查询在线表未命中时回退到归档表；
+ * 归档记录仍计入上传成功数量，存储对象及其引用计数不变。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileArchiveService {
+    
+    private static final String COLUMNS = "id, original_name, oss_key, file_size, content_hash, content_type, "
+            + "file_extension, upload_status, upload_id, part_size, create_time, update_time, remark, idempotency_key";
+    
+    private final OssConfig ossConfig;
+    private final FileInfoRepository fileInfoRepository;
+    private final FileInfoArchiveRepository fileInfoArchiveRepository;
+    private final FileNameIndexService fileNameIndexService;
+    private final FileStatisticsCounter fileStatisticsCounter;
+    private final FileInfoCache fileInfoCache;
+    private final FileEventPublisher fileEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    
+    private final AtomicLong archivedCount = new AtomicLong();
+    
+    @PostConstruct
+    public void init() {
+        archivedCount.set(fileInfoArchiveRepository.count());
+        Gauge.builder("upload.files.archived", archivedCount, AtomicLong::get).register(meterRegistry);
+    }
+    
+    /**
+     * 定时归档
+     */
+    @Scheduled(fixedDelayString = "${oss.archive.interval:3600000}",
+               initialDelayString = "${oss.archive.interval:3600000}")
+    public void scheduledArchive() {
+        if (!ossConfig.getArchive().isEnabled()) {
+            return;
+        }
+        try {
+            archive();
+        } catch (Exception e) {
+            log.error("归档文件信息失败", e);
+        }
+    }
+    
+    /**
+     * 执行一次归档，返回移动的记录数
+     */
+    public int archive() {
+        OssConfig.Archive config = ossConfig.getArchive();
+        LocalDateTime archiveBefore = LocalDateTime.now().minusDays(config.getRetentionDays());
+        
+        int archived = 0;
+        for (int i = 0; i < config.getMaxBatchesPerRun(); i++) {
+            List<Long> ids = fileInfoRepository.findArchivableIds(
+                    archiveBefore, PageRequest.of(0, config.getBatchSize()));
+            if (ids.isEmpty()) {
+                break;
+            }
+            archived += transactionTemplate.execute(status -> moveBatch(ids));
+            if (ids.size() < config.getBatchSize()) {
+                break;
+            }
+        }
+        
+        if (archived > 0) {
+            log.info("归档文件信息完成，数量: {}", archived);
+        }
+        return archived;
+    }
+    
+    /**
+     * 归档记录数
+     */
+    public long getArchivedCount() {
+        return archivedCount.get();
+    }
+    
+    /**
+     * 按ID查询归档文件信息
+     */
+    public Optional<FileInfo> findById(Long id) {
+        return fileInfoArchiveRepository.findById(id).map(FileArchiveService::toFileInfo);
+    }
+    
+    /**
+     * 按OSS键查询归档文件信息
+     */
+    public Optional<FileInfo> findByOssKey(String ossKey) {
+        return fileInfoArchiveRepository.findFirstByOssKeyOrderByIdAsc(ossKey).map(FileArchiveService::toFileInfo);
+    }
+    
+    /**
+     * 按幂等键查询归档文件信息
+     */
+    public Optional<FileInfo> findByIdempotencyKey(String idempotencyKey) {
+        return fileInfoArchiveRepository.findByIdempotencyKey(idempotencyKey).map(FileArchiveService::toFileInfo);
+    }
+    
+    /**
+     * 删除归档记录后更新归档数量（需在事务内调用，提交后生效）
+     */
+    public void onArchivedDeleted(long count) {
+        if (count > 0) {
+            TransactionCallbacks.afterCommit(() -> archivedCount.addAndGet(-count));
+        }
+    }
+    
+    /**
+     * 移动一批记录（需在事务内调用）：先锁定仍满足条件的记录，避免与并发删除交错
+     */
+    private int moveBatch(List<Long> candidateIds) {
+        String placeholders = String.join(", ", Collections.nCopies(candidateIds.size(), "?"));
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM file_info WHERE id IN (" + placeholders
+                + ") AND upload_status = 1 FOR UPDATE", Long.class, candidateIds.toArray());
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        
+        List<Object> args = new ArrayList<>(ids.size() + 1);
+        args.add(Timestamp.valueOf(LocalDateTime.now()));
+        args.addAll(ids);
+        jdbcTemplate.update("INSERT INTO file_info_archive (" + COLUMNS + ", archive_time) SELECT " + COLUMNS
+                + ", ? FROM file_info WHERE id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")",
+                args.toArray());
+        fileNameIndexService.remove(ids);
+        int rows = fileInfoRepository.deleteByIds(ids);
+        
+        // 归档记录仍计入上传成功数量：在线计数减少，归档数量增加
+        fileStatisticsCounter.onDeleted(1, rows);
+        TransactionCallbacks.afterCommit(() -> archivedCount.addAndGet(rows));
+        fileInfoCache.invalidate(ids);
+        fileEventPublisher.archived(ids);
+        return rows;
+    }
+    
+    private static FileInfo toFileInfo(FileInfoArchive archive) {
+        FileInfo fileInfo = new FileInfo();
+        BeanUtils.copyProperties(archive, fileInfo);
+        return fileInfo;
+    }
+}
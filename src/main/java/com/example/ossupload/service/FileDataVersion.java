@@ -0,0 +1,85 @@
+package com.example.ossupload.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 文件数据版本号
+ * <p>
+ * 单调递增，文件信息或统计发生任何变化后递增，用于生成列表与统计接口的ETag。
+ * 事务内的变更在事务完成后（所有afterCommit回调即缓存、计数更新之后）才递增，
+ * 读请求须在查询前取版本号：查询期间发生的变更最多使本次响应的ETag提前失效，不会把旧数据记在新版本下。
+ * 初始值取启动时间，重启后（内存数据库数据重置）不会与浏览器缓存的旧ETag冲突。
+ */
+@Component
+public class FileDataVersion {
+
+    /**
+     * ETag中查询参数摘要的字节数（128位）
+     */
+    private static final int ETAG_DIGEST_BYTES = 16;
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    /**
+     * 当前版本号
+     */
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * 标记数据已变化：在事务内调用时于事务提交完成后递增，否则立即递增
+     */
+    public void increment() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        version.incrementAndGet();
+                    }
+                }
+            });
+        } else {
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * 由版本号与查询参数生成强ETag
+     * <p>
+     * 参数按“长度:值”拼接（null单独标记）后取SHA-256的前128位，不同参数组合不会因哈希碰撞共用ETag。
+     *
+     * @param version 查询前取得的版本号
+     * @param params  影响响应内容的查询参数
+     */
+    public static String etag(long version, Object... params) {
+        StringBuilder canonical = new StringBuilder();
+        for (Object param : params) {
+            if (param == null) {
+                canonical.append("-;");
+            } else {
+                String value = String.valueOf(param);
+                canonical.append(value.length()).append(':').append(value).append(';');
+            }
+        }
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+        StringBuilder etag = new StringBuilder("\"").append(Long.toHexString(version)).append('-');
+        for (int i = 0; i < ETAG_DIGEST_BYTES; i++) {
+            etag.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+        }
+        return etag.append('"').toString();
+    }
+}
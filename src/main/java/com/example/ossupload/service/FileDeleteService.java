@@ -0,0 +1,415 @@
+package com.example.ossupload.service;
+
+import com.example.ossupload.config.OssConfig;
+import com.example.ossupload.dto.DeleteJobStatus;
+import com.example.ossupload.repository.FileInfoArchiveRepository;
+import com.example.ossupload.repository.FileInfoRepository;
+import com.example.ossupload.repository.FilePartRepository;
+import com.example.ossupload.storage.StorageBackend;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 文件删除服务
+ * <p>
+ * 数据库记录按chunkSize分批执行 DELETE ... WHERE id IN (...)，分片记录、文件名索引与统计计数随同一事务清理；
+ * 存储对象在事务提交后交给有界线程池异步批量删除（每次最多1000个键），失败的键按指数退避重试；
+ * 秒传共享的对象在引用计数归零后才删除；在线表中不存在的ID按归档记录删除。
+ * 大批量删除以后台任务执行，可通过任务ID查询进度。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileDeleteService {
+
+    /**
+     * 单次批量删除存储对象的最大键数（OSS DeleteObjects上限）
+     */
+    private static final int OBJECT_DELETE_BATCH_SIZE = 1000;
+
+    /**
+     * 重试退避基数（毫秒）
+     */
+    private static final long RETRY_BACKOFF_MILLIS = 200L;
+
+    private final OssConfig ossConfig;
+    private final FileInfoRepository fileInfoRepository;
+    private final FilePartRepository filePartRepository;
+    private final FileInfoArchiveRepository fileInfoArchiveRepository;
+    private final FileArchiveService fileArchiveService;
+    private final FileNameIndexService fileNameIndexService;
+    private final FileStatisticsCounter fileStatisticsCounter;
+    private final FileInfoCache fileInfoCache;
+    private final FileObjectService fileObjectService;
+    private final FileEventPublisher fileEventPublisher;
+    private final SignatureIdempotencyCache signatureIdempotencyCache;
+    private final StorageBackend storageBackend;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, DeleteJob> jobs = new ConcurrentHashMap<>();
+
+    private ExecutorService jobExecutor;
+    private ThreadPoolExecutor objectDeleteExecutor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger jobThreadIndex = new AtomicInteger();
+        jobExecutor = Executors.newSingleThreadExecutor(
+                r -> new Thread(r, "file-delete-job-" + jobThreadIndex.incrementAndGet()));
+
+        // 有界队列，队满时拒绝，由 dispatch 转交任务线程等待空位，请求线程不执行删除与退避
+        int parallelism = Math.max(1, ossConfig.getDelete().getObjectDeleteParallelism());
+        AtomicInteger objectThreadIndex = new AtomicInteger();
+        objectDeleteExecutor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(parallelism * 4),
+                r -> new Thread(r, "object-delete-" + objectThreadIndex.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("upload.delete.queue.depth", objectDeleteExecutor, executor -> executor.getQueue().size())
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        jobExecutor.shutdown();
+        jobExecutor.awaitTermination(30, TimeUnit.SECONDS);
+        objectDeleteExecutor.shutdown();
+        objectDeleteExecutor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 同步删除数据库记录，存储对象异步删除
+     *
+     * @param ids        文件信息ID
+     * @param requireAll 为true时任一ID不存在即整体回滚
+     * @return 删除的记录数
+     */
+    public int delete(Collection<Long> ids, boolean requireAll) {
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        List<String> keys = new ArrayList<>();
+        int deleted = transactionTemplate.execute(status -> {
+            int rows = 0;
+            for (List<Long> chunk : partition(new ArrayList<>(distinctIds), ossConfig.getDelete().getChunkSize())) {
+                rows += deleteRows(chunk, keys);
+            }
+            if (requireAll && rows != distinctIds.size()) {
+                throw new RuntimeException("部分文件信息不存在");
+            }
+            return rows;
+        });
+
+        deleteObjectsAsync(keys, null);
+        return deleted;
+    }
+
+    /**
+     * 删除仍处于待上传状态的记录（清理任务使用），存储对象异步删除
+     * <p>
+     * 在删除事务内以 FOR UPDATE 重新确认状态，清理期间回调已更新状态的记录保留。
+     *
+     * @return 删除的记录数
+     */
+    public int deletePending(Collection<Long> ids) {
+        List<String> keys = new ArrayList<>();
+        int deleted = transactionTemplate.execute(status -> {
+            int rows = 0;
+            for (List<Long> chunk : partition(new ArrayList<>(new LinkedHashSet<>(ids)),
+                    ossConfig.getDelete().getChunkSize())) {
+                String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+                List<Long> pendingIds = jdbcTemplate.queryForList("SELECT id FROM file_info WHERE id IN ("
+                        + placeholders + ") AND upload_status = 0 FOR UPDATE", Long.class, chunk.toArray());
+                if (!pendingIds.isEmpty()) {
+                    rows += deleteRows(pendingIds, keys);
+                }
+            }
+            return rows;
+        });
+
+        deleteObjectsAsync(keys, null);
+        return deleted;
+    }
+
+    /**
+     * 提交后台删除任务
+     */
+    public DeleteJobStatus submit(List<Long> ids) {
+        purgeFinishedJobs();
+
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        DeleteJob job = new DeleteJob(UUID.randomUUID().toString().replace("-", ""), distinctIds.size());
+        jobs.put(job.jobId, job);
+        jobExecutor.execute(() -> runJob(job, distinctIds));
+        log.info("提交批量删除任务，任务ID: {}, 数量: {}", job.jobId, distinctIds.size());
+        return job.toStatus();
+    }
+
+    /**
+     * 查询删除任务状态
+     */
+    public DeleteJobStatus getJobStatus(String jobId) {
+        DeleteJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("删除任务不存在或已过期，任务ID: " + jobId);
+        }
+        return job.toStatus();
+    }
+
+    /**
+     * 执行删除任务：每批在独立事务中删除记录，提交后立即派发对象删除
+     */
+    private void runJob(DeleteJob job, List<Long> ids) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        try {
+            for (List<Long> chunk : partition(ids, ossConfig.getDelete().getChunkSize())) {
+                List<String> keys = new ArrayList<>(chunk.size());
+                int rows = transactionTemplate.execute(status -> deleteRows(chunk, keys));
+                job.deletedRows.addAndGet(rows);
+                futures.addAll(deleteObjectsAsync(keys, job));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+            job.status = job.failedObjects.get() > 0 ? "FAILED" : "COMPLETED";
+            if (job.failedObjects.get() > 0) {
+                job.errorMessage = "部分存储对象删除失败";
+            }
+        } catch (Exception e) {
+            log.error("批量删除任务失败，任务ID: {}", job.jobId, e);
+            job.status = "FAILED";
+            job.errorMessage = e.getMessage();
+        } finally {
+            job.finishTime = System.currentTimeMillis();
+            log.info("批量删除任务结束，任务ID: {}, 状态: {}, 删除记录: {}, 删除对象: {}, 失败对象: {}",
+                    job.jobId, job.status, job.deletedRows.get(), job.deletedObjects.get(), job.failedObjects.get());
+        }
+    }
+
+    /**
+     * 删除一批记录（需在事务内调用），并收集对应的存储对象键
+     */
+    private int deleteRows(List<Long> ids, List<String> keys) {
+        List<Object[]> targets = fileInfoRepository.findDeleteTargetsByIds(ids);
+
+        List<Long> existingIds = new ArrayList<>(targets.size());
+        Map<String, Long> countByKey = new LinkedHashMap<>();
+        Map<Integer, Long> countByStatus = new HashMap<>();
+        List<String> idempotencyKeys = new ArrayList<>();
+        for (Object[] row : targets) {
+            existingIds.add((Long) row[0]);
+            countByKey.merge((String) row[1], 1L, Long::sum);
+            countByStatus.merge((Integer) row[2], 1L, Long::sum);
+            if (row[3] != null) {
+                idempotencyKeys.add((String) row[3]);
+            }
+        }
+
+        // 在线表中不存在的ID可能已归档
+        List<Long> missingIds = new ArrayList<>(ids);
+        missingIds.removeAll(existingIds);
+        List<Long> archivedIds = new ArrayList<>();
+        Map<Integer, Long> archivedCountByStatus = new HashMap<>();
+        if (!missingIds.isEmpty()) {
+            for (Object[] row : fileInfoArchiveRepository.findDeleteTargetsByIds(missingIds)) {
+                archivedIds.add((Long) row[0]);
+                countByKey.merge((String) row[1], 1L, Long::sum);
+                archivedCountByStatus.merge((Integer) row[2], 1L, Long::sum);
+                if (row[3] != null) {
+                    idempotencyKeys.add((String) row[3]);
+                }
+            }
+        }
+        if (existingIds.isEmpty() && archivedIds.isEmpty()) {
+            return 0;
+        }
+
+        int rows = 0;
+        if (!existingIds.isEmpty()) {
+            filePartRepository.deleteByFileInfoIds(existingIds);
+            fileNameIndexService.remove(existingIds);
+            rows += fileInfoRepository.deleteByIds(existingIds);
+            countByStatus.forEach(fileStatisticsCounter::onDeleted);
+            fileInfoCache.invalidate(existingIds);
+        }
+        if (!archivedIds.isEmpty()) {
+            int archivedRows = fileInfoArchiveRepository.deleteByIds(archivedIds);
+            fileArchiveService.onArchivedDeleted(archivedRows);
+            rows += archivedRows;
+            archivedCountByStatus.forEach((status, count) -> countByStatus.merge(status, count, Long::sum));
+        }
+        // 已删除文件的幂等键不再重放
+        signatureIdempotencyCache.invalidate(idempotencyKeys);
+        List<Long> deletedIds = new ArrayList<>(existingIds);
+        deletedIds.addAll(archivedIds);
+        fileEventPublisher.deleted(deletedIds, countByStatus);
+
+        // 秒传共享的对象仍被其他文件引用时保留
+        Set<String> retained = fileObjectService.release(countByKey);
+        for (String key : countByKey.keySet()) {
+            if (!retained.contains(key)) {
+                keys.add(key);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 按每批最多1000个键异步删除存储对象
+     */
+    private List<CompletableFuture<Void>> deleteObjectsAsync(List<String> keys, DeleteJob job) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (List<String> batch : partition(keys, OBJECT_DELETE_BATCH_SIZE)) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            dispatch(() -> {
+                try {
+                    deleteObjectsWithRetry(batch, job);
+                    future.complete(null);
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            }, future, job != null);
+            futures.add(future);
+        }
+        return futures;
+    }
+
+    /**
+     * 提交对象删除；线程池队列已满时，任务线程中直接等待队列空位（背压），
+     * 其他调用方（请求线程）把等待转交给任务线程，自身立即返回
+     */
+    private void dispatch(Runnable task, CompletableFuture<Void> future, boolean inJob) {
+        try {
+            objectDeleteExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            if (inJob) {
+                awaitQueueSlot(task, future);
+            } else {
+                jobExecutor.execute(() -> awaitQueueSlot(task, future));
+            }
+        }
+    }
+
+    private void awaitQueueSlot(Runnable task, CompletableFuture<Void> future) {
+        try {
+            objectDeleteExecutor.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 删除存储对象：只重试存储后端报告失败的键（或整批请求异常时的全部键），按指数退避；
+     * 任务进度只计入实际删除成功的键
+     */
+    private void deleteObjectsWithRetry(List<String> keys, DeleteJob job) {
+        int maxRetries = ossConfig.getDelete().getObjectDeleteRetries();
+        List<String> remaining = keys;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                List<String> failed = storageBackend.deleteObjects(remaining);
+                if (job != null) {
+                    job.deletedObjects.addAndGet(remaining.size() - failed.size());
+                }
+                if (failed.isEmpty()) {
+                    return;
+                }
+                remaining = failed;
+                log.warn("部分存储对象删除失败，数量: {}, 首个键: {}", remaining.size(), remaining.get(0));
+            } catch (Exception e) {
+                log.warn("删除存储对象失败，数量: {}", remaining.size(), e);
+            }
+            if (attempt >= maxRetries) {
+                log.error("删除存储对象失败，已重试{}次，数量: {}, 首个键: {}", maxRetries, remaining.size(), remaining.get(0));
+                if (job != null) {
+                    job.failedObjects.addAndGet(remaining.size());
+                }
+                return;
+            }
+            log.warn("删除存储对象，第{}次重试，数量: {}", attempt + 1, remaining.size());
+            try {
+                Thread.sleep(RETRY_BACKOFF_MILLIS << attempt);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 清理超过保留时间的已结束任务
+     */
+    private void purgeFinishedJobs() {
+        long expireBefore = System.currentTimeMillis() - ossConfig.getDelete().getJobRetention();
+        jobs.values().removeIf(job -> job.finishTime != null && job.finishTime < expireBefore);
+    }
+
+    private static <T> List<List<T>> partition(List<T> list, int size) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += size) {
+            chunks.add(list.subList(i, Math.min(i + size, list.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * 删除任务进度
+     */
+    private static class DeleteJob {
+
+        private final String jobId;
+        private final long total;
+        private final long createTime = System.currentTimeMillis();
+        private final AtomicLong deletedRows = new AtomicLong();
+        private final AtomicLong deletedObjects = new AtomicLong();
+        private final AtomicLong failedObjects = new AtomicLong();
+        private volatile String status = "RUNNING";
+        private volatile String errorMessage;
+        private volatile Long finishTime;
+
+        private DeleteJob(String jobId, long total) {
+            this.jobId = jobId;
+            this.total = total;
+        }
+
+        private DeleteJobStatus toStatus() {
+            return DeleteJobStatus.builder()
+                    .jobId(jobId)
+                    .status(status)
+                    .total(total)
+                    .deletedRows(deletedRows.get())
+                    .deletedObjects(deletedObjects.get())
+                    .failedObjects(failedObjects.get())
+                    .errorMessage(errorMessage)
+                    .createTime(createTime)
+                    .finishTime(finishTime)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,484 @@
+package com.example.ossupload.service;
+
+import com.example.ossupload.config.OssConfig;
+import com.example.ossupload.dto.FileChangeEvent;
+import com.example.ossupload.dto.FileInfoListItem;
+import com.example.ossupload.entity.FileInfo;
+import com.example.ossupload.repository.FileInfoRepository;
+import com.example.ossupload.util.TransactionCallbacks;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 文件变更事件推送（SSE）
+ * <p>
+ * 新建、状态变化、删除在事务提交后入队，由单个分发线程生成事件（分配递增ID、序列化一次）并写入环形历史，
+ * 再放入每个订阅者的有界发送队列，由小型线程池逐个订阅者写出：慢连接只阻塞自己的发送，
+ * 不影响分发线程和其他订阅者，发送队列溢出的订阅者被断开（浏览器重连后按历史补发或reset）。
+ * 订阅连接使用Servlet异步请求，空闲连接不占用线程；断线重连时按Last-Event-ID
+ * 从历史中补发，超出历史范围（或事件队列溢出丢失事件）时发送reset事件，由客户端重新加载列表。
+ * 所有写入路径都经由本类发布变更，数据版本号（{@link FileDataVersion}）也在此递增。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FileEventPublisher {
+    
+    public static final String TYPE_CREATED = "created";
+    public static final String TYPE_STATUS = "status";
+    public static final String TYPE_DELETED = "deleted";
+    public static final String TYPE_RESET = "reset";
+    public static final String TYPE_STATISTICS = "statistics";
+    public static final String TYPE_ARCHIVED = "archived";
+    
+    /**
+     * 统计增量中的状态名
+     */
+    private static final String[] STATUS_NAMES = {"pending", "success", "failed"};
+    
+    private static final Runnable WAKE_UP = () -> { };
+    
+    private final OssConfig ossConfig;
+    private final FileInfoRepository fileInfoRepository;
+    private final DownloadUrlService downloadUrlService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final FileDataVersion fileDataVersion;
+    
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    
+    private BlockingQueue<Runnable> tasks;
+    
+    /**
+     * 历史事件环形缓冲，仅由分发线程读写
+     */
+    private StoredEvent[] history;
+    
+    /**
+     * 最新事件ID，仅由分发线程写入
+     */
+    private volatile long lastEventId;
+    
+    private volatile boolean overflowed;
+    private volatile boolean running;
+    private Thread dispatcherThread;
+    private ExecutorService sendExecutor;
+    
+    @PostConstruct
+    public void start() {
+        OssConfig.Events config = ossConfig.getEvents();
+        tasks = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        history = new StoredEvent[Math.max(1, config.getHistorySize())];
+        Gauge.builder("upload.events.subscribers", subscribers, Set::size).register(meterRegistry);
+        AtomicInteger threadIndex = new AtomicInteger();
+        sendExecutor = Executors.newFixedThreadPool(Math.max(1, config.getSendParallelism()), r -> {
+            Thread thread = new Thread(r, "file-event-sender-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        dispatcherThread = new Thread(this::runDispatcher, "file-event-dispatcher");
+        dispatcherThread.setDaemon(true);
+        dispatcherThread.start();
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        dispatcherThread.interrupt();
+        dispatcherThread.join(TimeUnit.SECONDS.toMillis(5));
+        sendExecutor.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+    
+    /**
+     * 订阅文件变更事件
+     *
+     * @param lastEventId 浏览器重连时携带的Last-Event-ID，为空表示只接收此后的事件
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        return subscribe(new SseEmitter(ossConfig.getEvents().getEmitterTimeout()), lastEventId);
+    }
+    
+    /**
+     * 以给定的连接订阅文件变更事件
+     */
+    SseEmitter subscribe(SseEmitter emitter, String lastEventId) {
+        OssConfig.Events config = ossConfig.getEvents();
+        
+        long current = this.lastEventId;
+        long start = current;
+        if (StringUtils.hasText(lastEventId)) {
+            // 无法识别的ID（如服务重启前的事件）按超出历史处理，客户端会收到reset
+            start = current - history.length - 1;
+            try {
+                long requested = Long.parseLong(lastEventId.trim());
+                if (requested >= 0 && requested <= current) {
+                    start = requested;
+                }
+            } catch (NumberFormatException ignored) {
+                // 按超出历史处理
+            }
+        }
+        
+        Subscriber subscriber = new Subscriber(emitter, start, Math.max(1, config.getSubscriberQueueCapacity()));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        // 连接确认同样经发送队列写出，不在请求线程中阻塞
+        subscriber.queue.offer(SseEmitter.event().reconnectTime(config.getReconnectTime()).comment("connected"));
+        subscribers.add(subscriber);
+        scheduleSend(subscriber);
+        // 唤醒分发线程补发历史事件
+        tasks.offer(WAKE_UP);
+        return emitter;
+    }
+    
+    /**
+     * 当前订阅者数量
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+    
+    /**
+     * 新建文件信息
+     */
+    public void created(Collection<FileInfo> fileInfos) {
+        if (fileInfos.isEmpty()) {
+            return;
+        }
+        List<FileInfoListItem> items = new ArrayList<>(fileInfos.size());
+        Map<String, Long> delta = new LinkedHashMap<>();
+        for (FileInfo fileInfo : fileInfos) {
+            items.add(toListItem(fileInfo));
+            addDelta(delta, fileInfo.getUploadStatus(), 1);
+        }
+        fileDataVersion.increment();
+        TransactionCallbacks.afterCommit(() -> enqueue(() -> append(TYPE_CREATED, items, null, delta)));
+    }
+    
+    /**
+     * 单个文件状态变化（变更后的文件信息已知）
+     */
+    public void statusChanged(FileInfo fileInfo, Integer fromStatus) {
+        List<FileInfoListItem> items = Collections.singletonList(toListItem(fileInfo));
+        List<Long> ids = Collections.singletonList(fileInfo.getId());
+        Map<String, Long> delta = new LinkedHashMap<>();
+        if (fromStatus == null || !fromStatus.equals(fileInfo.getUploadStatus())) {
+            addDelta(delta, fromStatus, -1);
+            addDelta(delta, fileInfo.getUploadStatus(), 1);
+        }
+        fileDataVersion.increment();
+        TransactionCallbacks.afterCommit(() -> enqueue(() -> append(TYPE_STATUS, items, ids, delta)));
+    }
+    
+    /**
+     * 多个文件发生相同的状态变化；有订阅者时在分发线程中按ID查询变更后的列表项
+     *
+     * @param count 实际变化的记录数
+     */
+    public void statusChanged(Collection<Long> ids, Integer fromStatus, int toStatus, long count) {
+        if (count == 0) {
+            return;
+        }
+        List<Long> changedIds = new ArrayList<>(ids);
+        Map<String, Long> delta = new LinkedHashMap<>();
+        addDelta(delta, fromStatus, -count);
+        addDelta(delta, toStatus, count);
+        fileDataVersion.increment();
+        TransactionCallbacks.afterCommit(() -> enqueue(() -> {
+            List<FileInfoListItem> items = subscribers.isEmpty()
+                    ? Collections.<FileInfoListItem>emptyList() : fileInfoRepository.findListItemsByIds(changedIds);
+            append(TYPE_STATUS, items, changedIds, delta);
+        }));
+    }
+    
+    /**
+     * 删除文件信息
+     *
+     * @param countByStatus 各状态删除的数量
+     */
+    public void deleted(Collection<Long> ids, Map<Integer, Long> countByStatus) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Long> deletedIds = new ArrayList<>(ids);
+        Map<String, Long> delta = new LinkedHashMap<>();
+        countByStatus.forEach((status, count) -> addDelta(delta, status, -count));
+        fileDataVersion.increment();
+        TransactionCallbacks.afterCommit(() -> enqueue(() -> append(TYPE_DELETED, null, deletedIds, delta)));
+    }
+    
+    /**
+     * 文件信息移入归档表（仍计入统计，只从默认列表中移除）
+     */
+    public void archived(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Long> archivedIds = new ArrayList<>(ids);
+        fileDataVersion.increment();
+        TransactionCallbacks.afterCommit(() -> enqueue(() -> append(TYPE_ARCHIVED, null, archivedIds, null)));
+    }
+    
+    /**
+     * 待上传预留数变化（延迟落库模式，预留不在列表中，只推送统计增量）
+     */
+    public void pendingChanged(long count) {
+        if (count == 0) {
+            return;
+        }
+        Map<String, Long> delta = new LinkedHashMap<>();
+        addDelta(delta, 0, count);
+        fileDataVersion.increment();
+        TransactionCallbacks.afterCommit(() -> enqueue(() -> append(TYPE_STATISTICS, null, null, delta)));
+    }
+    
+    /**
+     * 分发线程：处理事件任务，推送给订阅者，空闲时发送心跳
+     */
+    private void runDispatcher() {
+        long heartbeatNanos = TimeUnit.MILLISECONDS.toNanos(ossConfig.getEvents().getHeartbeatInterval());
+        long nextHeartbeat = System.nanoTime() + heartbeatNanos;
+        while (running) {
+            try {
+                Runnable task = tasks.poll(Math.max(0L, nextHeartbeat - System.nanoTime()), TimeUnit.NANOSECONDS);
+                while (task != null) {
+                    runSafely(task);
+                    task = tasks.poll();
+                }
+                if (overflowed) {
+                    overflowed = false;
+                    append(TYPE_RESET, null, null, null);
+                }
+                deliver();
+                if (System.nanoTime() - nextHeartbeat >= 0) {
+                    heartbeat();
+                    nextHeartbeat = System.nanoTime() + heartbeatNanos;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("推送文件变更事件失败", e);
+            }
+        }
+    }
+    
+    /**
+     * 将新事件放入落后订阅者的发送队列
+     */
+    private void deliver() {
+        long latest = lastEventId;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.lastSentId >= latest) {
+                continue;
+            }
+            boolean queued = true;
+            long backlog = latest - subscriber.lastSentId;
+            if (backlog > history.length || backlog > subscriber.queue.remainingCapacity()) {
+                // 所需事件已不在历史中或超出发送队列余量，通知客户端重新加载
+                queued = subscriber.queue.offer(SseEmitter.event()
+                        .id(String.valueOf(latest)).name(TYPE_RESET).data("{}"));
+            } else {
+                for (long id = subscriber.lastSentId + 1; id <= latest && queued; id++) {
+                    StoredEvent event = history[(int) (id % history.length)];
+                    queued = subscriber.queue.offer(SseEmitter.event()
+                            .id(String.valueOf(event.id)).name(event.type).data(event.json));
+                }
+            }
+            if (!queued) {
+                log.warn("订阅者发送队列已满，断开连接");
+                drop(subscriber);
+                continue;
+            }
+            subscriber.lastSentId = latest;
+            scheduleSend(subscriber);
+        }
+    }
+    
+    /**
+     * 放入心跳注释，写入失败或积压的连接随即移除
+     */
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queue.offer(SseEmitter.event().comment("ping"))) {
+                scheduleSend(subscriber);
+            } else {
+                drop(subscriber);
+            }
+        }
+    }
+    
+    /**
+     * 订阅者没有进行中的发送任务时提交一个
+     */
+    private void scheduleSend(Subscriber subscriber) {
+        if (subscriber.sending.compareAndSet(false, true)) {
+            try {
+                sendExecutor.execute(() -> send(subscriber));
+            } catch (Exception e) {
+                subscriber.sending.set(false);
+            }
+        }
+    }
+    
+    /**
+     * 写出订阅者发送队列中的全部事件（在发送线程中执行）
+     */
+    private void send(Subscriber subscriber) {
+        try {
+            SseEmitter.SseEventBuilder frame;
+            while (subscribers.contains(subscriber) && (frame = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(frame);
+            }
+        } catch (Exception e) {
+            subscribers.remove(subscriber);
+        } finally {
+            subscriber.sending.set(false);
+        }
+        if (!subscribers.contains(subscriber)) {
+            // 发送期间被断开的连接由发送线程关闭
+            close(subscriber);
+            return;
+        }
+        // 结束前分发线程可能又放入了事件
+        if (!subscriber.queue.isEmpty()) {
+            scheduleSend(subscriber);
+        }
+    }
+    
+    /**
+     * 移除订阅者；正在发送的连接由发送线程在写出返回后关闭，
+     * 避免分发线程在被慢连接占用的emitter锁上阻塞
+     */
+    private void drop(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.queue.clear();
+        if (subscriber.sending.compareAndSet(false, true)) {
+            close(subscriber);
+        }
+    }
+    
+    private void close(Subscriber subscriber) {
+        subscriber.queue.clear();
+        try {
+            subscriber.emitter.complete();
+        } catch (Exception ignored) {
+            // 连接已关闭
+        }
+    }
+    
+    /**
+     * 生成事件并写入历史（仅在分发线程调用）
+     */
+    private void append(String type, List<FileInfoListItem> items, List<Long> ids, Map<String, Long> delta) {
+        if (items != null && !items.isEmpty()) {
+            downloadUrlService.applyTo(items);
+        }
+        FileChangeEvent event = FileChangeEvent.builder()
+                .type(type)
+                .items(items)
+                .ids(ids)
+                .statisticsDelta(delta)
+                .urlPrefix(downloadUrlService.getUrlPrefix())
+                .build();
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(event);
+        } catch (Exception e) {
+            throw new IllegalStateException("序列化文件变更事件失败", e);
+        }
+        long id = lastEventId + 1;
+        history[(int) (id % history.length)] = new StoredEvent(id, type, json);
+        lastEventId = id;
+    }
+    
+    private void enqueue(Runnable task) {
+        if (!tasks.offer(task)) {
+            overflowed = true;
+            log.warn("文件变更事件队列已满，丢弃事件，订阅者将收到reset");
+        }
+    }
+    
+    private void runSafely(Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            log.error("生成文件变更事件失败", e);
+        }
+    }
+    
+    private static FileInfoListItem toListItem(FileInfo fileInfo) {
+        return new FileInfoListItem(fileInfo.getId(), fileInfo.getOriginalName(), fileInfo.getFileSize(),
+                fileInfo.getFileExtension(), fileInfo.getUploadStatus(), fileInfo.getCreateTime(),
+                fileInfo.getOssKey());
+    }
+    
+    private static void addDelta(Map<String, Long> delta, Integer status, long count) {
+        if (status != null && status >= 0 && status < STATUS_NAMES.length && count != 0) {
+            delta.merge(STATUS_NAMES[status], count, Long::sum);
+        }
+    }
+    
+    /**
+     * 已序列化的历史事件
+     */
+    private static class StoredEvent {
+        
+        private final long id;
+        private final String type;
+        private final String json;
+        
+        private StoredEvent(long id, String type, String json) {
+            this.id = id;
+            this.type = type;
+            this.json = json;
+        }
+    }
+    
+    /**
+     * 订阅者、发送队列及已放入队列的事件ID（仅由分发线程更新）
+     */
+    private static class Subscriber {
+        
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private long lastSentId;
+        
+        private Subscriber(SseEmitter emitter, long lastSentId, int queueCapacity) {
+            this.emitter = emitter;
+            this.lastSentId = lastSentId;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.ossupload.service;
+
+import com.example.ossupload.entity.FileInfo;
+import com.example.ossupload.repository.FileInfoRepository;
+import com.example.ossupload.util.FileNameTokenizer;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * 文件信息导出服务
+ * <p>
+ * 通过流式查询逐行读取并立即写出，写出后将实体从持久化上下文分离，内存占用与导出行数无关。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileExportService {
+    
+    /**
+     * 导出格式：NDJSON（每行一个JSON对象）
+     */
+    public static final String FORMAT_NDJSON = "ndjson";
+    
+    /**
+     * 导出格式：CSV
+     */
+    public static final String FORMAT_CSV = "csv";
+    
+    /**
+     * 每写出多少行刷新一次输出
+     */
+    private static final int FLUSH_ROWS = 1000;
+    
+    private static final String CSV_HEADER = "id,originalName,ossKey,fileSize,contentType,fileExtension," +
+            "ossUrl,uploadStatus,createTime,updateTime,remark";
+    
+    private final FileInfoRepository fileInfoRepository;
+    private final DownloadUrlService downloadUrlService;
+    private final ObjectMapper objectMapper;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    /**
+     * 按条件导出文件信息
+     *
+     * @param format ndjson 或 csv
+     * @return 导出行数
+     */
+    @Transactional(readOnly = true)
+    public long export(String originalName, Integer uploadStatus, String format, OutputStream out) throws IOException {
+        String nameCondition = StringUtils.hasText(originalName) ? originalName.trim() : null;
+        boolean csv = FORMAT_CSV.equalsIgnoreCase(format);
+        
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        JsonGenerator generator = csv ? null : objectMapper.getFactory().createGenerator(writer)
+                .setRootValueSeparator(new SerializedString("\n"));
+        if (csv) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        
+        long rows = 0;
+        try (Stream<FileInfo> stream = openStream(nameCondition, uploadStatus)) {
+            Iterator<FileInfo> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                FileInfo fileInfo = iterator.next();
+                if (csv) {
+                    writeCsvRow(writer, fileInfo);
+                } else {
+                    writeJsonRow(generator, fileInfo);
+                }
+                entityManager.detach(fileInfo);
+                
+                if (++rows % FLUSH_ROWS == 0) {
+                    if (generator != null) {
+                        generator.flush();
+                    }
+                    writer.flush();
+                }
+            }
+        }
+        
+        if (generator != null) {
+            if (rows > 0) {
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        }
+        writer.flush();
+        log.info("导出文件信息完成，格式: {}, 行数: {}", csv ? FORMAT_CSV : FORMAT_NDJSON, rows);
+        return rows;
+    }
+    
+    /**
+     * 导出行数不定，下载地址直接生成，不写入地址缓存
+     */
+    private String downloadUrl(FileInfo fileInfo) {
+        return DownloadUrlService.isAvailable(fileInfo.getUploadStatus())
+                ? downloadUrlService.generateUrl(fileInfo.getOssKey()) : null;
+    }
+    
+    private Stream<FileInfo> openStream(String nameCondition, Integer uploadStatus) {
+        if (FileNameTokenizer.isIndexable(nameCondition)) {
+            Set<String> grams = FileNameTokenizer.tokenize(nameCondition);
+            return fileInfoRepository.streamByNameGrams(grams, grams.size(), nameCondition, uploadStatus);
+        }
+        return fileInfoRepository.streamByConditions(nameCondition, uploadStatus);
+    }
+    
+    private void writeJsonRow(JsonGenerator gen, FileInfo fileInfo) throws IOException {
+        gen.writeStartObject();
+        gen.writeObjectField("id", fileInfo.getId());
+        gen.writeStringField("originalName", fileInfo.getOriginalName());
+        gen.writeStringField("ossKey", fileInfo.getOssKey());
+        gen.writeObjectField("fileSize", fileInfo.getFileSize());
+        gen.writeStringField("contentType", fileInfo.getContentType());
+        gen.writeStringField("fileExtension", fileInfo.getFileExtension());
+        gen.writeStringField("ossUrl", downloadUrl(fileInfo));
+        gen.writeObjectField("uploadStatus", fileInfo.getUploadStatus());
+        gen.writeStringField("createTime", formatTime(fileInfo.getCreateTime()));
+        gen.writeStringField("updateTime", formatTime(fileInfo.getUpdateTime()));
+        gen.writeStringField("remark", fileInfo.getRemark());
+        gen.writeEndObject();
+    }
+    
+    private void writeCsvRow(Writer writer, FileInfo fileInfo) throws IOException {
+        writer.write(String.valueOf(fileInfo.getId()));
+        writeCsvField(writer, fileInfo.getOriginalName());
+        writeCsvField(writer, fileInfo.getOssKey());
+        writeCsvField(writer, fileInfo.getFileSize() == null ? null : String.valueOf(fileInfo.getFileSize()));
+        writeCsvField(writer, fileInfo.getContentType());
+        writeCsvField(writer, fileInfo.getFileExtension());
+        writeCsvField(writer, downloadUrl(fileInfo));
+        writeCsvField(writer, fileInfo.getUploadStatus() == null ? null : String.valueOf(fileInfo.getUploadStatus()));
+        writeCsvField(writer, formatTime(fileInfo.getCreateTime()));
+        writeCsvField(writer, formatTime(fileInfo.getUpdateTime()));
+        writeCsvField(writer, fileInfo.getRemark());
+        writer.write('\n');
+    }
+    
+    /**
+     * 写出CSV字段（前置逗号），含逗号、引号或换行时加引号转义
+     */
+    private void writeCsvField(Writer writer, String value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+    
+    private String formatTime(LocalDateTime time) {
+        return time == null ? null : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(time);
+    }
+}
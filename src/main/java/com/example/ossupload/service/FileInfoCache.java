@@ -0,0 +1,153 @@
+package com.example.ossupload.service;
+
+import com.example.ossupload.config.OssConfig;
+import com.example.ossupload.entity.FileInfo;
+import com.example.ossupload.repository.FileInfoRepository;
+import com.example.ossupload.util.TransactionCallbacks;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanUtils;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文件信息读穿缓存
+ * <p>
+ * 基于Caffeine（W-TinyLFU准入与淘汰），按ID缓存文件信息，另以 ossKey -> ID 映射支持按OSS键查询。
+ * 所有修改文件信息的路径都需调用 {@link #put} 或 {@link #invalidate}：事务内调用时立即失效并在提交后再次失效，
+ * 避免并发读在提交前把旧数据重新载入缓存。缓存中的对象为只读快照，修改前须使用 {@link #copyOf} 复制。
+ */
+@Component
+@RequiredArgsConstructor
+public class FileInfoCache {
+
+    private final OssConfig ossConfig;
+    private final FileInfoRepository fileInfoRepository;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<Long, FileInfo> byId;
+    private Cache<String, Long> idByOssKey;
+
+    @PostConstruct
+    public void init() {
+        OssConfig.Cache config = ossConfig.getCache();
+        byId = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getExpireAfterWrite(), TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "fileInfo");
+        // 映射到引用该ossKey的某条记录，记录删除后按ID查询不到时自动回源
+        idByOssKey = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .build();
+    }
+
+    /**
+     * 按ID查询，未命中时从数据库加载
+     */
+    public Optional<FileInfo> getById(Long id) {
+        FileInfo fileInfo = byId.get(id, key -> fileInfoRepository.findById(key).orElse(null));
+        if (fileInfo != null) {
+            idByOssKey.put(fileInfo.getOssKey(), fileInfo.getId());
+        }
+        return Optional.ofNullable(fileInfo);
+    }
+
+    /**
+     * 按OSS键查询，未命中时从数据库加载
+     */
+    public Optional<FileInfo> getByOssKey(String ossKey) {
+        Long id = idByOssKey.getIfPresent(ossKey);
+        if (id != null) {
+            Optional<FileInfo> cached = getById(id);
+            if (cached.isPresent() && ossKey.equals(cached.get().getOssKey())) {
+                return cached;
+            }
+            idByOssKey.invalidate(ossKey);
+        }
+
+        Optional<FileInfo> loaded = fileInfoRepository.findFirstByOssKeyOrderByIdAsc(ossKey);
+        loaded.ifPresent(fileInfo -> {
+            byId.get(fileInfo.getId(), key -> fileInfo);
+            idByOssKey.put(ossKey, fileInfo.getId());
+        });
+        return loaded;
+    }
+
+    /**
+     * 写入（更新）缓存，在事务内调用时于提交后生效
+     */
+    public void put(FileInfo fileInfo) {
+        FileInfo snapshot = copyOf(fileInfo);
+        byId.invalidate(snapshot.getId());
+        TransactionCallbacks.afterCommit(() -> {
+            byId.put(snapshot.getId(), snapshot);
+            idByOssKey.asMap().putIfAbsent(snapshot.getOssKey(), snapshot.getId());
+        });
+    }
+
+    /**
+     * 批量写入（更新）缓存
+     */
+    public void putAll(Collection<FileInfo> fileInfos) {
+        for (FileInfo fileInfo : fileInfos) {
+            put(fileInfo);
+        }
+    }
+
+    /**
+     * 使缓存失效，在事务内调用时提交后再次失效
+     */
+    public void invalidate(Long id) {
+        invalidate(Collections.singletonList(id));
+    }
+
+    /**
+     * 批量使缓存失效
+     */
+    public void invalidate(Collection<Long> ids) {
+        List<Long> keys = new ArrayList<>(ids);
+        byId.invalidateAll(keys);
+        TransactionCallbacks.afterCommit(() -> byId.invalidateAll(keys));
+    }
+
+    /**
+     * 缓存统计：命中、未命中、淘汰次数等
+     */
+    public Map<String, Object> getStatistics() {
+        CacheStats stats = byId.stats();
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("size", byId.estimatedSize());
+        statistics.put("hitCount", stats.hitCount());
+        statistics.put("missCount", stats.missCount());
+        statistics.put("hitRate", stats.hitRate());
+        statistics.put("loadSuccessCount", stats.loadSuccessCount());
+        statistics.put("loadFailureCount", stats.loadFailureCount());
+        statistics.put("evictionCount", stats.evictionCount());
+        statistics.put("totalLoadTime", stats.totalLoadTime());
+        return statistics;
+    }
+
+    /**
+     * 复制缓存对象，供需要修改的调用方使用
+     */
+    public static FileInfo copyOf(FileInfo fileInfo) {
+        FileInfo copy = new FileInfo();
+        BeanUtils.copyProperties(fileInfo, copy);
+        return copy;
+    }
+}
@@ -1,20 +1,35 @@
 package com.example.ossupload.service;
 
+import com.example.ossupload.dto.CursorPage;
+import com.example.ossupload.dto.DeleteJobStatus;
+import com.example.ossupload.dto.FileInfoListItem;
+import com.example.ossupload.dto.FileListPage;
 import com.example.ossupload.entity.FileInfo;
 import com.example.ossupload.repository.FileInfoRepository;
+import com.example.ossupload.util.FileNameTokenizer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * 文件信息服务类
@@ -24,98 +39,312 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class FileInfoService {
     
+    /**
+     * 允许的排序字段及其类型（对应列均为NOT NULL，游标中的排序值不会为空），均有以id结尾的复合索引：
+     * createTime -> (create_time, id)，fileSize -> (file_size, id)，originalName -> (original_name, id)，
+     * uploadStatus -> (upload_status, create_time, id)
+     */
+    private static final Map<String, Class<?>> SORT_FIELDS = new HashMap<>();
+    
+    static {
+        SORT_FIELDS.put("id", Long.class);
+        SORT_FIELDS.put("createTime", LocalDateTime.class);
+        SORT_FIELDS.put("fileSize", Long.class);
+        SORT_FIELDS.put("originalName", String.class);
+        SORT_FIELDS.put("uploadStatus", Integer.class);
+    }
+    
     private final FileInfoRepository fileInfoRepository;
+    private final FileStatisticsCounter fileStatisticsCounter;
+    private final FileDeleteService fileDeleteService;
+    private final FileInfoCache fileInfoCache;
+    private final DownloadUrlService downloadUrlService;
+    private final PendingUploadRegistry pendingUploadRegistry;
+    private final FileDataVersion fileDataVersion;
+    private final FileArchiveService fileArchiveService;
+    private final ObjectMapper objectMapper;
     
     /**
-     * 分页查询文件信息
+     * 分页查询文件信息（列表投影）
+     *
+     * @param includeArchived 是否同时查询归档表
      */
-    public Page<FileInfo> getFileInfoPage(String originalName, Integer uploadStatus, 
-                                         int page, int size, String sortBy, String sortDir) {
-        // 创建排序对象
-        Sort sort = Sort.by(Sort.Direction.fromString(sortDir), sortBy);
+    public FileListPage getFileInfoPage(String originalName, Integer uploadStatus, 
+                                        int page, int size, String sortBy, String sortDir,
+                                        boolean includeArchived) {
+        // 创建排序对象：只允许有索引的字段，以id作为次级排序，与复合索引顺序一致且分页结果稳定
+        if (!SORT_FIELDS.containsKey(sortBy)) {
+            throw new RuntimeException("不支持的排序字段: " + sortBy);
+        }
+        Sort.Direction direction = Sort.Direction.fromString(sortDir);
+        Sort sort = "id".equals(sortBy) ? Sort.by(direction, "id") : Sort.by(direction, sortBy, "id");
         Pageable pageable = PageRequest.of(page, size, sort);
         
         // 查询条件处理
         String nameCondition = StringUtils.hasText(originalName) ? originalName.trim() : null;
         
-        return fileInfoRepository.findByConditions(nameCondition, uploadStatus, pageable);
+        Page<FileInfoListItem> result;
+        if (includeArchived) {
+            // 合并在线表与归档表；无文件名条件时总数同样取内存计数（归档记录均为上传成功）
+            List<FileInfoListItem> content = fileInfoRepository.findIncludingArchived(nameCondition, uploadStatus,
+                    sortBy, direction.isAscending(), pageable.getOffset(), size);
+            result = PageableExecutionUtils.getPage(content, pageable, () -> nameCondition == null
+                    ? countWithArchived(uploadStatus)
+                    : fileInfoRepository.countIncludingArchived(nameCondition, uploadStatus));
+        } else if (nameCondition == null) {
+            // 无文件名条件时按索引顺序读取一页，总数取内存计数，避免全表count
+            List<FileInfoListItem> content = uploadStatus == null ? fileInfoRepository.findListItems(pageable)
+                    : fileInfoRepository.findListItemsByStatus(uploadStatus, pageable);
+            result = PageableExecutionUtils.getPage(content, pageable, () -> uploadStatus == null
+                    ? fileStatisticsCounter.getTotalCount() : fileStatisticsCounter.getCount(uploadStatus));
+        } else if (FileNameTokenizer.isIndexable(nameCondition)) {
+            Set<String> grams = FileNameTokenizer.tokenize(nameCondition);
+            result = fileInfoRepository.findByNameGrams(grams, grams.size(), nameCondition, uploadStatus, pageable);
+        } else {
+            result = fileInfoRepository.findByConditions(nameCondition, uploadStatus, pageable);
+        }
+        
+        downloadUrlService.applyTo(result.getContent());
+        return FileListPage.builder()
+                .content(result.getContent())
+                .number(result.getNumber())
+                .size(result.getSize())
+                .totalElements(result.getTotalElements())
+                .totalPages(result.getTotalPages())
+                .urlPrefix(downloadUrlService.getUrlPrefix())
+                .build();
+    }
+    
+    /**
+     * 在线表内存计数加归档数（归档记录均为上传成功）
+     */
+    private long countWithArchived(Integer uploadStatus) {
+        if (uploadStatus == null) {
+            return fileStatisticsCounter.getTotalCount() + fileArchiveService.getArchivedCount();
+        }
+        long count = fileStatisticsCounter.getCount(uploadStatus);
+        return uploadStatus == 1 ? count + fileArchiveService.getArchivedCount() : count;
+    }
+    
+    /**
+     * 游标分页查询文件信息
+     * <p>
+     * 按 (sortBy, id) 做keyset查询，深翻页不随偏移量变慢；默认不执行count。
+     *
+     * @param cursor    上一次返回的 nextCursor / prevCursor，为空表示第一页
+     * @param direction next-向后翻页，prev-向前翻页
+     * @param withTotal 是否统计总数
+     */
+    public CursorPage<FileInfoListItem> getFileInfoCursorPage(String originalName, Integer uploadStatus,
+                                                      String cursor, String direction, int size,
+                                                      String sortBy, String sortDir, boolean withTotal) {
+        Class<?> sortType = SORT_FIELDS.get(sortBy);
+        if (sortType == null) {
+            throw new RuntimeException("不支持的排序字段: " + sortBy);
+        }
+        boolean ascending = Sort.Direction.fromString(sortDir).isAscending();
+        boolean backward = "prev".equalsIgnoreCase(direction);
+        String nameCondition = StringUtils.hasText(originalName) ? originalName.trim() : null;
+        
+        Object lastSortValue = null;
+        Long lastId = null;
+        if (StringUtils.hasText(cursor)) {
+            Map<String, String> decoded = decodeCursor(cursor);
+            if (!sortBy.equals(decoded.get("s")) || !sortDir.equalsIgnoreCase(decoded.get("d"))) {
+                throw new RuntimeException("游标与排序条件不匹配");
+            }
+            lastSortValue = parseSortValue(sortType, decoded.get("v"));
+            lastId = Long.valueOf(decoded.get("i"));
+        }
+        
+        // 向前翻页时反向查询再倒序；多取一条用于判断是否还有更多
+        List<FileInfoListItem> rows = fileInfoRepository.findByKeyset(nameCondition, uploadStatus,
+                sortBy, backward != ascending, lastSortValue, lastId, size + 1);
+        boolean hasMore = rows.size() > size;
+        List<FileInfoListItem> content = new ArrayList<>(hasMore ? rows.subList(0, size) : rows);
+        if (backward) {
+            Collections.reverse(content);
+        }
+        downloadUrlService.applyTo(content);
+        
+        boolean hasNext = backward ? lastId != null : hasMore;
+        boolean hasPrev = backward ? hasMore : lastId != null;
+        
+        return CursorPage.<FileInfoListItem>builder()
+                .content(content)
+                .size(size)
+                .hasNext(hasNext)
+                .hasPrev(hasPrev)
+                .nextCursor(hasNext && !content.isEmpty()
+                        ? encodeCursor(sortBy, sortDir, content.get(content.size() - 1)) : null)
+                .prevCursor(hasPrev && !content.isEmpty()
+                        ? encodeCursor(sortBy, sortDir, content.get(0)) : null)
+                .totalElements(withTotal ? countByConditions(nameCondition, uploadStatus) : null)
+                .urlPrefix(downloadUrlService.getUrlPrefix())
+                .build();
     }
     
     /**
      * 根据ID获取文件信息
      */
     public Optional<FileInfo> getFileInfoById(Long id) {
-        return fileInfoRepository.findById(id);
+        Optional<FileInfo> fileInfo = fileInfoCache.getById(id);
+        if (!fileInfo.isPresent()) {
+            // 延迟落库模式下尚未回调的文件只存在于预留登记中
+            fileInfo = Optional.ofNullable(pendingUploadRegistry.get(id));
+        }
+        if (!fileInfo.isPresent()) {
+            // 已归档的记录从归档表读取
+            fileInfo = fileArchiveService.findById(id);
+        }
+        return fileInfo.map(downloadUrlService::withUrl);
     }
     
     /**
      * 根据OSS键获取文件信息
      */
     public Optional<FileInfo> getFileInfoByOssKey(String ossKey) {
-        return fileInfoRepository.findByOssKey(ossKey);
+        Optional<FileInfo> fileInfo = fileInfoCache.getByOssKey(ossKey);
+        if (!fileInfo.isPresent()) {
+            fileInfo = fileArchiveService.findByOssKey(ossKey);
+        }
+        return fileInfo.map(downloadUrlService::withUrl);
+    }
+    
+    /**
+     * 文件列表的ETag：数据版本号、查询参数与下载地址时间分段，须在查询前获取
+     */
+    public String getFileListETag(String originalName, Integer uploadStatus, int page, int size,
+                                  String sortBy, String sortDir, boolean includeArchived) {
+        return FileDataVersion.etag(fileDataVersion.current(), originalName, uploadStatus, page, size,
+                sortBy, sortDir, includeArchived, downloadUrlService.getUrlEpoch());
+    }
+    
+    /**
+     * 文件统计的ETag，须在读取统计前获取
+     */
+    public String getFileStatisticsETag() {
+        return FileDataVersion.etag(fileDataVersion.current());
     }
     
     /**
-     * 获取文件统计信息
+     * 获取文件统计信息（读取内存计数，O(1)）
      */
     public Map<String, Object> getFileStatistics() {
         Map<String, Object> statistics = new HashMap<>();
         
+        // 延迟落库模式下的待上传预留不在表中，按登记数计入
+        long reserved = pendingUploadRegistry.getPendingCount();
+        // 归档记录均为上传成功，计入总数与成功数
+        long archived = fileArchiveService.getArchivedCount();
+        
         // 总文件数
-        long totalCount = fileInfoRepository.count();
-        statistics.put("totalCount", totalCount);
+        statistics.put("totalCount", fileStatisticsCounter.getTotalCount() + reserved + archived);
         
         // 各状态文件数量
-        List<Object[]> statusCounts = fileInfoRepository.countByUploadStatus();
         Map<String, Long> statusMap = new HashMap<>();
-        statusMap.put("pending", 0L);    // 待上传
-        statusMap.put("success", 0L);    // 上传成功
-        statusMap.put("failed", 0L);     // 上传失败
-        
-        for (Object[] row : statusCounts) {
-            Integer status = (Integer) row[0];
-            Long count = (Long) row[1];
-            
-            switch (status) {
-                case 0:
-                    statusMap.put("pending", count);
-                    break;
-                case 1:
-                    statusMap.put("success", count);
-                    break;
-                case 2:
-                    statusMap.put("failed", count);
-                    break;
-            }
-        }
+        statusMap.put("pending", fileStatisticsCounter.getCount(0) + reserved);    // 待上传
+        statusMap.put("success", fileStatisticsCounter.getCount(1) + archived);    // 上传成功
+        statusMap.put("failed", fileStatisticsCounter.getCount(2));     // 上传失败
         
         statistics.put("statusCounts", statusMap);
+        statistics.put("archivedCount", archived);
         
         return statistics;
     }
     
     /**
-     * 删除文件信息
+     * 获取文件信息缓存统计
+     */
+    public Map<String, Object> getCacheStatistics() {
+        return fileInfoCache.getStatistics();
+    }
+    
+    /**
+     * 删除文件信息（存储对象异步删除）
      */
     public void deleteFileInfo(Long id) {
-        if (fileInfoRepository.existsById(id)) {
-            fileInfoRepository.deleteById(id);
-            log.info("删除文件信息成功，ID: {}", id);
-        } else {
+        if (fileDeleteService.delete(Collections.singletonList(id), false) == 0) {
             throw new RuntimeException("文件信息不存在，ID: " + id);
         }
+        log.info("删除文件信息成功，ID: {}", id);
     }
     
     /**
-     * 批量删除文件信息
+     * 批量删除文件信息（存储对象异步删除）
      */
     public void deleteFileInfoBatch(List<Long> ids) {
-        List<FileInfo> fileInfos = fileInfoRepository.findAllById(ids);
-        if (fileInfos.size() != ids.size()) {
-            throw new RuntimeException("部分文件信息不存在");
+        int deleted = fileDeleteService.delete(ids, true);
+        log.info("批量删除文件信息成功，数量: {}", deleted);
+    }
+    
+    /**
+     * 提交后台批量删除任务
+     */
+    public DeleteJobStatus submitDeleteJob(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new RuntimeException("文件信息ID不能为空");
         }
-        
-        fileInfoRepository.deleteAll(fileInfos);
-        log.info("批量删除文件信息成功，数量: {}", ids.size());
+        return fileDeleteService.submit(ids);
+    }
+    
+    /**
+     * 查询批量删除任务状态
+     */
+    public DeleteJobStatus getDeleteJobStatus(String jobId) {
+        return fileDeleteService.getJobStatus(jobId);
+    }
+    
+    /**
+     * 按条件统计文件数量
+     */
+    private long countByConditions(String nameCondition, Integer uploadStatus) {
+        if (FileNameTokenizer.isIndexable(nameCondition)) {
+            Set<String> grams = FileNameTokenizer.tokenize(nameCondition);
+            return fileInfoRepository.countByNameGrams(grams, grams.size(), nameCondition, uploadStatus);
+        }
+        return fileInfoRepository.countByConditions(nameCondition, uploadStatus);
+    }
+    
+    /**
+     * 生成游标：Base64(URL安全) 编码的 {s:排序字段, d:排序方向, v:排序字段值, i:ID}
+     */
+    private String encodeCursor(String sortBy, String sortDir, FileInfoListItem fileInfo) {
+        Map<String, String> cursor = new HashMap<>();
+        cursor.put("s", sortBy);
+        cursor.put("d", sortDir.toLowerCase());
+        cursor.put("v", String.valueOf(new BeanWrapperImpl(fileInfo).getPropertyValue(sortBy)));
+        cursor.put("i", String.valueOf(fileInfo.getId()));
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(cursor));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("生成游标失败", e);
+        }
+    }
+    
+    /**
+     * 解析游标
+     */
+    private Map<String, String> decodeCursor(String cursor) {
+        try {
+            return objectMapper.readValue(Base64.getUrlDecoder().decode(cursor),
+                    new TypeReference<Map<String, String>>() { });
+        } catch (Exception e) {
+            throw new RuntimeException("无效的游标");
+        }
+    }
+    
+    /**
+     * 按排序字段类型还原游标中的值
+     */
+    private Object parseSortValue(Class<?> sortType, String value) {
+        if (sortType == LocalDateTime.class) {
+            return LocalDateTime.parse(value);
+        } else if (sortType == Long.class) {
+            return Long.valueOf(value);
+        } else if (sortType == Integer.class) {
+            return Integer.valueOf(value);
+        }
+        return value;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,101 @@
+package com.example.ossupload.service;
+
+import com.example.ossupload.entity.FileInfo;
+import com.example.ossupload.repository.FileNameGramRepository;
+import com.example.ossupload.util.FileNameTokenizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 文件名三元组索引维护服务
+ * <p>
+ * 在创建、删除文件信息时同步维护 file_name_gram 表，使文件名子串检索可以走索引。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileNameIndexService {
+    
+    private static final String INSERT_GRAM_SQL = "INSERT INTO file_name_gram (gram, file_info_id) VALUES (?, ?)";
+    
+    /**
+     * 重建索引时每批读取的文件数
+     */
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    
+    private final FileNameGramRepository fileNameGramRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final FileDataVersion fileDataVersion;
+    
+    /**
+     * 为新建的文件信息建立索引（需在文件信息分配ID之后调用）
+     */
+    @Transactional
+    public void index(Collection<FileInfo> fileInfos) {
+        List<Object[]> args = new ArrayList<>();
+        for (FileInfo fileInfo : fileInfos) {
+            for (String gram : FileNameTokenizer.tokenize(fileInfo.getOriginalName())) {
+                args.add(new Object[]{gram, fileInfo.getId()});
+            }
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_GRAM_SQL, args);
+        }
+    }
+    
+    /**
+     * 删除文件信息对应的索引
+     */
+    @Transactional
+    public void remove(Collection<Long> fileInfoIds) {
+        if (!fileInfoIds.isEmpty()) {
+            fileNameGramRepository.deleteByFileInfoIds(fileInfoIds);
+        }
+    }
+    
+    /**
+     * 启动时若索引为空而文件表有数据（如切换为持久化数据库后首次启动），按ID分批重建索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (fileNameGramRepository.count() > 0) {
+            return;
+        }
+        
+        long lastId = 0;
+        long indexed = 0;
+        while (true) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT id, original_name FROM file_info WHERE id > ? ORDER BY id LIMIT ?",
+                    lastId, REBUILD_BATCH_SIZE);
+            if (rows.isEmpty()) {
+                break;
+            }
+            List<Object[]> args = new ArrayList<>();
+            for (Map<String, Object> row : rows) {
+                lastId = ((Number) row.get("id")).longValue();
+                for (String gram : FileNameTokenizer.tokenize((String) row.get("original_name"))) {
+                    args.add(new Object[]{gram, lastId});
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_GRAM_SQL, args);
+            indexed += rows.size();
+        }
+        
+        if (indexed > 0) {
+            // 重建期间按文件名查询的结果不完整，使已缓存的列表失效
+            fileDataVersion.increment();
+            log.info("文件名索引重建完成，文件数: {}", indexed);
+        }
+    }
+}
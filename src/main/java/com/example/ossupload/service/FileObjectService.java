@@ -0,0 +1,227 @@
+package com.example.ossupload.service;
+
+import com.example.ossupload.config.OssConfig;
+import com.example.ossupload.entity.FileInfo;
+import com.example.ossupload.entity.FileObject;
+import com.example.ossupload.repository.FileInfoArchiveRepository;
+import com.example.ossupload.repository.FileInfoRepository;
+import com.example.ossupload.repository.FileObjectRepository;
+import com.example.ossupload.storage.StorageBackend;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 存储对象复用服务（秒传）
+ * <p>
+ * 内容哈希由客户端提供，不能直接信任：首次有请求复用某个哈希时，异步读取上传成功的同哈希文件的存储对象，
+ * 由服务端计算SHA-256与大小，一致才登记为 {@link FileObject}，不一致则清除这些文件信息上的哈希。
+ * 校验完成前该请求照常上传。引用计数取登记时引用该对象的文件信息条数，之后每次秒传加一，
+ * 删除文件信息时减一，计数归零才删除存储对象。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileObjectService {
+
+    private final OssConfig ossConfig;
+    private final FileObjectRepository fileObjectRepository;
+    private final FileInfoRepository fileInfoRepository;
+    private final FileInfoArchiveRepository fileInfoArchiveRepository;
+    private final StorageBackend storageBackend;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * 正在校验的内容哈希，避免同一哈希重复读取对象
+     */
+    private final Set<String> verifying = ConcurrentHashMap.newKeySet();
+
+    private TransactionTemplate requiresNewTemplate;
+    private ThreadPoolExecutor verifyExecutor;
+
+    @PostConstruct
+    public void init() {
+        requiresNewTemplate = new TransactionTemplate(transactionManager);
+        requiresNewTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        OssConfig.InstantUpload config = ossConfig.getInstantUpload();
+        int parallelism = Math.max(1, config.getVerifyParallelism());
+        AtomicInteger threadIndex = new AtomicInteger();
+        verifyExecutor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, config.getVerifyQueueCapacity())),
+                r -> new Thread(r, "object-verify-" + threadIndex.incrementAndGet()));
+    }
+
+    @PreDestroy
+    public void stop() {
+        verifyExecutor.shutdownNow();
+    }
+
+    /**
+     * 为秒传占用一个已校验的存储对象（引用计数加一），不存在时返回空并在后台校验同哈希的已上传对象
+     */
+    public Optional<FileObject> acquire(String contentHash, long fileSize) {
+        Optional<FileObject> fileObject = fileObjectRepository.findByContentHash(contentHash);
+        if (!fileObject.isPresent()) {
+            scheduleVerification(contentHash, fileSize);
+            return Optional.empty();
+        }
+        if (fileObject.get().getFileSize() != fileSize) {
+            return Optional.empty();
+        }
+        // 并发删除已使计数归零时放弃复用
+        if (fileObjectRepository.addRefCount(fileObject.get().getId(), 1) == 0) {
+            return Optional.empty();
+        }
+        return fileObject;
+    }
+
+    /**
+     * 释放被删除文件信息对存储对象的引用，返回仍被引用、不可删除的对象键
+     *
+     * @param countByKey 每个对象键被删除的文件信息条数
+     */
+    public Set<String> release(Map<String, Long> countByKey) {
+        Set<String> retained = new HashSet<>();
+        if (countByKey.isEmpty()) {
+            return retained;
+        }
+        for (FileObject fileObject : fileObjectRepository.findByOssKeyIn(countByKey.keySet())) {
+            long released = countByKey.get(fileObject.getOssKey());
+            fileObjectRepository.addRefCount(fileObject.getId(), -released);
+            if (fileObject.getRefCount() > released) {
+                retained.add(fileObject.getOssKey());
+            }
+        }
+        fileObjectRepository.deleteUnreferenced(countByKey.keySet());
+        return retained;
+    }
+
+    /**
+     * 后台校验同哈希的已上传对象；同一哈希只校验一次，队列已满时放弃
+     */
+    private void scheduleVerification(String contentHash, long fileSize) {
+        if (!verifying.add(contentHash)) {
+            return;
+        }
+        try {
+            verifyExecutor.execute(() -> {
+                try {
+                    verify(contentHash, fileSize);
+                } catch (Exception e) {
+                    log.warn("校验存储对象内容失败，哈希: {}", contentHash, e);
+                } finally {
+                    verifying.remove(contentHash);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            verifying.remove(contentHash);
+        }
+    }
+
+    /**
+     * 读取上传成功的同哈希文件的存储对象，内容一致时登记为可复用对象
+     */
+    private void verify(String contentHash, long fileSize) throws IOException {
+        Optional<FileInfo> source = fileInfoRepository
+                .findFirstByContentHashAndFileSizeAndUploadStatus(contentHash, fileSize, 1);
+        if (!source.isPresent()) {
+            return;
+        }
+        String ossKey = source.get().getOssKey();
+
+        DigestChannel channel = new DigestChannel();
+        long size = storageBackend.transferObject(ossKey, channel);
+        String actualHash = channel.toHex();
+        if (size != fileSize || !actualHash.equals(contentHash)) {
+            int cleared = requiresNewTemplate.execute(status -> fileInfoRepository.clearContentHash(ossKey, contentHash));
+            log.warn("存储对象内容与声明的哈希不一致，已清除哈希，键: {}, 文件信息数: {}", ossKey, cleared);
+            return;
+        }
+        register(contentHash, fileSize, ossKey);
+    }
+
+    /**
+     * 将已校验的对象登记为可复用对象；在独立事务中执行，并发登记冲突时忽略
+     */
+    private void register(String contentHash, long fileSize, String ossKey) {
+        try {
+            FileObject fileObject = requiresNewTemplate.execute(status -> {
+                FileObject created = new FileObject();
+                created.setContentHash(contentHash);
+                created.setFileSize(fileSize);
+                created.setOssKey(ossKey);
+                // 已归档的记录同样引用该对象
+                created.setRefCount(fileInfoRepository.countByOssKey(ossKey)
+                        + fileInfoArchiveRepository.countByOssKey(ossKey));
+                return fileObjectRepository.saveAndFlush(created);
+            });
+            log.debug("登记可复用存储对象，键: {}", fileObject.getOssKey());
+        } catch (DataIntegrityViolationException e) {
+            log.debug("存储对象已登记，键: {}", ossKey);
+        }
+    }
+
+    /**
+     * 只计算SHA-256、不保存内容的通道
+     */
+    private static class DigestChannel implements WritableByteChannel {
+
+        private final MessageDigest digest;
+
+        DigestChannel() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            int length = src.remaining();
+            digest.update(src);
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        String toHex() {
+            byte[] bytes = digest.digest();
+            StringBuilder hex = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        }
+    }
+}
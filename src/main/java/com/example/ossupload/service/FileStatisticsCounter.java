@@ -0,0 +1,210 @@
+package com.example.ossupload.service;
+
+import com.example.ossupload.repository.FileInfoRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 文件状态计数器
+ * <p>
+ * 启动时从数据库加载各状态数量，此后在每次状态变化（创建、回调、删除）时增量维护，
+ * 统计接口直接读取内存计数；定时与数据库对账以修正漂移。
+ * 计数在事务提交后才生效，事务回滚不会影响计数。事务从提交前到计数生效持有对账读锁，
+ * 对账持写锁读取数据库并修正，快照中已提交的变化一定已计入内存，不会丢失或重复计数。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FileStatisticsCounter {
+    
+    /**
+     * 上传状态：0-待上传，1-上传成功，2-上传失败
+     */
+    private static final int STATUS_COUNT = 3;
+    
+    /**
+     * 指标标签中的状态名
+     */
+    private static final String[] STATUS_NAMES = {"pending", "success", "failed"};
+    
+    private final FileInfoRepository fileInfoRepository;
+    private final MeterRegistry meterRegistry;
+    private final FileDataVersion fileDataVersion;
+    
+    private final LongAdder[] counters = new LongAdder[STATUS_COUNT];
+    
+    private final ReadWriteLock reconcileLock = new ReentrantReadWriteLock();
+    
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < STATUS_COUNT; i++) {
+            counters[i] = new LongAdder();
+            Gauge.builder("upload.files", counters[i], LongAdder::sum)
+                    .tag("status", STATUS_NAMES[i])
+                    .register(meterRegistry);
+        }
+        reconcile();
+    }
+    
+    /**
+     * 与数据库对账
+     */
+    @Scheduled(fixedDelayString = "${oss.statistics.reconcile-interval:300000}",
+               initialDelayString = "${oss.statistics.reconcile-interval:300000}")
+    public void reconcile() {
+        Lock lock = reconcileLock.writeLock();
+        lock.lock();
+        try {
+            long[] actual = new long[STATUS_COUNT];
+            List<Object[]> statusCounts = fileInfoRepository.countByUploadStatus();
+            for (Object[] row : statusCounts) {
+                Integer status = (Integer) row[0];
+                if (isKnownStatus(status)) {
+                    actual[status] = (Long) row[1];
+                }
+            }
+            
+            for (int i = 0; i < STATUS_COUNT; i++) {
+                long drift = actual[i] - counters[i].sum();
+                if (drift != 0) {
+                    counters[i].add(drift);
+                    fileDataVersion.increment();
+                    log.debug("文件状态计数对账修正，状态: {}, 偏差: {}", i, drift);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 新建文件信息（待上传）
+     */
+    public void onCreated(int count) {
+        onCreated(0, count);
+    }
+    
+    /**
+     * 新建指定状态的文件信息（如秒传直接为上传成功）
+     */
+    public void onCreated(int status, int count) {
+        if (isKnownStatus(status) && count > 0) {
+            afterCommit(() -> counters[status].add(count));
+        }
+    }
+    
+    /**
+     * 文件状态变化
+     */
+    public void onStatusChanged(Integer fromStatus, Integer toStatus) {
+        onStatusChanged(fromStatus, toStatus, 1);
+    }
+    
+    /**
+     * 多个文件发生相同的状态变化
+     */
+    public void onStatusChanged(Integer fromStatus, Integer toStatus, long count) {
+        if (count == 0 || (fromStatus != null && fromStatus.equals(toStatus))) {
+            return;
+        }
+        afterCommit(() -> {
+            if (isKnownStatus(fromStatus)) {
+                counters[fromStatus].add(-count);
+            }
+            if (isKnownStatus(toStatus)) {
+                counters[toStatus].add(count);
+            }
+        });
+    }
+    
+    /**
+     * 删除文件信息
+     */
+    public void onDeleted(Integer status) {
+        onDeleted(status, 1);
+    }
+    
+    /**
+     * 删除多个相同状态的文件信息
+     */
+    public void onDeleted(Integer status, long count) {
+        if (isKnownStatus(status) && count > 0) {
+            afterCommit(() -> counters[status].add(-count));
+        }
+    }
+    
+    /**
+     * 指定状态的文件数量
+     */
+    public long getCount(int status) {
+        return isKnownStatus(status) ? counters[status].sum() : 0L;
+    }
+    
+    /**
+     * 文件总数
+     */
+    public long getTotalCount() {
+        long total = 0;
+        for (LongAdder counter : counters) {
+            total += counter.sum();
+        }
+        return total;
+    }
+    
+    private boolean isKnownStatus(Integer status) {
+        return status != null && status >= 0 && status < STATUS_COUNT;
+    }
+    
+    /**
+     * 存在事务时在提交后执行，否则立即执行；均在对账读锁内进行。
+     * 事务在提交前取得读锁、结束后释放，对账无法在“已提交、未计数”的窗口内读取数据库
+     */
+    private void afterCommit(Runnable action) {
+        Lock lock = reconcileLock.readLock();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            lock.lock();
+            try {
+                action.run();
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            
+            private boolean locked;
+            
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                lock.lock();
+                locked = true;
+            }
+            
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+            
+            @Override
+            public void afterCompletion(int status) {
+                if (locked) {
+                    locked = false;
+                    lock.unlock();
+                }
+            }
+        });
+    }
+}
@@ -1,28 +1,39 @@
 package com.example.ossupload.service;
 
-import com.aliyun.oss.OSS;
-import com.aliyun.oss.OSSClientBuilder;
-import com.aliyun.oss.common.utils.BinaryUtil;
-import com.aliyun.oss.model.MatchMode;
-import com.aliyun.oss.model.PolicyConditions;
 import com.example.ossupload.config.OssConfig;
 import com.example.ossupload.dto.FileUploadCallbackRequest;
 import com.example.ossupload.dto.FileUploadRequest;
+import com.example.ossupload.dto.MultipartPartInfo;
+import com.example.ossupload.dto.MultipartPartUrl;
+import com.example.ossupload.dto.MultipartUploadResponse;
 import com.example.ossupload.dto.OssSignatureResponse;
 import com.example.ossupload.entity.FileInfo;
+import com.example.ossupload.entity.FileObject;
+import com.example.ossupload.entity.FilePart;
 import com.example.ossupload.repository.FileInfoRepository;
+import com.example.ossupload.repository.FilePartRepository;
+import com.example.ossupload.storage.ObjectKeyGenerator;
+import com.example.ossupload.storage.PostUploadPolicy;
+import com.example.ossupload.storage.StorageBackend;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
-import java.nio.charset.StandardCharsets;
-import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 /**
  * OSS服务类
@@ -32,8 +43,28 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class OssService {
     
+    /**
+     * OSS单次分片上传的最大分片数
+     */
+    private static final long MAX_PART_COUNT = 10000L;
+    
     private final OssConfig ossConfig;
     private final FileInfoRepository fileInfoRepository;
+    private final StorageBackend storageBackend;
+    private final CallbackWriteBehindQueue callbackWriteBehindQueue;
+    private final FilePartRepository filePartRepository;
+    private final FileNameIndexService fileNameIndexService;
+    private final FileStatisticsCounter fileStatisticsCounter;
+    private final FileInfoCache fileInfoCache;
+    private final FileObjectService fileObjectService;
+    private final ObjectKeyGenerator objectKeyGenerator;
+    private final UploadMetrics uploadMetrics;
+    private final DownloadUrlService downloadUrlService;
+    private final FileEventPublisher fileEventPublisher;
+    private final SignatureIdempotencyCache signatureIdempotencyCache;
+    private final PendingUploadRegistry pendingUploadRegistry;
+    private final FileArchiveService fileArchiveService;
+    private final TransactionTemplate transactionTemplate;
     
     /**
      * 生成OSS上传签名
@@ -41,52 +72,56 @@ public class OssService {
     @Transactional
     public OssSignatureResponse generateSignature(FileUploadRequest request) {
         try {
+            long start = System.nanoTime();
+            
+            // 携带幂等键的重试请求直接返回首次请求的签名
+            OssSignatureResponse replayed = findIdempotentResponse(request);
+            if (replayed != null) {
+                return replayed;
+            }
+            
             // 验证文件
             validateFile(request);
+            long validated = System.nanoTime();
+            
+            // 内容已存在时秒传，无需签名
+            FileInfo instantFileInfo = createInstantFileInfo(request);
+            if (instantFileInfo != null) {
+                instantFileInfo = fileInfoRepository.save(instantFileInfo);
+                fileNameIndexService.index(Collections.singletonList(instantFileInfo));
+                fileStatisticsCounter.onCreated(1, 1);
+                fileInfoCache.put(instantFileInfo);
+                fileEventPublisher.created(Collections.singletonList(instantFileInfo));
+                uploadMetrics.instant(1);
+                log.debug("秒传成功，文件ID: {}, 键: {}", instantFileInfo.getId(), instantFileInfo.getOssKey());
+                OssSignatureResponse response = buildInstantResponse(instantFileInfo);
+                rememberIdempotentResponse(request, response);
+                return response;
+            }
             
             // 生成文件键
-            String fileKey = generateFileKey(request.getFileName());
+            String fileKey = objectKeyGenerator.generate(request.getFileName());
             
-            // 保存文件信息到数据库
+            // 保存文件信息到数据库；延迟落库时只登记预留，回调到达时再插入
             FileInfo fileInfo = createFileInfo(request, fileKey);
-            fileInfo = fileInfoRepository.save(fileInfo);
-            
-            // 创建OSS客户端
-            OSS ossClient = new OSSClientBuilder().build(
-                ossConfig.getEndpoint(), 
-                ossConfig.getAccessKeyId(), 
-                ossConfig.getAccessKeySecret()
-            );
-            
-            try {
-                // 设置过期时间
-                long expireTime = System.currentTimeMillis() + ossConfig.getSignatureExpireTime() * 1000;
-                Date expiration = new Date(expireTime);
-                
-                // 创建PostObject请求的Policy
-                PolicyConditions policyConds = new PolicyConditions();
-                policyConds.addConditionItem(PolicyConditions.COND_CONTENT_LENGTH_RANGE, 0, ossConfig.getMaxFileSize());
-                policyConds.addConditionItem(MatchMode.Exact, PolicyConditions.COND_KEY, fileKey);
-                
-                String postPolicy = ossClient.generatePostPolicy(expiration, policyConds);
-                byte[] binaryData = postPolicy.getBytes(StandardCharsets.UTF_8);
-                String encodedPolicy = BinaryUtil.toBase64String(binaryData);
-                String postSignature = ossClient.calculatePostSignature(postPolicy);
-                
-                // 构建响应
-                return OssSignatureResponse.builder()
-                        .accessKeyId(ossConfig.getAccessKeyId())
-                        .policy(encodedPolicy)
-                        .signature(postSignature)
-                        .host(ossConfig.getEndpoint().replace("https://", "https://" + ossConfig.getBucketName() + "."))
-                        .key(fileKey)
-                        .expire(expireTime / 1000)
-                        .fileInfoId(fileInfo.getId())
-                        .build();
-                        
-            } finally {
-                ossClient.shutdown();
+            if (pendingUploadRegistry.isEnabled()) {
+                pendingUploadRegistry.reserve(fileInfo);
+            } else {
+                fileInfo = fileInfoRepository.save(fileInfo);
+                fileNameIndexService.index(Collections.singletonList(fileInfo));
+                fileStatisticsCounter.onCreated(1);
+                fileInfoCache.put(fileInfo);
+                fileEventPublisher.created(Collections.singletonList(fileInfo));
             }
+            long inserted = System.nanoTime();
+            
+            // 生成签名
+            long expireTime = System.currentTimeMillis() + ossConfig.getSignatureExpireTime() * 1000;
+            OssSignatureResponse response = buildSignatureResponse(fileInfo, expireTime);
+            rememberIdempotentResponse(request, response);
+            uploadMetrics.recordSignature(start, validated, inserted, System.nanoTime());
+            uploadMetrics.signed(1);
+            return response;
             
         } catch (Exception e) {
             log.error("生成OSS签名失败", e);
@@ -94,30 +129,149 @@ public class OssService {
         }
     }
     
+    /**
+     * 批量生成OSS上传签名
+     * <p>
+     * 先校验全部文件，任一文件不合法则整体失败；文件信息通过一次saveAll按JDBC批次插入。
+     * 携带幂等键且已签名过的文件直接返回首次请求的签名。
+     */
+    @Transactional
+    public List<OssSignatureResponse> generateSignatures(List<FileUploadRequest> requests) {
+        try {
+            // 幂等键重复提交的文件直接复用已有签名，其余文件需要新建
+            List<OssSignatureResponse> responses = new ArrayList<>(Collections.nCopies(requests.size(), null));
+            List<FileUploadRequest> creating = new ArrayList<>(requests.size());
+            List<Integer> positions = new ArrayList<>(requests.size());
+            Set<String> idempotencyKeys = new HashSet<>();
+            for (int i = 0; i < requests.size(); i++) {
+                FileUploadRequest request = requests.get(i);
+                if (StringUtils.hasText(request.getIdempotencyKey())
+                        && !idempotencyKeys.add(request.getIdempotencyKey())) {
+                    throw new RuntimeException("批量请求中的幂等键重复: " + request.getIdempotencyKey());
+                }
+                OssSignatureResponse replayed = findIdempotentResponse(request);
+                if (replayed != null) {
+                    responses.set(i, replayed);
+                } else {
+                    creating.add(request);
+                    positions.add(i);
+                }
+            }
+            if (creating.isEmpty()) {
+                return responses;
+            }
+            
+            // 验证文件
+            for (FileUploadRequest request : creating) {
+                validateFile(request);
+            }
+            
+            // 批量保存文件信息到数据库，内容已存在的文件秒传
+            List<FileInfo> fileInfos = new ArrayList<>(creating.size());
+            int instantCount = 0;
+            for (FileUploadRequest request : creating) {
+                FileInfo fileInfo = createInstantFileInfo(request);
+                if (fileInfo != null) {
+                    instantCount++;
+                } else {
+                    fileInfo = createFileInfo(request, objectKeyGenerator.generate(request.getFileName()));
+                }
+                fileInfos.add(fileInfo);
+            }
+            
+            // 延迟落库时待上传的文件只登记预留，秒传的文件照常插入
+            List<FileInfo> persisting = fileInfos;
+            if (pendingUploadRegistry.isEnabled()) {
+                persisting = new ArrayList<>(instantCount);
+                for (FileInfo fileInfo : fileInfos) {
+                    if (fileInfo.getUploadStatus() == 1) {
+                        persisting.add(fileInfo);
+                    } else {
+                        pendingUploadRegistry.reserve(fileInfo);
+                    }
+                }
+            }
+            // 新实体由persist原地分配ID，fileInfos中的对象即为保存后的实体
+            fileInfoRepository.saveAll(persisting);
+            fileNameIndexService.index(persisting);
+            fileStatisticsCounter.onCreated(persisting.size() - instantCount);
+            fileStatisticsCounter.onCreated(1, instantCount);
+            uploadMetrics.signed(fileInfos.size() - instantCount);
+            uploadMetrics.instant(instantCount);
+            fileInfoCache.putAll(persisting);
+            fileEventPublisher.created(persisting);
+            
+            // 生成签名，同一批次共用过期时间
+            long expireTime = System.currentTimeMillis() + ossConfig.getSignatureExpireTime() * 1000;
+            for (int i = 0; i < fileInfos.size(); i++) {
+                FileInfo fileInfo = fileInfos.get(i);
+                OssSignatureResponse response = fileInfo.getUploadStatus() == 1
+                        ? buildInstantResponse(fileInfo) : buildSignatureResponse(fileInfo, expireTime);
+                rememberIdempotentResponse(creating.get(i), response);
+                responses.set(positions.get(i), response);
+            }
+            return responses;
+            
+        } catch (Exception e) {
+            log.error("批量生成OSS签名失败", e);
+            throw new RuntimeException("批量生成OSS签名失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 受理文件上传回调：启用异步写入时入队后立即返回，否则同步处理；
+     * 延迟落库的预留需插入记录，不走批量UPDATE，始终同步处理
+     */
+    public void acceptUploadCallback(FileUploadCallbackRequest request) {
+        if (callbackWriteBehindQueue.isEnabled() && pendingUploadRegistry.get(request.getFileInfoId()) == null) {
+            callbackWriteBehindQueue.submit(request);
+        } else {
+            handleUploadCallback(request);
+        }
+    }
+    
     /**
      * 处理文件上传回调
      */
     @Transactional
     public void handleUploadCallback(FileUploadCallbackRequest request) {
         try {
-            FileInfo fileInfo = fileInfoRepository.findById(request.getFileInfoId())
+            long start = System.nanoTime();
+            
+            // 延迟落库的预留：以一条INSERT写入带最终状态的记录
+            FileInfo reserved = pendingUploadRegistry.take(request.getFileInfoId());
+            if (reserved != null) {
+                persistReservation(reserved, request);
+                uploadMetrics.recordCallback(start);
+                return;
+            }
+            
+            // 优先读取缓存，再以单条UPDATE写回，命中缓存时无需查询数据库
+            FileInfo cached = fileInfoCache.getById(request.getFileInfoId())
                     .orElseThrow(() -> new RuntimeException("文件信息不存在"));
+            FileInfo fileInfo = FileInfoCache.copyOf(cached);
             
             // 更新文件信息
+            Integer fromStatus = fileInfo.getUploadStatus();
+            fileStatisticsCounter.onStatusChanged(fromStatus, request.getUploadStatus());
             fileInfo.setUploadStatus(request.getUploadStatus());
             if (request.getActualFileSize() != null) {
                 fileInfo.setFileSize(request.getActualFileSize());
             }
             
-            if (request.getUploadStatus() == 1) {
-                // 上传成功，生成访问URL
-                String ossUrl = generateOssUrl(fileInfo.getOssKey());
-                fileInfo.setOssUrl(ossUrl);
+            fileInfo.setUpdateTime(LocalDateTime.now());
+            int updated = fileInfoRepository.updateUploadResult(fileInfo.getId(), fileInfo.getUploadStatus(),
+                    fileInfo.getFileSize(), fileInfo.getUpdateTime());
+            if (updated == 0) {
+                fileInfoCache.invalidate(fileInfo.getId());
+                throw new RuntimeException("文件信息不存在");
             }
+            fileInfoCache.put(fileInfo);
+            fileEventPublisher.statusChanged(fileInfo, fromStatus);
+            uploadMetrics.completed(request.getUploadStatus(), 1);
+            uploadMetrics.recordCallback(start);
             
-            fileInfoRepository.save(fileInfo);
-            
-            log.info("文件上传回调处理完成，文件ID: {}, 状态: {}", 
+            log.debug("文件上传回调处理完成，文件ID: {}, 状态: {}", 
                     request.getFileInfoId(), request.getUploadStatus());
                     
         } catch (Exception e) {
@@ -126,14 +280,178 @@ public class OssService {
         }
     }
     
+    /**
+     * 将待上传预留按回调结果写入数据库
+     */
+    private void persistReservation(FileInfo fileInfo, FileUploadCallbackRequest request) {
+        fileInfo.setUploadStatus(request.getUploadStatus());
+        if (request.getActualFileSize() != null) {
+            fileInfo.setFileSize(request.getActualFileSize());
+        }
+        fileInfo.setUpdateTime(LocalDateTime.now());
+        pendingUploadRegistry.persist(fileInfo);
+        fileNameIndexService.index(Collections.singletonList(fileInfo));
+        fileStatisticsCounter.onCreated(fileInfo.getUploadStatus(), 1);
+        fileInfoCache.put(fileInfo);
+        fileEventPublisher.created(Collections.singletonList(fileInfo));
+        uploadMetrics.completed(fileInfo.getUploadStatus(), 1);
+        
+        log.debug("待上传预留已落库，文件ID: {}, 状态: {}", fileInfo.getId(), fileInfo.getUploadStatus());
+    }
+    
+    /**
+     * 初始化分片上传
+     */
+    @Transactional
+    public MultipartUploadResponse initiateMultipartUpload(FileUploadRequest request) {
+        try {
+            // 验证文件
+            validateFile(request, ossConfig.getMultipart().getMaxFileSize());
+            
+            // 生成文件键并在存储后端初始化分片上传
+            String fileKey = objectKeyGenerator.generate(request.getFileName());
+            String uploadId = storageBackend.initiateMultipartUpload(fileKey);
+            
+            // 保存文件信息到数据库；分片数受OSS上限约束，必要时放大分片
+            FileInfo fileInfo = createFileInfo(request, fileKey);
+            // 幂等键仅用于表单直传签名
+            fileInfo.setIdempotencyKey(null);
+            fileInfo.setUploadId(uploadId);
+            fileInfo.setPartSize(Math.max(ossConfig.getMultipart().getPartSize(),
+                    (request.getFileSize() + MAX_PART_COUNT - 1) / MAX_PART_COUNT));
+            fileInfo = fileInfoRepository.save(fileInfo);
+            fileNameIndexService.index(Collections.singletonList(fileInfo));
+            fileStatisticsCounter.onCreated(1);
+            fileInfoCache.put(fileInfo);
+            fileEventPublisher.created(Collections.singletonList(fileInfo));
+            uploadMetrics.signed(1);
+            
+            log.info("初始化分片上传成功，文件ID: {}, uploadId: {}", fileInfo.getId(), fileInfo.getUploadId());
+            return buildMultipartResponse(fileInfo, null);
+            
+        } catch (Exception e) {
+            log.error("初始化分片上传失败", e);
+            throw new RuntimeException("初始化分片上传失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 查询分片上传进度（用于断点续传）
+     */
+    @Transactional(readOnly = true)
+    public MultipartUploadResponse getMultipartUpload(Long fileInfoId) {
+        FileInfo fileInfo = loadPendingMultipart(fileInfoId);
+        List<MultipartPartInfo> parts = new ArrayList<>();
+        for (FilePart part : filePartRepository.findByFileInfoIdOrderByPartNumber(fileInfoId)) {
+            parts.add(new MultipartPartInfo(part.getPartNumber(), part.getEtag(), part.getPartSize()));
+        }
+        return buildMultipartResponse(fileInfo, parts);
+    }
+    
+    /**
+     * 批量生成分片上传预签名URL
+     */
+    @Transactional(readOnly = true)
+    public List<MultipartPartUrl> generatePartUrls(Long fileInfoId, List<Integer> partNumbers) {
+        if (partNumbers.size() > ossConfig.getMultipart().getUrlBatchSize()) {
+            throw new RuntimeException("单次最多获取" + ossConfig.getMultipart().getUrlBatchSize() + "个分片上传地址");
+        }
+        
+        FileInfo fileInfo = loadPendingMultipart(fileInfoId);
+        int partCount = getPartCount(fileInfo);
+        Date expiration = new Date(System.currentTimeMillis() + ossConfig.getSignatureExpireTime() * 1000);
+        
+        List<MultipartPartUrl> urls = new ArrayList<>(partNumbers.size());
+        for (Integer partNumber : partNumbers) {
+            if (partNumber == null || partNumber < 1 || partNumber > partCount) {
+                throw new RuntimeException("分片序号不合法: " + partNumber);
+            }
+            urls.add(new MultipartPartUrl(partNumber, storageBackend.generatePartUploadUrl(
+                    fileInfo.getOssKey(), fileInfo.getUploadId(), partNumber, expiration)));
+        }
+        return urls;
+    }
+    
+    /**
+     * 记录已上传完成的分片
+     */
+    @Transactional
+    public void recordPart(Long fileInfoId, MultipartPartInfo partInfo) {
+        FileInfo fileInfo = loadPendingMultipart(fileInfoId);
+        if (partInfo.getPartNumber() > getPartCount(fileInfo)) {
+            throw new RuntimeException("分片序号不合法: " + partInfo.getPartNumber());
+        }
+        
+        // 重传的分片覆盖之前的记录
+        FilePart part = filePartRepository.findByFileInfoIdAndPartNumber(fileInfoId, partInfo.getPartNumber())
+                .orElseGet(FilePart::new);
+        part.setFileInfoId(fileInfoId);
+        part.setPartNumber(partInfo.getPartNumber());
+        part.setEtag(trimQuotes(partInfo.getEtag()));
+        part.setPartSize(partInfo.getSize());
+        filePartRepository.save(part);
+    }
+    
+    /**
+     * 完成分片上传：先在存储后端合并分片，再以短事务更新状态，远程调用期间不占用数据库连接
+     */
+    public FileInfo completeMultipartUpload(Long fileInfoId) {
+        try {
+            FileInfo fileInfo = loadPendingMultipart(fileInfoId);
+            List<FilePart> parts = filePartRepository.findByFileInfoIdOrderByPartNumber(fileInfoId);
+            int partCount = getPartCount(fileInfo);
+            if (parts.size() != partCount) {
+                throw new RuntimeException("分片未全部上传，已完成: " + parts.size() + "/" + partCount);
+            }
+            
+            SortedMap<Integer, String> partETags = new TreeMap<>();
+            for (FilePart part : parts) {
+                partETags.put(part.getPartNumber(), part.getEtag());
+            }
+            storageBackend.completeMultipartUpload(fileInfo.getOssKey(), fileInfo.getUploadId(), partETags);
+            
+            FileInfo completed = transactionTemplate.execute(status -> finishMultipartUpload(fileInfoId, 1));
+            log.info("分片上传完成，文件ID: {}, 分片数: {}", fileInfoId, partCount);
+            return downloadUrlService.withUrl(completed);
+            
+        } catch (Exception e) {
+            log.error("完成分片上传失败", e);
+            throw new RuntimeException("完成分片上传失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 取消分片上传：与完成分片上传相同，先调用存储后端再以短事务更新状态
+     */
+    public void abortMultipartUpload(Long fileInfoId) {
+        try {
+            FileInfo fileInfo = loadPendingMultipart(fileInfoId);
+            storageBackend.abortMultipartUpload(fileInfo.getOssKey(), fileInfo.getUploadId());
+            
+            transactionTemplate.execute(status -> finishMultipartUpload(fileInfoId, 2));
+            log.info("分片上传已取消，文件ID: {}", fileInfoId);
+            
+        } catch (Exception e) {
+            log.error("取消分片上传失败", e);
+            throw new RuntimeException("取消分片上传失败: " + e.getMessage());
+        }
+    }
+    
     /**
      * 验证文件
      */
     private void validateFile(FileUploadRequest request) {
+        validateFile(request, ossConfig.getMaxFileSize());
+    }
+    
+    /**
+     * 验证文件（指定大小上限）
+     */
+    private void validateFile(FileUploadRequest request, long maxFileSize) {
         // 验证文件大小
-        if (request.getFileSize() > ossConfig.getMaxFileSize()) {
+        if (request.getFileSize() > maxFileSize) {
             throw new RuntimeException("文件大小超过限制，最大允许: " + 
-                    (ossConfig.getMaxFileSize() / 1024 / 1024) + "MB");
+                    (maxFileSize / 1024 / 1024) + "MB");
         }
         
         // 验证文件类型
@@ -148,21 +466,195 @@ public class OssService {
     }
     
     /**
-     * 生成文件键
+     * 构建签名响应
+     */
+    private OssSignatureResponse buildSignatureResponse(FileInfo fileInfo, long expireTime) {
+        return buildSignatureResponse(fileInfo.getOssKey(), fileInfo.getId(), expireTime);
+    }
+    
+    private OssSignatureResponse buildSignatureResponse(String fileKey, Long fileInfoId, long expireTime) {
+        PostUploadPolicy uploadPolicy = storageBackend.signPostObject(fileKey, expireTime);
+        return OssSignatureResponse.builder()
+                .accessKeyId(uploadPolicy.getAccessKeyId())
+                .policy(uploadPolicy.getPolicy())
+                .signature(uploadPolicy.getSignature())
+                .host(uploadPolicy.getHost())
+                .key(fileKey)
+                .expire(expireTime / 1000)
+                .fileInfoId(fileInfoId)
+                .build();
+    }
+    
+    /**
+     * 查询幂等键对应的签名响应：优先读取内存，签名即将过期时重新签名；内存未命中时按唯一列从数据库恢复，
+     * 在线表未命中时再查归档表。重放前按文件当前状态校验：文件已删除时不再重放，已上传成功（含已归档）时按秒传返回。
+     * 未携带幂等键或首次请求时返回null
      */
-    private String generateFileKey(String originalFileName) {
-        // 按日期分目录
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy/MM/dd");
-        String datePath = sdf.format(new Date());
+    private OssSignatureResponse findIdempotentResponse(FileUploadRequest request) {
+        if (!StringUtils.hasText(request.getIdempotencyKey())) {
+            return null;
+        }
         
-        // 生成唯一文件名
-        String uuid = UUID.randomUUID().toString().replace("-", "");
-        String extension = "";
-        if (originalFileName.contains(".")) {
-            extension = originalFileName.substring(originalFileName.lastIndexOf("."));
+        OssSignatureResponse cached = signatureIdempotencyCache.get(request);
+        if (cached != null) {
+            FileInfo current = findCurrentFileInfo(cached.getFileInfoId());
+            if (current == null) {
+                signatureIdempotencyCache.invalidate(Collections.singletonList(request.getIdempotencyKey()));
+                cached = null;
+            } else if (current.getUploadStatus() == 1 && !Boolean.TRUE.equals(cached.getInstant())) {
+                OssSignatureResponse instant = buildInstantResponse(current);
+                signatureIdempotencyCache.put(request, instant);
+                return instant;
+            }
+        }
+        if (cached != null) {
+            long resignBefore = ossConfig.getIdempotency().getResignBeforeExpire();
+            if (Boolean.TRUE.equals(cached.getInstant())
+                    || cached.getExpire() - System.currentTimeMillis() / 1000 > resignBefore) {
+                return cached;
+            }
+            OssSignatureResponse resigned = buildSignatureResponse(cached.getKey(), cached.getFileInfoId(),
+                    System.currentTimeMillis() + ossConfig.getSignatureExpireTime() * 1000);
+            signatureIdempotencyCache.put(request, resigned);
+            return resigned;
         }
         
-        return "uploads/" + datePath + "/" + uuid + extension;
+        Optional<FileInfo> existing = fileInfoRepository.findByIdempotencyKey(request.getIdempotencyKey());
+        if (!existing.isPresent()) {
+            // 已归档的记录均为上传成功的文件
+            existing = fileArchiveService.findByIdempotencyKey(request.getIdempotencyKey());
+        }
+        if (!existing.isPresent()) {
+            return null;
+        }
+        FileInfo fileInfo = existing.get();
+        SignatureIdempotencyCache.checkSameRequest(request, fileInfo.getOriginalName(), fileInfo.getFileSize());
+        // 已上传成功的文件无需再次上传，按秒传返回
+        OssSignatureResponse response = fileInfo.getUploadStatus() == 1 ? buildInstantResponse(fileInfo)
+                : buildSignatureResponse(fileInfo, System.currentTimeMillis() + ossConfig.getSignatureExpireTime() * 1000);
+        signatureIdempotencyCache.put(request, response);
+        return response;
+    }
+    
+    /**
+     * 查询文件的当前状态：延迟落库的预留优先，其次读缓存，在线表未命中时查归档表；文件不存在时返回null
+     */
+    private FileInfo findCurrentFileInfo(Long fileInfoId) {
+        FileInfo reserved = pendingUploadRegistry.get(fileInfoId);
+        if (reserved != null) {
+            return reserved;
+        }
+        if (fileInfoId == null) {
+            return null;
+        }
+        Optional<FileInfo> fileInfo = fileInfoCache.getById(fileInfoId);
+        return fileInfo.isPresent() ? fileInfo.get() : fileArchiveService.findById(fileInfoId).orElse(null);
+    }
+    
+    /**
+     * 记录携带幂等键的请求的签名响应（事务提交后生效）
+     */
+    private void rememberIdempotentResponse(FileUploadRequest request, OssSignatureResponse response) {
+        if (StringUtils.hasText(request.getIdempotencyKey())) {
+            signatureIdempotencyCache.put(request, response);
+        }
+    }
+    
+    /**
+     * 构建秒传响应
+     */
+    private OssSignatureResponse buildInstantResponse(FileInfo fileInfo) {
+        return OssSignatureResponse.builder()
+                .key(fileInfo.getOssKey())
+                .fileInfoId(fileInfo.getId())
+                .instant(true)
+                .build();
+    }
+    
+    /**
+     * 内容哈希与已校验的对象一致时，创建引用该对象、状态为上传成功的文件信息；否则返回null
+     */
+    private FileInfo createInstantFileInfo(FileUploadRequest request) {
+        if (!ossConfig.getInstantUpload().isEnabled() || !StringUtils.hasText(request.getContentHash())) {
+            return null;
+        }
+        Optional<FileObject> fileObject = fileObjectService.acquire(
+                request.getContentHash().toLowerCase(Locale.ROOT), request.getFileSize());
+        if (!fileObject.isPresent()) {
+            return null;
+        }
+        
+        FileInfo fileInfo = createFileInfo(request, fileObject.get().getOssKey());
+        fileInfo.setUploadStatus(1);
+        return fileInfo;
+    }
+    
+    /**
+     * 加载进行中的分片上传
+     */
+    private FileInfo loadPendingMultipart(Long fileInfoId) {
+        FileInfo fileInfo = fileInfoRepository.findById(fileInfoId)
+                .orElseThrow(() -> new RuntimeException("文件信息不存在"));
+        if (fileInfo.getUploadId() == null) {
+            throw new RuntimeException("该文件不是分片上传");
+        }
+        if (fileInfo.getUploadStatus() != 0) {
+            throw new RuntimeException("分片上传已结束");
+        }
+        return fileInfo;
+    }
+    
+    /**
+     * 结束分片上传（需在事务内调用）：仅当记录仍为待上传时更新状态，并发的完成与取消只有一个生效
+     */
+    private FileInfo finishMultipartUpload(Long fileInfoId, int uploadStatus) {
+        int updated = fileInfoRepository.updatePendingStatusByIds(
+                Collections.singletonList(fileInfoId), uploadStatus, LocalDateTime.now());
+        if (updated == 0) {
+            throw new RuntimeException("分片上传已结束");
+        }
+        filePartRepository.deleteByFileInfoIds(Collections.singletonList(fileInfoId));
+        FileInfo fileInfo = fileInfoRepository.findById(fileInfoId)
+                .orElseThrow(() -> new RuntimeException("文件信息不存在"));
+        fileStatisticsCounter.onStatusChanged(0, uploadStatus);
+        fileInfoCache.put(fileInfo);
+        fileEventPublisher.statusChanged(fileInfo, 0);
+        uploadMetrics.completed(uploadStatus, 1);
+        return fileInfo;
+    }
+    
+    /**
+     * 计算分片总数
+     */
+    private int getPartCount(FileInfo fileInfo) {
+        return (int) Math.max(1, (fileInfo.getFileSize() + fileInfo.getPartSize() - 1) / fileInfo.getPartSize());
+    }
+    
+    /**
+     * 构建分片上传响应
+     */
+    private MultipartUploadResponse buildMultipartResponse(FileInfo fileInfo, List<MultipartPartInfo> parts) {
+        return MultipartUploadResponse.builder()
+                .fileInfoId(fileInfo.getId())
+                .key(fileInfo.getOssKey())
+                .uploadId(fileInfo.getUploadId())
+                .partSize(fileInfo.getPartSize())
+                .partCount(getPartCount(fileInfo))
+                .concurrency(ossConfig.getMultipart().getConcurrency())
+                .urlBatchSize(ossConfig.getMultipart().getUrlBatchSize())
+                .parts(parts)
+                .build();
+    }
+    
+    /**
+     * 去除ETag两端的引号（浏览器读取的响应头带引号）
+     */
+    private String trimQuotes(String etag) {
+        String trimmed = etag.trim();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            return trimmed.substring(1, trimmed.length() - 1);
+        }
+        return trimmed;
     }
     
     /**
@@ -176,15 +668,13 @@ public class OssService {
         fileInfo.setContentType(request.getContentType());
         fileInfo.setFileExtension(request.getFileExtension());
         fileInfo.setRemark(request.getRemark());
+        if (StringUtils.hasText(request.getContentHash())) {
+            fileInfo.setContentHash(request.getContentHash().toLowerCase(Locale.ROOT));
+        }
+        if (StringUtils.hasText(request.getIdempotencyKey())) {
+            fileInfo.setIdempotencyKey(request.getIdempotencyKey());
+        }
         fileInfo.setUploadStatus(0); // 待上传
         return fileInfo;
     }
-    
-    /**
-     * 生成OSS访问URL
-     */
-    private String generateOssUrl(String ossKey) {
-        return ossConfig.getEndpoint().replace("https://", "https://" + ossConfig.getBucketName() + ".") 
-                + "/" + ossKey;
-    }
-}
\ No newline at end of file
+}
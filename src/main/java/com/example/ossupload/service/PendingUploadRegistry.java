@@ -0,0 +1,145 @@
+package com.example.ossupload.service;
+
+import com.example.ossupload.config.OssConfig;
+import com.example.ossupload.entity.FileInfo;
+import com.example.ossupload.util.TransactionCallbacks;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 待上传预留登记（延迟落库模式，oss.reservation.enabled=true）
+ * <p>
+ * 获取签名时不写入文件信息，只从 file_info_seq 序列预分配ID（pooled优化器，每allocationSize个ID访问一次数据库），
+ * 预留保存在按写入时间过期的内存登记中（Caffeine，内部分段）；上传回调到达时以一条INSERT写入带最终状态的记录。
+ * 过期（签名有效期加宽限期）或超出容量的预留直接丢弃，不访问数据库；待上传数量由登记数补足统计。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PendingUploadRegistry {
+
+    private static final String INSERT_FILE_INFO_SQL = "INSERT INTO file_info (id, original_name, oss_key, file_size, "
+            + "content_hash, content_type, file_extension, upload_status, create_time, update_time, remark, "
+            + "idempotency_key) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final OssConfig ossConfig;
+    private final JdbcTemplate jdbcTemplate;
+    private final FileEventPublisher fileEventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Cache<Long, FileInfo> reservations;
+
+    @PostConstruct
+    public void init() {
+        OssConfig.Reservation config = ossConfig.getReservation();
+        long ttlSeconds = ossConfig.getSignatureExpireTime() + config.getGracePeriod();
+        reservations = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .scheduler(Scheduler.systemScheduler())
+                .removalListener((Long id, FileInfo fileInfo, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        fileEventPublisher.pendingChanged(-1);
+                        log.debug("待上传预留已丢弃，文件ID: {}, 原因: {}", id, cause);
+                    }
+                })
+                .build();
+        Gauge.builder("upload.reservations", this, PendingUploadRegistry::getPendingCount).register(meterRegistry);
+    }
+
+    /**
+     * 是否启用延迟落库
+     */
+    public boolean isEnabled() {
+        return ossConfig.getReservation().isEnabled();
+    }
+
+    /**
+     * 登记待上传预留：分配ID和创建时间，事务提交后生效
+     */
+    public void reserve(FileInfo fileInfo) {
+        fileInfo.setId(nextId(fileInfo));
+        fileInfo.setCreateTime(LocalDateTime.now());
+        FileInfo snapshot = FileInfoCache.copyOf(fileInfo);
+        TransactionCallbacks.afterCommit(() -> reservations.put(snapshot.getId(), snapshot));
+        fileEventPublisher.pendingChanged(1);
+    }
+
+    /**
+     * 查询预留（只读快照）
+     */
+    public FileInfo get(Long id) {
+        return id == null ? null : reservations.getIfPresent(id);
+    }
+
+    /**
+     * 取出预留用于落库，事务回滚时放回；不存在或已过期时返回null
+     */
+    public FileInfo take(Long id) {
+        FileInfo fileInfo = id == null ? null : reservations.asMap().remove(id);
+        if (fileInfo == null) {
+            return null;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        reservations.asMap().putIfAbsent(id, fileInfo);
+                    }
+                }
+            });
+        }
+        fileEventPublisher.pendingChanged(-1);
+        return FileInfoCache.copyOf(fileInfo);
+    }
+
+    /**
+     * 以一条INSERT写入带最终状态的文件信息（需在事务内调用）
+     */
+    public void persist(FileInfo fileInfo) {
+        jdbcTemplate.update(INSERT_FILE_INFO_SQL, fileInfo.getId(), fileInfo.getOriginalName(), fileInfo.getOssKey(),
+                fileInfo.getFileSize(), fileInfo.getContentHash(), fileInfo.getContentType(),
+                fileInfo.getFileExtension(), fileInfo.getUploadStatus(), fileInfo.getCreateTime(),
+                fileInfo.getUpdateTime(), fileInfo.getRemark(), fileInfo.getIdempotencyKey());
+    }
+
+    /**
+     * 当前待上传预留数
+     */
+    public long getPendingCount() {
+        reservations.cleanUp();
+        return reservations.estimatedSize();
+    }
+
+    /**
+     * 使用实体的ID生成器分配ID，与正常插入的记录共用序列
+     */
+    private Long nextId(FileInfo fileInfo) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        Serializable id = session.getEntityPersister(FileInfo.class.getName(), fileInfo)
+                .getIdentifierGenerator().generate(session, fileInfo);
+        return (Long) id;
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.ossupload.service;
+
+import com.example.ossupload.config.OssConfig;
+import com.example.ossupload.repository.FileInfoRepository;
+import com.example.ossupload.storage.StorageBackend;
+import com.example.ossupload.storage.StorageObject;
+import com.example.ossupload.util.TokenBucket;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 待上传记录清理任务
+ * <p>
+ * 获取签名时即插入待上传记录，若浏览器未完成上传或回调丢失，记录会一直停留在待上传状态。
+ * 定时按 (upload_status, create_time) 索引查出创建时间早于签名有效期的待上传记录，
+ * 限速并发检查存储对象：对象存在则补记为上传成功，不存在则标记为上传失败或直接删除记录。
+ * 更新或删除前在事务内以 FOR UPDATE 重新确认记录仍为待上传，检查期间到达的回调结果不会被覆盖。
+ * 分片上传记录由客户端续传或取消，不在清理范围内。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PendingUploadSweeper {
+
+    private static final String UPDATE_FILE_SIZE_SQL = "UPDATE file_info SET file_size = ? WHERE id = ?";
+
+    private final OssConfig ossConfig;
+    private final FileInfoRepository fileInfoRepository;
+    private final StorageBackend storageBackend;
+    private final FileStatisticsCounter fileStatisticsCounter;
+    private final FileDeleteService fileDeleteService;
+    private final FileInfoCache fileInfoCache;
+    private final UploadMetrics uploadMetrics;
+    private final FileEventPublisher fileEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    private ExecutorService headExecutor;
+    private TokenBucket headRateLimiter;
+
+    @PostConstruct
+    public void start() {
+        OssConfig.Sweeper config = ossConfig.getSweeper();
+        AtomicInteger threadIndex = new AtomicInteger();
+        headExecutor = Executors.newFixedThreadPool(Math.max(1, config.getParallelism()),
+                r -> new Thread(r, "pending-sweeper-" + threadIndex.incrementAndGet()));
+        headRateLimiter = new TokenBucket(Math.max(1, (long) config.getHeadRateLimit()), config.getHeadRateLimit());
+    }
+
+    @PreDestroy
+    public void stop() {
+        headExecutor.shutdownNow();
+    }
+
+    /**
+     * 定时清理
+     */
+    @Scheduled(fixedDelayString = "${oss.sweeper.interval:600000}",
+               initialDelayString = "${oss.sweeper.interval:600000}")
+    public void scheduledSweep() {
+        if (!ossConfig.getSweeper().isEnabled()) {
+            return;
+        }
+        try {
+            sweep();
+        } catch (Exception e) {
+            log.error("清理待上传记录失败", e);
+        }
+    }
+
+    /**
+     * 执行一次清理，返回处理的记录数
+     */
+    public int sweep() {
+        OssConfig.Sweeper config = ossConfig.getSweeper();
+        LocalDateTime expireBefore = LocalDateTime.now().minusSeconds(ossConfig.getSignatureExpireTime());
+
+        int processed = 0;
+        for (int i = 0; i < config.getMaxBatchesPerRun(); i++) {
+            List<Object[]> candidates = fileInfoRepository.findStalePending(
+                    expireBefore, PageRequest.of(0, config.getBatchSize()));
+            if (candidates.isEmpty()) {
+                break;
+            }
+            int resolved = sweepBatch(candidates);
+            processed += resolved;
+            // 整批检查失败（如存储不可用）时停止，等待下次调度
+            if (resolved == 0 || candidates.size() < config.getBatchSize()) {
+                break;
+            }
+        }
+
+        if (processed > 0) {
+            log.info("清理待上传记录完成，处理数量: {}", processed);
+        }
+        return processed;
+    }
+
+    /**
+     * 并发检查一批记录的存储对象，并按结果批量更新
+     */
+    private int sweepBatch(List<Object[]> candidates) {
+        List<CompletableFuture<StorageObject>> futures = new ArrayList<>(candidates.size());
+        for (Object[] row : candidates) {
+            String key = (String) row[1];
+            futures.add(CompletableFuture.supplyAsync(() -> headObject(key), headExecutor));
+        }
+
+        List<Long> uploadedIds = new ArrayList<>();
+        Map<Long, Long> objectSizes = new HashMap<>();
+        List<Long> abandonedIds = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            Long id = (Long) candidates.get(i)[0];
+            try {
+                StorageObject object = futures.get(i).join();
+                if (object != null) {
+                    uploadedIds.add(id);
+                    objectSizes.put(id, object.getSize());
+                } else {
+                    abandonedIds.add(id);
+                }
+            } catch (Exception e) {
+                log.warn("检查存储对象失败，文件ID: {}", id, e);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        boolean purge = "purge".equalsIgnoreCase(ossConfig.getSweeper().getAbandonedAction());
+        int updated = transactionTemplate.execute(status -> {
+            int rows = 0;
+            // 检查存储对象期间回调可能已到达：锁定仍为待上传的记录，只更新这些记录
+            List<Long> promotedIds = lockPending(uploadedIds);
+            if (!promotedIds.isEmpty()) {
+                int promoted = fileInfoRepository.updatePendingStatusByIds(promotedIds, 1, now);
+                List<Object[]> fileSizeArgs = new ArrayList<>(promotedIds.size());
+                for (Long id : promotedIds) {
+                    fileSizeArgs.add(new Object[]{objectSizes.get(id), id});
+                }
+                jdbcTemplate.batchUpdate(UPDATE_FILE_SIZE_SQL, fileSizeArgs);
+                fileStatisticsCounter.onStatusChanged(0, 1, promoted);
+                fileInfoCache.invalidate(promotedIds);
+                fileEventPublisher.statusChanged(promotedIds, 0, 1, promoted);
+                uploadMetrics.completed(1, promoted);
+                rows += promoted;
+            }
+            List<Long> failedIds = purge ? Collections.emptyList() : lockPending(abandonedIds);
+            if (!failedIds.isEmpty()) {
+                int failed = fileInfoRepository.updatePendingStatusByIds(failedIds, 2, now);
+                fileStatisticsCounter.onStatusChanged(0, 2, failed);
+                fileInfoCache.invalidate(failedIds);
+                fileEventPublisher.statusChanged(failedIds, 0, 2, failed);
+                uploadMetrics.abandoned(failed);
+                rows += failed;
+            }
+            return rows;
+        });
+        if (!abandonedIds.isEmpty() && purge) {
+            int purged = fileDeleteService.deletePending(abandonedIds);
+            uploadMetrics.abandoned(purged);
+            updated += purged;
+        }
+
+        log.debug("清理待上传记录批次完成，补记成功: {}, 已放弃: {}", uploadedIds.size(), abandonedIds.size());
+        return updated;
+    }
+
+    /**
+     * 锁定仍处于待上传状态的记录（需在事务内调用）
+     */
+    private List<Long> lockPending(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        return jdbcTemplate.queryForList("SELECT id FROM file_info WHERE id IN (" + placeholders
+                + ") AND upload_status = 0 FOR UPDATE", Long.class, ids.toArray());
+    }
+
+    /**
+     * 限速检查存储对象
+     */
+    private StorageObject headObject(String key) {
+        try {
+            headRateLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("清理任务被中断", e);
+        }
+        return storageBackend.headObject(key);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.ossupload.service;
+
+import com.example.ossupload.config.OssConfig;
+import com.example.ossupload.util.TokenBucket;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 签名接口准入控制
+ * <p>
+ * 先按客户端（已登记的API Key请求头，否则为客户端IP）做令牌桶限流，再以全局信号量限制同时进行的签名数，
+ * 超限时抛出 {@link RejectedException}，由控制器立即返回429及Retry-After。
+ * 每个客户端的令牌桶为无锁实现，存放在按访问时间过期的Caffeine缓存中（内部分段，无全局锁）。
+ * 使用方式：{@code acquire} 成功后必须在finally中调用 {@code release}。
+ */
+@Component
+@RequiredArgsConstructor
+public class SignatureAdmission {
+
+    private final OssConfig ossConfig;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<String, TokenBucket> buckets;
+    private Semaphore signingPermits;
+    private Counter rateLimitedCounter;
+    private Counter overloadedCounter;
+
+    @PostConstruct
+    public void init() {
+        OssConfig.RateLimit config = ossConfig.getRateLimit();
+        buckets = Caffeine.newBuilder()
+                .maximumSize(config.getMaxClients())
+                .expireAfterAccess(config.getClientIdleTimeout(), TimeUnit.MILLISECONDS)
+                .build();
+        signingPermits = new Semaphore(config.getMaxConcurrentSignings());
+        rateLimitedCounter = Counter.builder("upload.admission.rejected")
+                .tag("reason", "rate_limit")
+                .register(meterRegistry);
+        overloadedCounter = Counter.builder("upload.admission.rejected")
+                .tag("reason", "concurrency")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 申请签名许可
+     *
+     * @param request 当前请求，用于识别客户端
+     * @param permits 消耗的令牌数（批量签名按文件数）
+     */
+    public void acquire(HttpServletRequest request, int permits) {
+        OssConfig.RateLimit config = ossConfig.getRateLimit();
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        TokenBucket bucket = buckets.get(resolveClientId(request, config),
+                key -> new TokenBucket(config.getBurst(), config.getRequestsPerSecond()));
+        if (!bucket.tryAcquire(permits)) {
+            rateLimitedCounter.increment();
+            throw new RejectedException("请求过于频繁，请稍后重试", toRetryAfterSeconds(bucket.nanosUntilAvailable(permits)));
+        }
+
+        boolean acquired;
+        try {
+            acquired = signingPermits.tryAcquire(config.getAcquireTimeout(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            overloadedCounter.increment();
+            throw new RejectedException("服务繁忙，请稍后重试", 1);
+        }
+    }
+
+    /**
+     * 释放签名许可
+     */
+    public void release() {
+        if (ossConfig.getRateLimit().isEnabled()) {
+            signingPermits.release();
+        }
+    }
+
+    /**
+     * 只有已登记的API Key才作为客户端标识，未登记或伪造的请求头按客户端IP限流
+     */
+    static String resolveClientId(HttpServletRequest request, OssConfig.RateLimit config) {
+        String apiKey = request.getHeader(config.getClientIdHeader());
+        if (StringUtils.hasText(apiKey) && config.getApiKeys().contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static long toRetryAfterSeconds(long nanos) {
+        return Math.max(1L, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * 准入被拒绝
+     */
+    @Getter
+    public static class RejectedException extends RuntimeException {
+
+        /**
+         * 建议的重试等待时间（秒）
+         */
+        private final long retryAfterSeconds;
+
+        public RejectedException(String message, long retryAfterSeconds) {
+            super(message);
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.ossupload.service;
+
+import com.example.ossupload.config.OssConfig;
+import com.example.ossupload.dto.FileUploadRequest;
+import com.example.ossupload.dto.OssSignatureResponse;
+import com.example.ossupload.util.TransactionCallbacks;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 签名请求幂等缓存
+ * <p>
+ * 以幂等键缓存首次请求的签名响应（有界、写入后过期），重试请求命中时直接返回，不访问数据库；
+ * 缓存未命中时由调用方按 file_info.idempotency_key 唯一列恢复。响应在事务提交后才写入缓存，
+ * 文件记录删除时对应的幂等键随之失效。
+ */
+@Component
+@RequiredArgsConstructor
+public class SignatureIdempotencyCache {
+
+    private final OssConfig ossConfig;
+
+    private Cache<String, Entry> responses;
+
+    @PostConstruct
+    public void init() {
+        OssConfig.Idempotency config = ossConfig.getIdempotency();
+        responses = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getExpireAfterWrite(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * 查询幂等键对应的签名响应，未命中返回null
+     *
+     * @throws RuntimeException 幂等键已被文件名或大小不同的请求使用
+     */
+    public OssSignatureResponse get(FileUploadRequest request) {
+        Entry entry = responses.getIfPresent(request.getIdempotencyKey());
+        if (entry == null) {
+            return null;
+        }
+        checkSameRequest(request, entry.fileName, entry.fileSize);
+        return entry.response;
+    }
+
+    /**
+     * 记录签名响应，在事务内调用时于提交后生效
+     */
+    public void put(FileUploadRequest request, OssSignatureResponse response) {
+        Entry entry = new Entry(request.getFileName(), request.getFileSize(), response);
+        String key = request.getIdempotencyKey();
+        TransactionCallbacks.afterCommit(() -> responses.put(key, entry));
+    }
+
+    /**
+     * 使幂等键失效，在事务内调用时立即失效并在提交后再次失效
+     */
+    public void invalidate(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        responses.invalidateAll(keys);
+        TransactionCallbacks.afterCommit(() -> responses.invalidateAll(keys));
+    }
+
+    /**
+     * 校验重试请求与首次请求的文件名和大小一致
+     */
+    public static void checkSameRequest(FileUploadRequest request, String fileName, Long fileSize) {
+        if (!Objects.equals(request.getFileName(), fileName) || !Objects.equals(request.getFileSize(), fileSize)) {
+            throw new RuntimeException("幂等键已被其他文件使用: " + request.getIdempotencyKey());
+        }
+    }
+
+    /**
+     * 首次请求的文件名、大小及签名响应
+     */
+    private static class Entry {
+
+        private final String fileName;
+        private final Long fileSize;
+        private final OssSignatureResponse response;
+
+        private Entry(String fileName, Long fileSize, OssSignatureResponse response) {
+            this.fileName = fileName;
+            this.fileSize = fileSize;
+            this.response = response;
+        }
+    }
+}
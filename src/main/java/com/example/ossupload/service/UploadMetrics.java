@@ -0,0 +1,106 @@
+package com.example.ossupload.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 上传链路指标
+ * <p>
+ * 计时器与计数器在启动时按固定标签创建，请求路径上只做 System.nanoTime() 与原子累加，不拼接标签或字符串。
+ * 上传漏斗：signed（已签发）-> succeeded（上传成功）/ failed（上传失败）/ abandoned（超时未上传），
+ * instant（秒传）单独计数，不计入signed和succeeded。
+ */
+@Component
+public class UploadMetrics {
+    
+    private final Timer signatureTimer;
+    private final Timer validatePhaseTimer;
+    private final Timer insertPhaseTimer;
+    private final Timer signPhaseTimer;
+    private final Timer callbackTimer;
+    
+    private final Counter signedCounter;
+    private final Counter succeededCounter;
+    private final Counter failedCounter;
+    private final Counter abandonedCounter;
+    private final Counter instantCounter;
+    
+    public UploadMetrics(MeterRegistry registry) {
+        signatureTimer = timer(registry, "upload.signature", "total");
+        validatePhaseTimer = timer(registry, "upload.signature", "validate");
+        insertPhaseTimer = timer(registry, "upload.signature", "insert");
+        signPhaseTimer = timer(registry, "upload.signature", "sign");
+        callbackTimer = timer(registry, "upload.callback", "total");
+        
+        signedCounter = funnelCounter(registry, "signed");
+        succeededCounter = funnelCounter(registry, "succeeded");
+        failedCounter = funnelCounter(registry, "failed");
+        abandonedCounter = funnelCounter(registry, "abandoned");
+        instantCounter = funnelCounter(registry, "instant");
+    }
+    
+    /**
+     * 记录一次签名的各阶段耗时（纳秒时间点，取自 System.nanoTime()）
+     *
+     * @param start        开始
+     * @param validated    校验完成
+     * @param inserted     写库完成
+     * @param signed       签名完成
+     */
+    public void recordSignature(long start, long validated, long inserted, long signed) {
+        validatePhaseTimer.record(validated - start, TimeUnit.NANOSECONDS);
+        insertPhaseTimer.record(inserted - validated, TimeUnit.NANOSECONDS);
+        signPhaseTimer.record(signed - inserted, TimeUnit.NANOSECONDS);
+        signatureTimer.record(signed - start, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * 记录一次回调处理耗时
+     */
+    public void recordCallback(long startNanos) {
+        callbackTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    public void signed(long count) {
+        signedCounter.increment(count);
+    }
+    
+    /**
+     * 按回调上传状态计数：1-成功，2-失败
+     */
+    public void completed(Integer uploadStatus, long count) {
+        if (uploadStatus == null) {
+            return;
+        }
+        if (uploadStatus == 1) {
+            succeededCounter.increment(count);
+        } else if (uploadStatus == 2) {
+            failedCounter.increment(count);
+        }
+    }
+    
+    public void abandoned(long count) {
+        abandonedCounter.increment(count);
+    }
+    
+    public void instant(long count) {
+        instantCounter.increment(count);
+    }
+    
+    private static Timer timer(MeterRegistry registry, String name, String phase) {
+        return Timer.builder(name)
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+    
+    private static Counter funnelCounter(MeterRegistry registry, String stage) {
+        return Counter.builder("upload.funnel")
+                .tag("stage", stage)
+                .register(registry);
+    }
+}
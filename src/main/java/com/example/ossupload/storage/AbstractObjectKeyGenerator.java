@@ -0,0 +1,77 @@
+package com.example.ossupload.storage;
+
+import com.example.ossupload.config.OssConfig;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * 对象键生成策略基类：缓存当天的日期路径（yyyy/MM/dd），跨天时才重新计算
+ */
+public abstract class AbstractObjectKeyGenerator implements ObjectKeyGenerator {
+    
+    private final ZoneId zoneId = ZoneId.systemDefault();
+    
+    protected final String prefix;
+    
+    private volatile DatePath datePath;
+    
+    protected AbstractObjectKeyGenerator(OssConfig ossConfig) {
+        this.prefix = ossConfig.getKey().getPrefix();
+    }
+    
+    /**
+     * 当前日期路径
+     */
+    protected String currentDatePath() {
+        long now = System.currentTimeMillis();
+        DatePath cached = datePath;
+        if (cached == null || now < cached.validFrom || now >= cached.validUntil) {
+            cached = computeDatePath();
+            datePath = cached;
+        }
+        return cached.path;
+    }
+    
+    /**
+     * 提取扩展名（含“.”），无扩展名时返回空字符串
+     */
+    protected static String extensionOf(String originalFileName) {
+        int index = originalFileName.lastIndexOf('.');
+        return index >= 0 ? originalFileName.substring(index) : "";
+    }
+    
+    private DatePath computeDatePath() {
+        LocalDate today = LocalDate.now(zoneId);
+        StringBuilder path = new StringBuilder(10)
+                .append(today.getYear()).append('/');
+        appendTwoDigits(path, today.getMonthValue()).append('/');
+        appendTwoDigits(path, today.getDayOfMonth());
+        return new DatePath(path.toString(),
+                today.atStartOfDay(zoneId).toInstant().toEpochMilli(),
+                today.plusDays(1).atStartOfDay(zoneId).toInstant().toEpochMilli());
+    }
+    
+    private static StringBuilder appendTwoDigits(StringBuilder builder, int value) {
+        if (value < 10) {
+            builder.append('0');
+        }
+        return builder.append(value);
+    }
+    
+    /**
+     * 日期路径及其有效时间范围
+     */
+    private static final class DatePath {
+        
+        private final String path;
+        private final long validFrom;
+        private final long validUntil;
+        
+        private DatePath(String path, long validFrom, long validUntil) {
+            this.path = path;
+            this.validFrom = validFrom;
+            this.validUntil = validUntil;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.ossupload.storage;
+
+import com.example.ossupload.config.OssConfig;
+import com.example.ossupload.util.CompactIdGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 按日期分目录的对象键：{prefix}yyyy/MM/dd/{紧凑ID}{扩展名}
+ * <p>
+ * 与早期的键格式一致，同一天的键落在连续区间内，写入量大时可能形成OSS分区热点。
+ */
+@Component
+@ConditionalOnProperty(prefix = "oss.key", name = "strategy", havingValue = "date")
+public class DatePathKeyGenerator extends AbstractObjectKeyGenerator {
+    
+    public DatePathKeyGenerator(OssConfig ossConfig) {
+        super(ossConfig);
+    }
+    
+    @Override
+    public String generate(String originalFileName) {
+        String datePath = currentDatePath();
+        String extension = extensionOf(originalFileName);
+        return new StringBuilder(prefix.length() + datePath.length() + CompactIdGenerator.LENGTH
+                + extension.length() + 1)
+                .append(prefix).append(datePath).append('/')
+                .append(CompactIdGenerator.nextId()).append(extension)
+                .toString();
+    }
+}
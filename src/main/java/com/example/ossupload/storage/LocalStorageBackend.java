@@ -0,0 +1,430 @@
+package com.example.ossupload.storage;
+
+import com.example.ossupload.config.OssConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriUtils;
+
+import javax.annotation.PostConstruct;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 本地磁盘存储后端
+ * <p>
+ * 接收与OSS相同的PostObject表单上传，使用FileChannel.transferFrom写入磁盘，
+ * 读取时使用transferTo（或由Tomcat sendfile直接发送），不在堆内缓冲文件内容。
+ * 分片上传与OSS语义一致：分片通过签名的PUT地址写入根目录下的 .upload-multipart/{uploadId}，
+ * 完成时按序号校验ETag（分片内容MD5）后拼接为对象。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "oss.storage", name = "type", havingValue = "local")
+public class LocalStorageBackend implements StorageBackend {
+    
+    /**
+     * 上传过程中的临时文件前缀，列举时忽略
+     */
+    private static final String TEMP_FILE_PREFIX = ".upload-";
+    
+    /**
+     * 分片上传目录，列举时忽略
+     */
+    private static final String MULTIPART_DIR = ".upload-multipart";
+    
+    /**
+     * 分片上传目录中记录对象键的文件
+     */
+    private static final String MULTIPART_KEY_FILE = "key";
+    
+    private static final Pattern UPLOAD_ID_PATTERN = Pattern.compile("[0-9a-f]{8}(-[0-9a-f]{4}){3}-[0-9a-f]{12}");
+    
+    private final OssConfig ossConfig;
+    private final PostPolicySigner postPolicySigner;
+    private final ObjectMapper objectMapper;
+    
+    private Path rootDir;
+    private Path multipartDir;
+    
+    @PostConstruct
+    public void init() throws IOException {
+        rootDir = Paths.get(ossConfig.getStorage().getLocalRoot()).toAbsolutePath().normalize();
+        multipartDir = rootDir.resolve(MULTIPART_DIR);
+        Files.createDirectories(multipartDir);
+        log.info("使用本地磁盘存储，根目录: {}", rootDir);
+    }
+    
+    @Override
+    public PostUploadPolicy signPostObject(String key, long expireTimeMillis) {
+        PostPolicySigner.SignedPolicy signedPolicy = postPolicySigner.sign(key, expireTimeMillis);
+        return new PostUploadPolicy(ossConfig.getStorage().getLocalBaseUrl(), ossConfig.getAccessKeyId(),
+                signedPolicy.getPolicy(), signedPolicy.getSignature());
+    }
+    
+    @Override
+    public String getObjectUrlPrefix() {
+        return ossConfig.getStorage().getLocalBaseUrl() + "/";
+    }
+    
+    @Override
+    public List<StorageObject> listObjects(String prefix, String startAfter, int maxKeys) {
+        try (Stream<Path> paths = Files.walk(rootDir)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> !path.startsWith(multipartDir))
+                    .filter(path -> !path.getFileName().toString().startsWith(TEMP_FILE_PREFIX))
+                    .map(this::toKey)
+                    .filter(key -> prefix == null || key.startsWith(prefix))
+                    .filter(key -> startAfter == null || key.compareTo(startAfter) > 0)
+                    .sorted()
+                    .limit(maxKeys)
+                    .map(this::headObject)
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new RuntimeException("列举对象失败: " + e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public StorageObject headObject(String key) {
+        Path path = resolve(key);
+        try {
+            if (!Files.isRegularFile(path)) {
+                return null;
+            }
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return new StorageObject(key, attributes.size(), new Date(attributes.lastModifiedTime().toMillis()));
+        } catch (IOException e) {
+            throw new RuntimeException("读取对象元数据失败: " + key, e);
+        }
+    }
+    
+    @Override
+    public void deleteObject(String key) {
+        try {
+            Files.deleteIfExists(resolve(key));
+        } catch (IOException e) {
+            throw new RuntimeException("删除对象失败: " + key, e);
+        }
+    }
+    
+    @Override
+    public List<String> deleteObjects(List<String> keys) {
+        List<String> failed = new ArrayList<>();
+        for (String key : keys) {
+            try {
+                deleteObject(key);
+            } catch (RuntimeException e) {
+                log.warn("删除对象失败: {}", key, e);
+                failed.add(key);
+            }
+        }
+        return failed;
+    }
+    
+    @Override
+    public long transferObject(String key, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+            return size;
+        }
+    }
+    
+    @Override
+    public String initiateMultipartUpload(String key) {
+        resolve(key);
+        String uploadId = UUID.randomUUID().toString();
+        Path uploadDir = multipartDir.resolve(uploadId);
+        try {
+            Files.createDirectories(uploadDir);
+            Files.write(uploadDir.resolve(MULTIPART_KEY_FILE), key.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException("初始化分片上传失败: " + key, e);
+        }
+        return uploadId;
+    }
+    
+    @Override
+    public String generatePartUploadUrl(String key, String uploadId, int partNumber, Date expiration) {
+        long expires = expiration.getTime() / 1000;
+        String signature = postPolicySigner.calculateSignature(partStringToSign(key, uploadId, partNumber, expires));
+        return getObjectUrl(UriUtils.encodePath(key, StandardCharsets.UTF_8))
+                + "?uploadId=" + uploadId + "&partNumber=" + partNumber + "&expires=" + expires
+                + "&signature=" + UriUtils.encode(signature, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * 校验分片上传地址的签名并写入分片，返回分片ETag（内容MD5的十六进制大写）
+     *
+     * @param body 分片内容
+     * @param size 分片大小（字节）
+     */
+    public String storePart(String key, String uploadId, int partNumber, long expires, String signature,
+                            InputStream body, long size) throws IOException {
+        String expected = postPolicySigner.calculateSignature(partStringToSign(key, uploadId, partNumber, expires));
+        if (signature == null || !MessageDigest.isEqual(
+                expected.getBytes(StandardCharsets.UTF_8), signature.getBytes(StandardCharsets.UTF_8))) {
+            throw new SecurityException("签名校验失败");
+        }
+        if (Instant.now().getEpochSecond() > expires) {
+            throw new SecurityException("上传地址已过期");
+        }
+        Path uploadDir = resolveUpload(key, uploadId);
+        
+        MessageDigest md5 = newMd5();
+        try (DigestInputStream in = new DigestInputStream(body, md5)) {
+            writeFile(uploadDir.resolve(partNumber + ".part"), Channels.newChannel(in), size);
+        }
+        String etag = toHex(md5.digest());
+        Files.write(uploadDir.resolve(partNumber + ".etag"), etag.getBytes(StandardCharsets.UTF_8));
+        return etag;
+    }
+    
+    @Override
+    public void completeMultipartUpload(String key, String uploadId, SortedMap<Integer, String> partETags) {
+        try {
+            Path uploadDir = resolveUpload(key, uploadId);
+            for (Map.Entry<Integer, String> entry : partETags.entrySet()) {
+                Path etagFile = uploadDir.resolve(entry.getKey() + ".etag");
+                if (!Files.isRegularFile(etagFile) || !new String(Files.readAllBytes(etagFile),
+                        StandardCharsets.UTF_8).equalsIgnoreCase(entry.getValue())) {
+                    throw new IllegalStateException("分片ETag不匹配: " + entry.getKey());
+                }
+            }
+            
+            // 拼接到目标目录的临时文件后原子替换
+            Path target = resolve(key);
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), TEMP_FILE_PREFIX, ".tmp");
+            try {
+                try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    for (Integer partNumber : partETags.keySet()) {
+                        try (FileChannel in = FileChannel.open(uploadDir.resolve(partNumber + ".part"),
+                                StandardOpenOption.READ)) {
+                            long size = in.size();
+                            long position = 0;
+                            while (position < size) {
+                                position += in.transferTo(position, size - position, out);
+                            }
+                        }
+                    }
+                }
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            deleteRecursively(uploadDir);
+        } catch (IOException e) {
+            throw new RuntimeException("完成分片上传失败: " + key, e);
+        }
+    }
+    
+    @Override
+    public void abortMultipartUpload(String key, String uploadId) {
+        try {
+            deleteRecursively(resolveUpload(key, uploadId));
+        } catch (IOException e) {
+            throw new RuntimeException("取消分片上传失败: " + key, e);
+        }
+    }
+    
+    /**
+     * 获取对象在磁盘上的路径，对象不存在时返回null
+     */
+    public Path getObjectPath(String key) {
+        Path path = resolve(key);
+        return Files.isRegularFile(path) ? path : null;
+    }
+    
+    /**
+     * 校验PostObject表单并写入对象
+     * <p>
+     * 文件内容边读边写入同目录临时文件（完成后原子替换，避免读到写了一半的对象）；
+     * 大小事先未知，超出上传凭证上限时立即中止，写完后再校验下限。
+     *
+     * @param body 文件内容
+     */
+    public void storePostObject(String key, String policy, String signature,
+                                ReadableByteChannel body) throws IOException {
+        long[] sizeRange = verifyPostPolicy(key, policy, signature);
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), TEMP_FILE_PREFIX, ".tmp");
+        try {
+            long size = 0;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                long transferred;
+                // 多读1字节以识别超出上限
+                while (size <= sizeRange[1]
+                        && (transferred = channel.transferFrom(body, size, sizeRange[1] + 1 - size)) > 0) {
+                    size += transferred;
+                }
+            }
+            if (size < sizeRange[0] || size > sizeRange[1]) {
+                throw new SecurityException("文件大小超出上传凭证限制");
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    /**
+     * 校验Policy签名、过期时间及对象键
+     *
+     * @return 允许的文件大小范围 {最小值, 最大值}
+     */
+    private long[] verifyPostPolicy(String key, String policy, String signature) throws IOException {
+        String expected = postPolicySigner.calculateSignature(policy);
+        if (signature == null || !MessageDigest.isEqual(
+                expected.getBytes(StandardCharsets.UTF_8), signature.getBytes(StandardCharsets.UTF_8))) {
+            throw new SecurityException("签名校验失败");
+        }
+        
+        JsonNode root = objectMapper.readTree(Base64.getDecoder().decode(policy));
+        if (Instant.now().isAfter(Instant.parse(root.path("expiration").asText()))) {
+            throw new SecurityException("上传凭证已过期");
+        }
+        
+        long[] sizeRange = {0L, Long.MAX_VALUE - 1};
+        boolean keyMatched = false;
+        for (JsonNode condition : root.path("conditions")) {
+            if (!condition.isArray()) {
+                continue;
+            }
+            String operator = condition.path(0).asText();
+            if ("content-length-range".equals(operator)) {
+                sizeRange[0] = condition.path(1).asLong();
+                sizeRange[1] = Math.min(condition.path(2).asLong(), Long.MAX_VALUE - 1);
+            } else if ("eq".equals(operator) && "$key".equals(condition.path(1).asText())) {
+                keyMatched = key.equals(condition.path(2).asText());
+            }
+        }
+        if (!keyMatched) {
+            throw new SecurityException("对象键与上传凭证不匹配");
+        }
+        return sizeRange;
+    }
+    
+    /**
+     * 经同目录临时文件写入目标文件
+     */
+    private void writeFile(Path target, ReadableByteChannel source, long size) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), TEMP_FILE_PREFIX, ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                long position = 0;
+                while (position < size) {
+                    long transferred = channel.transferFrom(source, position, size - position);
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    position += transferred;
+                }
+                if (position != size) {
+                    throw new IOException("上传内容不完整，期望: " + size + "，实际: " + position);
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    /**
+     * 对象键转换为磁盘路径，拒绝越出根目录或指向分片上传目录的键
+     */
+    private Path resolve(String key) {
+        Path path = rootDir.resolve(key).normalize();
+        if (!path.startsWith(rootDir) || path.equals(rootDir) || path.startsWith(multipartDir)) {
+            throw new IllegalArgumentException("非法的对象键: " + key);
+        }
+        return path;
+    }
+    
+    /**
+     * 分片上传目录，uploadId不存在或与对象键不匹配时抛出异常
+     */
+    private Path resolveUpload(String key, String uploadId) throws IOException {
+        if (uploadId == null || !UPLOAD_ID_PATTERN.matcher(uploadId).matches()) {
+            throw new IllegalArgumentException("非法的uploadId: " + uploadId);
+        }
+        Path uploadDir = multipartDir.resolve(uploadId);
+        Path keyFile = uploadDir.resolve(MULTIPART_KEY_FILE);
+        if (!Files.isRegularFile(keyFile)
+                || !key.equals(new String(Files.readAllBytes(keyFile), StandardCharsets.UTF_8))) {
+            throw new IllegalStateException("分片上传不存在: " + uploadId);
+        }
+        return uploadDir;
+    }
+    
+    private static String partStringToSign(String key, String uploadId, int partNumber, long expires) {
+        return "PUT\n" + key + "\n" + uploadId + "\n" + partNumber + "\n" + expires;
+    }
+    
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+    
+    private static MessageDigest newMd5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString().toUpperCase();
+    }
+    
+    /**
+     * 磁盘路径转换为对象键
+     */
+    private String toKey(Path path) {
+        return rootDir.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+}
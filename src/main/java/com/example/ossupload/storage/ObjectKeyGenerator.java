@@ -0,0 +1,16 @@
+package com.example.ossupload.storage;
+
+/**
+ * 对象键生成策略
+ * <p>
+ * 通过配置 oss.key.strategy 选择实现：sharded（哈希分片前缀，默认）或 date（按日期分目录）。
+ */
+public interface ObjectKeyGenerator {
+    
+    /**
+     * 为新上传的文件生成对象键
+     *
+     * @param originalFileName 原始文件名，用于保留扩展名
+     */
+    String generate(String originalFileName);
+}
@@ -0,0 +1,170 @@
+package com.example.ossupload.storage;
+
+import com.aliyun.oss.HttpMethod;
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.OSSErrorCode;
+import com.aliyun.oss.OSSException;
+import com.aliyun.oss.model.AbortMultipartUploadRequest;
+import com.aliyun.oss.model.CompleteMultipartUploadRequest;
+import com.aliyun.oss.model.DeleteObjectsRequest;
+import com.aliyun.oss.model.GeneratePresignedUrlRequest;
+import com.aliyun.oss.model.InitiateMultipartUploadRequest;
+import com.aliyun.oss.model.ListObjectsV2Request;
+import com.aliyun.oss.model.OSSObject;
+import com.aliyun.oss.model.OSSObjectSummary;
+import com.aliyun.oss.model.PartETag;
+import com.aliyun.oss.model.SimplifiedObjectMeta;
+import com.example.ossupload.config.OssConfig;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * 阿里云OSS存储后端
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "oss.storage", name = "type", havingValue = "oss", matchIfMissing = true)
+public class OssStorageBackend implements StorageBackend {
+    
+    /**
+     * DeleteObjects单次最多删除的对象数
+     */
+    private static final int MAX_DELETE_KEYS = 1000;
+    
+    private final OssConfig ossConfig;
+    private final OSS ossClient;
+    private final PostPolicySigner postPolicySigner;
+    
+    @Override
+    public PostUploadPolicy signPostObject(String key, long expireTimeMillis) {
+        PostPolicySigner.SignedPolicy signedPolicy = postPolicySigner.sign(key, expireTimeMillis);
+        return new PostUploadPolicy(ossConfig.getBucketHost(), ossConfig.getAccessKeyId(),
+                signedPolicy.getPolicy(), signedPolicy.getSignature());
+    }
+    
+    @Override
+    public String getObjectUrlPrefix() {
+        return ossConfig.getBucketHost() + "/";
+    }
+    
+    @Override
+    public String generateDownloadUrl(String key, Date expiration) {
+        // 仅在本地计算签名，不发起网络请求
+        return ossClient.generatePresignedUrl(ossConfig.getBucketName(), key, expiration, HttpMethod.GET).toString();
+    }
+    
+    @Override
+    public List<StorageObject> listObjects(String prefix, String startAfter, int maxKeys) {
+        ListObjectsV2Request request = new ListObjectsV2Request(ossConfig.getBucketName());
+        request.setPrefix(prefix);
+        request.setStartAfter(startAfter);
+        request.setMaxKeys(maxKeys);
+        
+        List<StorageObject> objects = new ArrayList<>();
+        for (OSSObjectSummary summary : ossClient.listObjectsV2(request).getObjectSummaries()) {
+            objects.add(new StorageObject(summary.getKey(), summary.getSize(), summary.getLastModified()));
+        }
+        return objects;
+    }
+    
+    @Override
+    public StorageObject headObject(String key) {
+        // 单次HEAD请求，对象不存在时OSS返回NoSuchKey
+        try {
+            SimplifiedObjectMeta meta = ossClient.getSimplifiedObjectMeta(ossConfig.getBucketName(), key);
+            return new StorageObject(key, meta.getSize(), meta.getLastModified());
+        } catch (OSSException e) {
+            if (OSSErrorCode.NO_SUCH_KEY.equals(e.getErrorCode())) {
+                return null;
+            }
+            throw e;
+        }
+    }
+    
+    @Override
+    public void deleteObject(String key) {
+        ossClient.deleteObject(ossConfig.getBucketName(), key);
+    }
+    
+    @Override
+    public List<String> deleteObjects(List<String> keys) {
+        List<String> failed = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i += MAX_DELETE_KEYS) {
+            List<String> batch = keys.subList(i, Math.min(i + MAX_DELETE_KEYS, keys.size()));
+            // 非静默模式下响应列出删除成功的键，未列出的键视为失败
+            DeleteObjectsRequest request = new DeleteObjectsRequest(ossConfig.getBucketName()).withKeys(batch);
+            request.setQuiet(false);
+            Set<String> deleted = new HashSet<>(ossClient.deleteObjects(request).getDeletedObjects());
+            for (String key : batch) {
+                if (!deleted.contains(key)) {
+                    failed.add(key);
+                }
+            }
+        }
+        return failed;
+    }
+    
+    @Override
+    public long transferObject(String key, WritableByteChannel target) throws IOException {
+        OSSObject ossObject = ossClient.getObject(ossConfig.getBucketName(), key);
+        try (InputStream in = ossObject.getObjectContent();
+             ReadableByteChannel source = Channels.newChannel(in)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+            long total = 0;
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    total += target.write(buffer);
+                }
+                buffer.clear();
+            }
+            return total;
+        }
+    }
+    
+    @Override
+    public String initiateMultipartUpload(String key) {
+        return ossClient.initiateMultipartUpload(
+                new InitiateMultipartUploadRequest(ossConfig.getBucketName(), key)).getUploadId();
+    }
+    
+    @Override
+    public String generatePartUploadUrl(String key, String uploadId, int partNumber, Date expiration) {
+        GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest(
+                ossConfig.getBucketName(), key, HttpMethod.PUT);
+        request.setExpiration(expiration);
+        request.addQueryParameter("partNumber", String.valueOf(partNumber));
+        request.addQueryParameter("uploadId", uploadId);
+        return ossClient.generatePresignedUrl(request).toString();
+    }
+    
+    @Override
+    public void completeMultipartUpload(String key, String uploadId, SortedMap<Integer, String> partETags) {
+        List<PartETag> parts = new ArrayList<>(partETags.size());
+        for (Map.Entry<Integer, String> entry : partETags.entrySet()) {
+            parts.add(new PartETag(entry.getKey(), entry.getValue()));
+        }
+        ossClient.completeMultipartUpload(
+                new CompleteMultipartUploadRequest(ossConfig.getBucketName(), key, uploadId, parts));
+    }
+    
+    @Override
+    public void abortMultipartUpload(String key, String uploadId) {
+        ossClient.abortMultipartUpload(new AbortMultipartUploadRequest(ossConfig.getBucketName(), key, uploadId));
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.ossupload.storage;
+
+import com.example.ossupload.config.OssConfig;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+
+/**
+ * PostObject签名器
+ * <p>
+ * 与 OSSClient#generatePostPolicy / OSSClient#calculatePostSignature 输出逐字节一致，
+ * 但无需为每次签名创建OSS客户端（连接池及空闲回收线程）。线程安全：每个线程持有独立的Mac实例。
+ */
+@Component
+@RequiredArgsConstructor
+public class PostPolicySigner {
+
+    private static final String HMAC_SHA1 = "HmacSHA1";
+
+    /**
+     * 与SDK DateUtil.formatIso8601Date 相同的格式（UTC，毫秒精度）
+     */
+    private static final DateTimeFormatter ISO8601_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+
+    private final OssConfig ossConfig;
+
+    /**
+     * Policy中expiration之后、key取值之前的固定部分
+     */
+    private String conditionsPrefix;
+
+    private ThreadLocal<Mac> macHolder;
+
+    @PostConstruct
+    public void init() {
+        conditionsPrefix = "\",\"conditions\":[[\"content-length-range\",0," + ossConfig.getMaxFileSize()
+                + "],[\"eq\",\"$key\",\"";
+        SecretKeySpec keySpec = new SecretKeySpec(
+                ossConfig.getAccessKeySecret().getBytes(StandardCharsets.UTF_8), HMAC_SHA1);
+        macHolder = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(HMAC_SHA1);
+                mac.init(keySpec);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("初始化HmacSHA1失败", e);
+            }
+        });
+    }
+
+    /**
+     * 生成PostObject的Policy原文
+     */
+    public String generatePostPolicy(String fileKey, long expireTimeMillis) {
+        String expiration = ISO8601_FORMATTER.format(Instant.ofEpochMilli(expireTimeMillis));
+        return new StringBuilder(conditionsPrefix.length() + fileKey.length() + 48)
+                .append("{\"expiration\":\"").append(expiration)
+                .append(conditionsPrefix).append(fileKey)
+                .append("\"]]}")
+                .toString();
+    }
+
+    /**
+     * 生成Base64编码的Policy及其签名
+     */
+    public SignedPolicy sign(String fileKey, long expireTimeMillis) {
+        String postPolicy = generatePostPolicy(fileKey, expireTimeMillis);
+        String encodedPolicy = Base64.getEncoder().encodeToString(postPolicy.getBytes(StandardCharsets.UTF_8));
+        return new SignedPolicy(encodedPolicy, calculateSignature(encodedPolicy));
+    }
+
+    /**
+     * 对Base64编码后的Policy计算HmacSHA1签名
+     */
+    public String calculateSignature(String encodedPolicy) {
+        Mac mac = macHolder.get();
+        byte[] digest = mac.doFinal(encodedPolicy.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(digest);
+    }
+
+    /**
+     * 签名结果
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class SignedPolicy {
+
+        /**
+         * Base64编码的Policy
+         */
+        private final String policy;
+
+        /**
+         * Policy签名
+         */
+        private final String signature;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.ossupload.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * PostObject直传凭证
+ */
+@Getter
+@AllArgsConstructor
+public class PostUploadPolicy {
+    
+    /**
+     * 上传地址
+     */
+    private final String host;
+    
+    /**
+     * 访问密钥ID
+     */
+    private final String accessKeyId;
+    
+    /**
+     * Base64编码的Policy
+     */
+    private final String policy;
+    
+    /**
+     * Policy签名
+     */
+    private final String signature;
+}
@@ -0,0 +1,55 @@
+package com.example.ossupload.storage;
+
+import com.example.ossupload.config.OssConfig;
+import com.example.ossupload.util.CompactIdGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 带哈希分片前缀的对象键：{prefix}{分片}/yyyy/MM/dd/{紧凑ID}{扩展名}
+ * <p>
+ * 分片取ID哈希值的低位（十六进制，长度由 oss.key.shard-prefix-length 配置），
+ * 使同一时段的写入均匀分散到多个键区间，避免按字典序分区时的热点。
+ */
+@Component
+@ConditionalOnProperty(prefix = "oss.key", name = "strategy", havingValue = "sharded", matchIfMissing = true)
+public class ShardedKeyGenerator extends AbstractObjectKeyGenerator {
+    
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    
+    private final int shardPrefixLength;
+    
+    public ShardedKeyGenerator(OssConfig ossConfig) {
+        super(ossConfig);
+        this.shardPrefixLength = ossConfig.getKey().getShardPrefixLength();
+        if (shardPrefixLength < 1 || shardPrefixLength > 4) {
+            throw new IllegalArgumentException("分片前缀长度必须在1到4之间");
+        }
+    }
+    
+    @Override
+    public String generate(String originalFileName) {
+        String id = CompactIdGenerator.nextId();
+        String datePath = currentDatePath();
+        String extension = extensionOf(originalFileName);
+        
+        StringBuilder key = new StringBuilder(prefix.length() + shardPrefixLength + datePath.length()
+                + id.length() + extension.length() + 2)
+                .append(prefix);
+        appendShard(key, id);
+        return key.append('/').append(datePath).append('/')
+                .append(id).append(extension)
+                .toString();
+    }
+    
+    /**
+     * 追加分片前缀：对ID哈希再做一次混淆，避免时间戳部分影响低位分布
+     */
+    private void appendShard(StringBuilder key, String id) {
+        int hash = id.hashCode() * 0x9E3779B9;
+        hash ^= hash >>> 16;
+        for (int i = shardPrefixLength - 1; i >= 0; i--) {
+            key.append(HEX_DIGITS[(hash >>> (i * 4)) & 0xF]);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.ossupload.storage;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.Date;
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * 对象存储后端
+ * <p>
+ * 通过配置 oss.storage.type 选择实现：oss（阿里云OSS，默认）或 local（本地磁盘）。
+ */
+public interface StorageBackend {
+    
+    /**
+     * 生成PostObject直传凭证
+     *
+     * @param key              对象键
+     * @param expireTimeMillis 过期时间（毫秒时间戳）
+     */
+    PostUploadPolicy signPostObject(String key, long expireTimeMillis);
+    
+    /**
+     * 对象访问URL前缀，getObjectUrl(key) 等于该前缀加对象键
+     */
+    String getObjectUrlPrefix();
+    
+    /**
+     * 生成对象访问URL
+     */
+    default String getObjectUrl(String key) {
+        return getObjectUrlPrefix() + key;
+    }
+    
+    /**
+     * 生成对象下载地址（私有存储桶为预签名GET地址），默认返回公共访问URL
+     *
+     * @param expiration 过期时间
+     */
+    default String generateDownloadUrl(String key, Date expiration) {
+        return getObjectUrl(key);
+    }
+    
+    /**
+     * 按前缀列举对象，结果按对象键升序
+     *
+     * @param prefix     对象键前缀
+     * @param startAfter 从该对象键之后开始列举，可为空
+     * @param maxKeys    最多返回数量
+     */
+    List<StorageObject> listObjects(String prefix, String startAfter, int maxKeys);
+    
+    /**
+     * 查询对象元数据，对象不存在时返回null
+     */
+    StorageObject headObject(String key);
+    
+    /**
+     * 删除对象
+     */
+    void deleteObject(String key);
+    
+    /**
+     * 批量删除对象
+     *
+     * @return 删除失败的键，全部删除成功时返回空列表
+     */
+    List<String> deleteObjects(List<String> keys);
+    
+    /**
+     * 将对象内容写入目标通道
+     *
+     * @return 写入的字节数
+     */
+    long transferObject(String key, WritableByteChannel target) throws IOException;
+    
+    /**
+     * 初始化分片上传，返回uploadId
+     */
+    String initiateMultipartUpload(String key);
+    
+    /**
+     * 生成分片上传的预签名PUT地址
+     */
+    String generatePartUploadUrl(String key, String uploadId, int partNumber, Date expiration);
+    
+    /**
+     * 完成分片上传
+     *
+     * @param partETags 分片序号到ETag的映射
+     */
+    void completeMultipartUpload(String key, String uploadId, SortedMap<Integer, String> partETags);
+    
+    /**
+     * 取消分片上传
+     */
+    void abortMultipartUpload(String key, String uploadId);
+}
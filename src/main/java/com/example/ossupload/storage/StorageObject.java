@@ -0,0 +1,31 @@
+package com.example.ossupload.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * 存储对象元数据
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StorageObject {
+    
+    /**
+     * 对象键
+     */
+    private String key;
+    
+    /**
+     * 对象大小（字节）
+     */
+    private long size;
+    
+    /**
+     * 最后修改时间
+     */
+    private Date lastModified;
+}
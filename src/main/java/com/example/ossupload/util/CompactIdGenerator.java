@@ -0,0 +1,103 @@
+package com.example.ossupload.util;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * 按时间有序的紧凑ID生成器
+ * <p>
+ * 格式与ULID一致：48位毫秒时间戳 + 80位随机数，以Crockford Base32（小写）编码为26个字符，
+ * 同一毫秒内的ID之间无序。ID作为对象键对外可见，随机数取自每个线程独立的 {@link SecureRandom}
+ *（SHA1PRNG，创建时从共享的系统 SecureRandom 取种子，之后不再共享 /dev/urandom 上的锁），不可预测且无锁竞争；
+ * 生成过程只分配一个字符数组和结果字符串。
+ */
+public final class CompactIdGenerator {
+    
+    /**
+     * ID长度
+     */
+    public static final int LENGTH = 26;
+    
+    private static final char[] ALPHABET = "0123456789abcdefghjkmnpqrstvwxyz".toCharArray();
+    
+    private static final long LOW_40_BITS = (1L << 40) - 1;
+    
+    /**
+     * 随机部分的字节数（80位）
+     */
+    private static final int RANDOM_BYTES = 10;
+    
+    /**
+     * 为各线程的随机数源提供种子（每个线程只取一次）
+     */
+    private static final SecureRandom SEED_SOURCE = new SecureRandom();
+    
+    private static final ThreadLocal<RandomSource> RANDOM = ThreadLocal.withInitial(RandomSource::new);
+    
+    private CompactIdGenerator() {
+    }
+    
+    /**
+     * 生成新ID
+     */
+    public static String nextId() {
+        byte[] bytes = RANDOM.get().next();
+        long high = ((bytes[0] & 0xFFL) << 8) | (bytes[1] & 0xFFL);
+        long low = 0;
+        for (int i = 2; i < RANDOM_BYTES; i++) {
+            low = (low << 8) | (bytes[i] & 0xFFL);
+        }
+        return encode(System.currentTimeMillis(), high, low);
+    }
+    
+    /**
+     * 编码：时间戳占前10个字符，随机数高16位与低64位共80位占后16个字符
+     */
+    static String encode(long timestamp, long randomHigh, long randomLow) {
+        char[] chars = new char[LENGTH];
+        long time = timestamp;
+        for (int i = 9; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (time & 31)];
+            time >>>= 5;
+        }
+        long high = ((randomHigh & 0xFFFFL) << 24) | (randomLow >>> 40);
+        for (int i = 17; i >= 10; i--) {
+            chars[i] = ALPHABET[(int) (high & 31)];
+            high >>>= 5;
+        }
+        long low = randomLow & LOW_40_BITS;
+        for (int i = 25; i >= 18; i--) {
+            chars[i] = ALPHABET[(int) (low & 31)];
+            low >>>= 5;
+        }
+        return new String(chars);
+    }
+    
+    /**
+     * 线程独立的随机数源，复用字节缓冲区
+     */
+    private static final class RandomSource {
+        
+        private final SecureRandom random = newSecureRandom();
+        private final byte[] bytes = new byte[RANDOM_BYTES];
+        
+        byte[] next() {
+            random.nextBytes(bytes);
+            return bytes;
+        }
+        
+        private static SecureRandom newSecureRandom() {
+            SecureRandom random;
+            try {
+                random = SecureRandom.getInstance("SHA1PRNG");
+            } catch (NoSuchAlgorithmException e) {
+                return new SecureRandom();
+            }
+            // 首次使用前设置种子，取代SHA1PRNG读取阻塞熵源的自播种
+            byte[] seed = new byte[32];
+            SEED_SOURCE.nextBytes(seed);
+            random.setSeed(seed);
+            return random;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.ossupload.util;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 文件名三元组（trigram）分词工具
+ * <p>
+ * 文件名统一转小写后按连续3个字符切分，用于替代 LIKE '%name%' 的子串检索。
+ * 由于转小写，索引命中结果是大小写敏感匹配结果的超集，查询时仍需用原条件复核。
+ */
+public final class FileNameTokenizer {
+    
+    /**
+     * 分词长度
+     */
+    public static final int GRAM_LENGTH = 3;
+    
+    private FileNameTokenizer() {
+    }
+    
+    /**
+     * 切分为去重的三元组，长度不足时返回空集合
+     */
+    public static Set<String> tokenize(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        if (text == null || text.length() < GRAM_LENGTH) {
+            return grams;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+    
+    /**
+     * 检索词是否可以使用三元组索引
+     */
+    public static boolean isIndexable(String text) {
+        return text != null && text.length() >= GRAM_LENGTH;
+    }
+}
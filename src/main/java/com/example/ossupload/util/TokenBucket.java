@@ -0,0 +1,96 @@
+package com.example.ossupload.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 令牌桶限流器（无锁）
+ * <p>
+ * 按GCRA（通用信元速率算法）实现，与令牌桶等价：只维护一个“理论到达时间”，
+ * 每次获取令牌将其推后一个发放间隔，超出桶容量对应的时间窗即拒绝。状态为单个AtomicLong，以CAS更新，
+ * 令牌在获取时惰性补充，无后台线程。
+ * 超过桶容量的批量在桶满时放行并按全部数量扣减（透支），之后的请求需等到透支部分补回。
+ */
+public class TokenBucket {
+
+    /**
+     * 发放一个令牌的间隔（纳秒）
+     */
+    private final long emissionIntervalNanos;
+
+    /**
+     * 允许的突发时间窗（桶容量 × 发放间隔）
+     */
+    private final long burstToleranceNanos;
+
+    /**
+     * 理论到达时间（System.nanoTime() 时基）
+     */
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param capacity        桶容量（最大突发量）
+     * @param refillPerSecond 每秒补充的令牌数
+     */
+    public TokenBucket(long capacity, double refillPerSecond) {
+        if (capacity <= 0 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("令牌桶容量和补充速率必须大于0");
+        }
+        this.emissionIntervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * capacity;
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * 尝试获取一个令牌，不等待
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(1);
+    }
+
+    /**
+     * 尝试获取指定数量的令牌，不等待；超过桶容量时要求桶已满，并按全部数量扣减
+     */
+    public boolean tryAcquire(int permits) {
+        long cost = permits * emissionIntervalNanos;
+        long required = Math.min(cost, burstToleranceNanos);
+        while (true) {
+            long now = System.nanoTime();
+            long arrival = theoreticalArrival.get();
+            long start = arrival - now < 0 ? now : arrival;
+            if (start + required - now > burstToleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, start + cost)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 距离下一个令牌可用还需等待的纳秒数，令牌可用时返回0
+     */
+    public long nanosUntilAvailable() {
+        return nanosUntilAvailable(1);
+    }
+
+    /**
+     * 距离指定数量的令牌可用还需等待的纳秒数，令牌可用时返回0
+     */
+    public long nanosUntilAvailable(int permits) {
+        long now = System.nanoTime();
+        long arrival = theoreticalArrival.get();
+        long required = Math.min(permits * emissionIntervalNanos, burstToleranceNanos);
+        long next = (arrival - now < 0 ? now : arrival) + required;
+        return Math.max(0L, next - now - burstToleranceNanos);
+    }
+
+    /**
+     * 获取一个令牌，必要时阻塞等待
+     */
+    public void acquire() throws InterruptedException {
+        while (!tryAcquire()) {
+            TimeUnit.NANOSECONDS.sleep(Math.max(nanosUntilAvailable(), 1));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+-- 初始表结构（与实体映射一致，durable profile 下 Hibernate 以 validate 校验）
+
+CREATE SEQUENCE file_info_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE file_part_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE file_object_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE file_info (
+    id              BIGINT       NOT NULL,
+    original_name   VARCHAR(255) NOT NULL,
+    oss_key         VARCHAR(255) NOT NULL,
+    file_size       BIGINT,
+    content_hash    VARCHAR(64),
+    content_type    VARCHAR(255),
+    file_extension  VARCHAR(255),
+    upload_status   INTEGER,
+    upload_id       VARCHAR(64),
+    part_size       BIGINT,
+    create_time     TIMESTAMP,
+    update_time     TIMESTAMP,
+    remark          VARCHAR(255),
+    idempotency_key VARCHAR(64),
+    CONSTRAINT pk_file_info PRIMARY KEY (id),
+    CONSTRAINT uk_file_info_idempotency_key UNIQUE (idempotency_key)
+);
+
+-- 默认列表排序（按创建时间）与游标分页
+CREATE INDEX idx_file_info_create_time_id ON file_info (create_time, id);
+-- 按状态过滤的列表、按状态排序、待上传记录清理及按状态计数
+CREATE INDEX idx_file_info_status_create_time ON file_info (upload_status, create_time, id);
+-- 按文件大小、文件名排序
+CREATE INDEX idx_file_info_file_size_id ON file_info (file_size, id);
+CREATE INDEX idx_file_info_original_name_id ON file_info (original_name, id);
+-- 按OSS键查询、秒传查找
+CREATE INDEX idx_file_info_oss_key ON file_info (oss_key);
+CREATE INDEX idx_file_info_content_hash ON file_info (content_hash);
+
+CREATE TABLE file_part (
+    id           BIGINT      NOT NULL,
+    file_info_id BIGINT      NOT NULL,
+    part_number  INTEGER     NOT NULL,
+    etag         VARCHAR(64) NOT NULL,
+    part_size    BIGINT,
+    create_time  TIMESTAMP,
+    CONSTRAINT pk_file_part PRIMARY KEY (id),
+    CONSTRAINT uk_file_part UNIQUE (file_info_id, part_number)
+);
+
+CREATE TABLE file_name_gram (
+    gram         VARCHAR(3) NOT NULL,
+    file_info_id BIGINT     NOT NULL,
+    CONSTRAINT pk_file_name_gram PRIMARY KEY (gram, file_info_id)
+);
+
+CREATE INDEX idx_file_name_gram_file_info_id ON file_name_gram (file_info_id);
+
+CREATE TABLE file_object (
+    id           BIGINT       NOT NULL,
+    content_hash VARCHAR(64)  NOT NULL,
+    file_size    BIGINT       NOT NULL,
+    oss_key      VARCHAR(255) NOT NULL,
+    ref_count    BIGINT       NOT NULL,
+    create_time  TIMESTAMP,
+    CONSTRAINT pk_file_object PRIMARY KEY (id),
+    CONSTRAINT uk_file_object_content_hash UNIQUE (content_hash),
+    CONSTRAINT uk_file_object_oss_key UNIQUE (oss_key)
+);
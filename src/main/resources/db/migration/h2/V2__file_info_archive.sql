@@ -0,0 +1,25 @@
+-- 归档表：上传成功且超过保留期的记录由归档任务从 file_info 迁入，列与 file_info 一致，另记归档时间
+
+CREATE TABLE file_info_archive (
+    id              BIGINT       NOT NULL,
+    original_name   VARCHAR(255) NOT NULL,
+    oss_key         VARCHAR(255) NOT NULL,
+    file_size       BIGINT,
+    content_hash    VARCHAR(64),
+    content_type    VARCHAR(255),
+    file_extension  VARCHAR(255),
+    upload_status   INTEGER,
+    upload_id       VARCHAR(64),
+    part_size       BIGINT,
+    create_time     TIMESTAMP,
+    update_time     TIMESTAMP,
+    remark          VARCHAR(255),
+    idempotency_key VARCHAR(64),
+    archive_time    TIMESTAMP,
+    CONSTRAINT pk_file_info_archive PRIMARY KEY (id)
+);
+
+-- 合并列表的默认排序（按创建时间）
+CREATE INDEX idx_file_info_archive_create_time_id ON file_info_archive (create_time, id);
+-- 按OSS键查询、对象引用计数
+CREATE INDEX idx_file_info_archive_oss_key ON file_info_archive (oss_key);
@@ -0,0 +1,14 @@
+-- 列表排序字段（游标分页的排序值）不允许为空
+
+UPDATE file_info SET file_size = 0 WHERE file_size IS NULL;
+UPDATE file_info SET upload_status = 0 WHERE upload_status IS NULL;
+UPDATE file_info SET create_time = COALESCE(update_time, CURRENT_TIMESTAMP) WHERE create_time IS NULL;
+ALTER TABLE file_info ALTER COLUMN file_size SET NOT NULL;
+ALTER TABLE file_info ALTER COLUMN upload_status SET NOT NULL;
+ALTER TABLE file_info ALTER COLUMN create_time SET NOT NULL;
+
+UPDATE file_info_archive SET file_size = 0 WHERE file_size IS NULL;
+UPDATE file_info_archive SET create_time = COALESCE(update_time, archive_time) WHERE create_time IS NULL;
+ALTER TABLE file_info_archive ALTER COLUMN file_size SET NOT NULL;
+ALTER TABLE file_info_archive ALTER COLUMN upload_status SET NOT NULL;
+ALTER TABLE file_info_archive ALTER COLUMN create_time SET NOT NULL;
@@ -0,0 +1,3 @@
+-- 归档记录保留幂等键：重放已归档记录的幂等键时按此唯一列查找，避免重复创建记录
+
+ALTER TABLE file_info_archive ADD CONSTRAINT uk_file_info_archive_idempotency_key UNIQUE (idempotency_key);
@@ -4,6 +4,26 @@ let pageSize = 10;
 let currentSort = 'createTime';
 let currentSortDir = 'desc';
 
+// 使用游标分页（keyset），避免深翻页时的OFFSET扫描和COUNT查询
+const USE_CURSOR_PAGINATION = true;
+let currentCursor = null;
+let currentDirection = 'next';
+
+// 超过该大小的文件使用分片上传
+const MULTIPART_THRESHOLD = 100 * 1024 * 1024; // 100MB
+// 分片上传最大文件大小
+const MULTIPART_MAX_SIZE = 10 * 1024 * 1024 * 1024; // 10GB
+// 单个分片失败后的重试次数
+const PART_MAX_RETRIES = 3;
+// 是否计算内容哈希用于秒传（仅普通上传）
+const ENABLE_INSTANT_UPLOAD = true;
+
+// 通过SSE接收文件变更并原地更新列表和统计；连接中断时（浏览器自动重连期间）退回到重新加载
+let fileEventsConnected = false;
+let currentUrlPrefix = '';
+let currentStatistics = null;
+let reloadTimer = null;
+
 // DOM加载完成后初始化
 document.addEventListener('DOMContentLoaded', function() {
     initializeApp();
@@ -15,6 +35,7 @@ function initializeApp() {
     loadFileList();
     loadStatistics();
     setupSearchForm();
+    subscribeFileEvents();
 }
 
 // 设置文件上传功能
@@ -87,12 +108,11 @@ function handleFileSelect(file) {
 
 // 验证文件
 function validateFile(file) {
-    const maxSize = 100 * 1024 * 1024; // 100MB
     const allowedTypes = ['jpg', 'jpeg', 'png', 'gif', 'pdf', 'doc', 'docx', 'xls', 'xlsx', 'ppt', 'pptx', 'txt', 'zip', 'rar'];
     
-    // 检查文件大小
-    if (file.size > maxSize) {
-        showMessage('文件大小不能超过100MB', 'error');
+    // 检查文件大小（超过100MB自动使用分片上传）
+    if (file.size > MULTIPART_MAX_SIZE) {
+        showMessage('文件大小不能超过10GB', 'error');
         return false;
     }
     
@@ -125,7 +145,23 @@ async function uploadFile(file) {
         // 获取文件扩展名
         const extension = file.name.split('.').pop().toLowerCase();
 
-        // 请求上传签名
+        // 大文件使用分片上传
+        if (file.size > MULTIPART_THRESHOLD) {
+            await uploadFileMultipart(file, extension);
+
+            updateProgress(100, '上传成功！');
+            showMessage('文件上传成功！', 'success');
+            resetUploadForm();
+            refreshAfterChange();
+            return;
+        }
+
+        // 计算内容哈希，相同文件已上传过时秒传
+        updateProgress(0, '计算文件摘要...');
+        const contentHash = ENABLE_INSTANT_UPLOAD ? await computeContentHash(file) : null;
+
+        // 请求上传签名；幂等键保证重试不会重复创建文件信息
+        const idempotencyKey = window.crypto && crypto.randomUUID ? crypto.randomUUID() : null;
         const signatureResponse = await fetch('/api/oss/signature', {
             method: 'POST',
             headers: {
@@ -135,7 +171,9 @@ async function uploadFile(file) {
                 fileName: file.name,
                 fileSize: file.size,
                 contentType: file.type,
-                fileExtension: extension
+                fileExtension: extension,
+                contentHash: contentHash,
+                idempotencyKey: idempotencyKey
             })
         });
 
@@ -146,6 +184,13 @@ async function uploadFile(file) {
         }
 
         const signature = signatureResult.data;
+        if (signature.instant) {
+            updateProgress(100, '秒传成功！');
+            showMessage('文件已存在，秒传成功！', 'success');
+            resetUploadForm();
+            refreshAfterChange();
+            return;
+        }
         updateProgress(10, '获取签名成功，开始上传...');
 
         // 构建FormData
@@ -181,9 +226,8 @@ async function uploadFile(file) {
                 // 重置表单
                 resetUploadForm();
                 
-                // 刷新文件列表和统计
-                loadFileList();
-                loadStatistics();
+                // 未订阅变更事件时刷新文件列表和统计
+                refreshAfterChange();
                 
             } else {
                 throw new Error('上传失败，状态码: ' + xhr.status);
@@ -213,6 +257,143 @@ async function uploadFile(file) {
     }
 }
 
+// 在Web Worker中计算文件SHA-256，不支持时返回null
+function computeContentHash(file) {
+    if (!window.Worker || !window.crypto || !window.crypto.subtle) {
+        return Promise.resolve(null);
+    }
+    return new Promise((resolve) => {
+        const worker = new Worker('/js/hash-worker.js');
+        worker.onmessage = (event) => {
+            worker.terminate();
+            resolve(event.data.hash || null);
+        };
+        worker.onerror = () => {
+            worker.terminate();
+            resolve(null);
+        };
+        worker.postMessage(file);
+    });
+}
+
+// 分片上传（支持断点续传）
+async function uploadFileMultipart(file, extension) {
+    // 以文件名、大小、修改时间识别同一文件，用于断点续传
+    const resumeKey = `multipart:${file.name}:${file.size}:${file.lastModified}`;
+    let upload = null;
+
+    const savedId = localStorage.getItem(resumeKey);
+    if (savedId) {
+        const result = await (await fetch(`/api/oss/multipart/${savedId}`)).json();
+        if (result.code === 200) {
+            upload = result.data;
+        } else {
+            localStorage.removeItem(resumeKey);
+        }
+    }
+
+    if (!upload) {
+        upload = await postJson('/api/oss/multipart/initiate', {
+            fileName: file.name,
+            fileSize: file.size,
+            contentType: file.type,
+            fileExtension: extension
+        });
+        upload.parts = [];
+        localStorage.setItem(resumeKey, upload.fileInfoId);
+    }
+
+    // 跳过已完成的分片
+    const finished = new Set(upload.parts.map(part => part.partNumber));
+    let uploadedBytes = upload.parts.reduce((sum, part) => sum + (part.size || 0), 0);
+    const pending = [];
+    for (let partNumber = 1; partNumber <= upload.partCount; partNumber++) {
+        if (!finished.has(partNumber)) {
+            pending.push(partNumber);
+        }
+    }
+
+    const reportProgress = () => {
+        const percentComplete = Math.round((uploadedBytes / file.size) * 100);
+        updateProgress(10 + percentComplete * 0.8, `分片上传中... ${percentComplete}%`);
+    };
+    reportProgress();
+
+    // 分批获取预签名地址，批内并发上传
+    for (let i = 0; i < pending.length; i += upload.urlBatchSize) {
+        const partUrls = await postJson(`/api/oss/multipart/${upload.fileInfoId}/urls`, {
+            partNumbers: pending.slice(i, i + upload.urlBatchSize)
+        });
+
+        await runWithConcurrency(partUrls, upload.concurrency, async (partUrl) => {
+            const start = (partUrl.partNumber - 1) * upload.partSize;
+            const blob = file.slice(start, Math.min(start + upload.partSize, file.size));
+            const etag = await uploadPart(partUrl.url, blob);
+
+            await postJson(`/api/oss/multipart/${upload.fileInfoId}/parts`, {
+                partNumber: partUrl.partNumber,
+                etag: etag,
+                size: blob.size
+            });
+
+            uploadedBytes += blob.size;
+            reportProgress();
+        });
+    }
+
+    updateProgress(95, '上传完成，合并分片中...');
+    await postJson(`/api/oss/multipart/${upload.fileInfoId}/complete`, {});
+    localStorage.removeItem(resumeKey);
+}
+
+// 上传单个分片，失败时重试
+async function uploadPart(url, blob) {
+    let lastError = null;
+    for (let attempt = 0; attempt <= PART_MAX_RETRIES; attempt++) {
+        try {
+            const response = await fetch(url, { method: 'PUT', body: blob });
+            if (response.ok) {
+                return response.headers.get('ETag');
+            }
+            lastError = new Error('分片上传失败，状态码: ' + response.status);
+        } catch (error) {
+            lastError = error;
+        }
+    }
+    throw lastError;
+}
+
+// 以固定并发数执行任务
+async function runWithConcurrency(items, concurrency, worker) {
+    let index = 0;
+    const runners = [];
+    for (let i = 0; i < Math.min(concurrency, items.length); i++) {
+        runners.push((async () => {
+            while (index < items.length) {
+                await worker(items[index++]);
+            }
+        })());
+    }
+    await Promise.all(runners);
+}
+
+// 发送JSON请求并返回data字段
+async function postJson(url, body) {
+    const response = await fetch(url, {
+        method: 'POST',
+        headers: {
+            'Content-Type': 'application/json'
+        },
+        body: JSON.stringify(body)
+    });
+
+    const result = await response.json();
+    if (result.code !== 200) {
+        throw new Error(result.message);
+    }
+    return result.data;
+}
+
 // 通知后端上传成功
 async function notifyUploadSuccess(fileInfoId, ossKey, actualFileSize) {
     try {
@@ -268,7 +449,14 @@ async function loadFileList() {
         const formData = new FormData(searchForm);
         
         const params = new URLSearchParams();
-        params.append('page', currentPage);
+        if (USE_CURSOR_PAGINATION) {
+            if (currentCursor) {
+                params.append('cursor', currentCursor);
+                params.append('direction', currentDirection);
+            }
+        } else {
+            params.append('page', currentPage);
+        }
         params.append('size', pageSize);
         params.append('sortBy', currentSort);
         params.append('sortDir', currentSortDir);
@@ -280,7 +468,8 @@ async function loadFileList() {
             params.append('uploadStatus', formData.get('uploadStatus'));
         }
 
-        const response = await fetch('/api/files?' + params.toString());
+        const url = USE_CURSOR_PAGINATION ? '/api/files/cursor?' : '/api/files?';
+        const response = await fetch(url + params.toString());
         const result = await response.json();
 
         if (result.code === 200) {
@@ -306,28 +495,39 @@ function renderFileList(pageData) {
         tbody.innerHTML = '<tr><td colspan="7" style="text-align: center; color: #6c757d;">暂无数据</td></tr>';
     } else {
         pageData.content.forEach(file => {
-            const row = document.createElement('tr');
-            row.innerHTML = `
-                <td>${file.id}</td>
-                <td title="${file.originalName}">${truncateText(file.originalName, 30)}</td>
-                <td>${formatFileSize(file.fileSize)}</td>
-                <td>${file.fileExtension || '-'}</td>
-                <td>${getStatusBadge(file.uploadStatus)}</td>
-                <td>${formatDateTime(file.createTime)}</td>
-                <td>
-                    ${file.uploadStatus === 1 && file.ossUrl ? 
-                        `<a href="${file.ossUrl}" target="_blank" class="btn btn-primary" style="padding: 0.25rem 0.5rem; font-size: 0.8rem;">查看</a>` : 
-                        '-'
-                    }
-                    <button onclick="deleteFile(${file.id})" class="btn btn-danger" style="padding: 0.25rem 0.5rem; font-size: 0.8rem;">删除</button>
-                </td>
-            `;
-            tbody.appendChild(row);
+            tbody.appendChild(renderFileRow(file, pageData.urlPrefix));
         });
     }
+    currentUrlPrefix = pageData.urlPrefix;
     
     // 渲染分页
-    renderPagination(pageData, pagination);
+    if (USE_CURSOR_PAGINATION) {
+        renderCursorPagination(pageData, pagination);
+    } else {
+        renderPagination(pageData, pagination);
+    }
+}
+
+// 渲染单行文件信息
+function renderFileRow(file, urlPrefix) {
+    const row = document.createElement('tr');
+    row.dataset.id = file.id;
+    row.innerHTML = `
+        <td>${file.id}</td>
+        <td title="${file.originalName}">${truncateText(file.originalName, 30)}</td>
+        <td>${formatFileSize(file.fileSize)}</td>
+        <td>${file.fileExtension || '-'}</td>
+        <td>${getStatusBadge(file.uploadStatus)}</td>
+        <td>${formatDateTime(file.createTime)}</td>
+        <td>
+            ${file.uploadStatus === 1 && file.ossKey ? 
+                `<a href="${file.downloadUrl || urlPrefix + file.ossKey}" target="_blank" class="btn btn-primary" style="padding: 0.25rem 0.5rem; font-size: 0.8rem;">查看</a>` : 
+                '-'
+            }
+            <button onclick="deleteFile(${file.id})" class="btn btn-danger" style="padding: 0.25rem 0.5rem; font-size: 0.8rem;">删除</button>
+        </td>
+    `;
+    return row;
 }
 
 // 渲染分页
@@ -368,6 +568,41 @@ function renderPagination(pageData, container) {
     container.appendChild(nextBtn);
 }
 
+// 渲染游标分页
+function renderCursorPagination(pageData, container) {
+    container.innerHTML = '';
+    
+    // 上一页按钮
+    const prevBtn = document.createElement('button');
+    prevBtn.textContent = '上一页';
+    prevBtn.disabled = !pageData.hasPrev;
+    prevBtn.onclick = () => {
+        currentCursor = pageData.prevCursor;
+        currentDirection = 'prev';
+        loadFileList();
+    };
+    container.appendChild(prevBtn);
+    
+    // 下一页按钮
+    const nextBtn = document.createElement('button');
+    nextBtn.textContent = '下一页';
+    nextBtn.disabled = !pageData.hasNext;
+    nextBtn.style.marginLeft = '1rem';
+    nextBtn.onclick = () => {
+        currentCursor = pageData.nextCursor;
+        currentDirection = 'next';
+        loadFileList();
+    };
+    container.appendChild(nextBtn);
+}
+
+// 重置到第一页
+function resetPaging() {
+    currentPage = 0;
+    currentCursor = null;
+    currentDirection = 'next';
+}
+
 // 加载统计信息
 async function loadStatistics() {
     try {
@@ -384,12 +619,128 @@ async function loadStatistics() {
 
 // 渲染统计信息
 function renderStatistics(data) {
+    currentStatistics = data;
     document.getElementById('totalCount').textContent = data.totalCount;
     document.getElementById('successCount').textContent = data.statusCounts.success;
     document.getElementById('pendingCount').textContent = data.statusCounts.pending;
     document.getElementById('failedCount').textContent = data.statusCounts.failed;
 }
 
+// 订阅文件变更事件，浏览器断线后自动重连并携带Last-Event-ID补收事件
+function subscribeFileEvents() {
+    if (!window.EventSource) {
+        return;
+    }
+    const source = new EventSource('/api/files/events');
+    source.onopen = () => {
+        fileEventsConnected = true;
+    };
+    source.onerror = () => {
+        fileEventsConnected = false;
+    };
+    // statistics：延迟落库模式下待上传预留数变化，只更新统计
+    // archived：记录移入归档表，从当前列表移除，统计不变
+    ['created', 'status', 'deleted', 'archived', 'statistics'].forEach(type => {
+        source.addEventListener(type, (e) => applyFileEvent(type, JSON.parse(e.data)));
+    });
+    // 错过的事件已无法补发，重新加载
+    source.addEventListener('reset', () => {
+        loadFileList();
+        loadStatistics();
+    });
+}
+
+// 未订阅变更事件时重新加载列表和统计
+function refreshAfterChange() {
+    if (!fileEventsConnected) {
+        loadFileList();
+        loadStatistics();
+    }
+}
+
+// 合并短时间内的多次重新加载
+function scheduleReload() {
+    clearTimeout(reloadTimer);
+    reloadTimer = setTimeout(loadFileList, 300);
+}
+
+// 按事件原地更新列表和统计
+function applyFileEvent(type, event) {
+    applyStatisticsDelta(event.statisticsDelta);
+
+    const tbody = document.getElementById('fileTableBody');
+    const urlPrefix = event.urlPrefix || currentUrlPrefix;
+    if (type === 'created') {
+        // 仅在按创建时间倒序、未过滤的第一页插入新行，其他视图不受影响
+        if (!isFirstPageUnfiltered()) {
+            return;
+        }
+        const placeholder = tbody.querySelector('tr:not([data-id])');
+        if (placeholder) {
+            placeholder.remove();
+        }
+        event.items.forEach(file => {
+            if (!tbody.querySelector(`tr[data-id="${file.id}"]`)) {
+                tbody.insertBefore(renderFileRow(file, urlPrefix), tbody.firstChild);
+            }
+        });
+        while (tbody.querySelectorAll('tr[data-id]').length > pageSize) {
+            tbody.lastElementChild.remove();
+        }
+    } else if (type === 'status') {
+        const statusFilter = document.getElementById('searchForm').elements['uploadStatus'];
+        const items = new Map((event.items || []).map(file => [file.id, file]));
+        event.ids.forEach(id => {
+            const row = tbody.querySelector(`tr[data-id="${id}"]`);
+            if (!row) {
+                return;
+            }
+            const file = items.get(id);
+            if (!file) {
+                scheduleReload();
+            } else if (statusFilter && statusFilter.value !== '' && Number(statusFilter.value) !== file.uploadStatus) {
+                row.remove();
+                scheduleReload();
+            } else {
+                row.replaceWith(renderFileRow(file, urlPrefix));
+            }
+        });
+    } else if (type === 'deleted' || type === 'archived') {
+        let removed = false;
+        event.ids.forEach(id => {
+            const row = tbody.querySelector(`tr[data-id="${id}"]`);
+            if (row) {
+                row.remove();
+                removed = true;
+            }
+        });
+        if (removed) {
+            scheduleReload();
+        }
+    }
+}
+
+// 当前是否为按创建时间倒序、未过滤的第一页
+function isFirstPageUnfiltered() {
+    const formData = new FormData(document.getElementById('searchForm'));
+    const firstPage = USE_CURSOR_PAGINATION ? !currentCursor : currentPage === 0;
+    return firstPage && currentSort === 'createTime' && currentSortDir === 'desc'
+        && !formData.get('originalName') && !formData.get('uploadStatus');
+}
+
+// 累加统计增量
+function applyStatisticsDelta(delta) {
+    if (!currentStatistics || !delta) {
+        return;
+    }
+    const counts = currentStatistics.statusCounts;
+    Object.keys(delta).forEach(status => {
+        counts[status] = (counts[status] || 0) + delta[status];
+    });
+    currentStatistics.totalCount = counts.pending + counts.success + counts.failed;
+    renderStatistics(currentStatistics);
+}
+
 // 设置搜索表单
 function setupSearchForm() {
     const searchForm = document.getElementById('searchForm');
@@ -398,14 +749,14 @@ function setupSearchForm() {
 
     searchBtn.addEventListener('click', (e) => {
         e.preventDefault();
-        currentPage = 0;
+        resetPaging();
         loadFileList();
     });
 
     resetBtn.addEventListener('click', (e) => {
         e.preventDefault();
         searchForm.reset();
-        currentPage = 0;
+        resetPaging();
         loadFileList();
     });
 }
@@ -425,8 +776,7 @@ async function deleteFile(id) {
         
         if (result.code === 200) {
             showMessage('删除成功', 'success');
-            loadFileList();
-            loadStatistics();
+            refreshAfterChange();
         } else {
             showMessage('删除失败: ' + result.message, 'error');
         }
@@ -0,0 +1,13 @@
+// 在Web Worker中计算文件SHA-256，避免阻塞页面
+self.onmessage = async function(event) {
+    try {
+        const buffer = await event.data.arrayBuffer();
+        const digest = await crypto.subtle.digest('SHA-256', buffer);
+        const hash = Array.from(new Uint8Array(digest))
+            .map(b => b.toString(16).padStart(2, '0'))
+            .join('');
+        self.postMessage({ hash: hash });
+    } catch (error) {
+        self.postMessage({ error: error.message });
+    }
+};
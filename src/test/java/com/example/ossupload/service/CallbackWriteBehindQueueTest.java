@@ -0,0 +1,114 @@
+package com.example.ossupload.service;
+
+import com.example.ossupload.dto.FileUploadCallbackRequest;
+import com.example.ossupload.dto.FileUploadRequest;
+import com.example.ossupload.dto.OssSignatureResponse;
+import com.example.ossupload.repository.FileInfoRepository;
+import com.example.ossupload.storage.InMemoryStorageBackend;
+import com.example.ossupload.storage.InMemoryStorageConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 上传回调异步合并写入：只更新待上传状态的记录，重复或迟到的回调不重复计数（内存存储后端代替OSS）
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:write-behind-test",
+        "oss.storage.type=local",
+        "oss.storage.local-root=target/test-storage",
+        "oss.sweeper.enabled=false",
+        "oss.callback.async-enabled=true",
+        "oss.callback.flush-interval=20"
+})
+@Import(InMemoryStorageConfiguration.class)
+class CallbackWriteBehindQueueTest {
+    
+    private static final long TIMEOUT_MILLIS = 10000L;
+    
+    @Autowired
+    private OssService ossService;
+    
+    @Autowired
+    private InMemoryStorageBackend storage;
+    
+    @Autowired
+    private FileInfoRepository fileInfoRepository;
+    
+    @Autowired
+    private FileStatisticsCounter fileStatisticsCounter;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DELETE FROM file_name_gram");
+        jdbcTemplate.execute("DELETE FROM file_info");
+        fileStatisticsCounter.reconcile();
+        storage.clear();
+    }
+    
+    @Test
+    void lateCallbackForFinishedFileIsIgnored() {
+        Long first = sign("first.pdf");
+        Long second = sign("second.pdf");
+        
+        ossService.acceptUploadCallback(callback(first, 1));
+        awaitUntil(() -> uploadStatus(first) == 1);
+        
+        // 迟到的失败回调在后续回调之前入队，后续回调写入时它已处理完毕
+        ossService.acceptUploadCallback(callback(first, 2));
+        ossService.acceptUploadCallback(callback(second, 1));
+        awaitUntil(() -> uploadStatus(second) == 1);
+        
+        assertThat(uploadStatus(first)).isEqualTo(1);
+        assertThat(fileStatisticsCounter.getCount(0)).isZero();
+        assertThat(fileStatisticsCounter.getCount(1)).isEqualTo(2);
+        assertThat(fileStatisticsCounter.getCount(2)).isZero();
+    }
+    
+    private Long sign(String fileName) {
+        FileUploadRequest request = new FileUploadRequest();
+        request.setFileName(fileName);
+        request.setFileSize(1024L);
+        request.setContentType("application/pdf");
+        request.setFileExtension("pdf");
+        OssSignatureResponse response = ossService.generateSignature(request);
+        storage.putObject(response.getKey(), new byte[1024]);
+        return response.getFileInfoId();
+    }
+    
+    private int uploadStatus(Long id) {
+        return fileInfoRepository.findById(id).get().getUploadStatus();
+    }
+    
+    private static FileUploadCallbackRequest callback(Long id, int uploadStatus) {
+        FileUploadCallbackRequest callback = new FileUploadCallbackRequest();
+        callback.setFileInfoId(id);
+        callback.setUploadStatus(uploadStatus);
+        return callback;
+    }
+    
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("等待超时");
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.ossupload.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 列表与统计接口的ETag
+ */
+class FileDataVersionTest {
+    
+    @Test
+    void etagIsStableForSameVersionAndParams() {
+        assertThat(FileDataVersion.etag(1L, "invoice", 1, 0, 20, "createTime", "desc", false))
+                .isEqualTo(FileDataVersion.etag(1L, "invoice", 1, 0, 20, "createTime", "desc", false))
+                .matches("\"1-[0-9a-f]{32}\"");
+    }
+    
+    @Test
+    void etagDistinguishesParamBoundariesAndNulls() {
+        assertThat(FileDataVersion.etag(1L, "ab", "c")).isNotEqualTo(FileDataVersion.etag(1L, "a", "bc"));
+        assertThat(FileDataVersion.etag(1L, "a", null)).isNotEqualTo(FileDataVersion.etag(1L, "a", "null"));
+        assertThat(FileDataVersion.etag(1L, "a", null)).isNotEqualTo(FileDataVersion.etag(1L, null, "a"));
+    }
+    
+    @Test
+    void etagChangesWithVersion() {
+        assertThat(FileDataVersion.etag(1L, "a")).isNotEqualTo(FileDataVersion.etag(2L, "a"));
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.ossupload.service;
+
+import com.example.ossupload.dto.DeleteJobStatus;
+import com.example.ossupload.dto.FileUploadCallbackRequest;
+import com.example.ossupload.dto.FileUploadRequest;
+import com.example.ossupload.dto.OssSignatureResponse;
+import com.example.ossupload.repository.FileInfoRepository;
+import com.example.ossupload.storage.InMemoryStorageBackend;
+import com.example.ossupload.storage.InMemoryStorageConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 批量删除流程：分批删除记录、异步删除存储对象与后台任务（内存存储后端代替OSS）
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:delete-test",
+        "oss.storage.type=local",
+        "oss.storage.local-root=target/test-storage",
+        "oss.sweeper.enabled=false",
+        "oss.delete.chunk-size=2",
+        "oss.delete.object-delete-retries=1"
+})
+@Import(InMemoryStorageConfiguration.class)
+class FileDeleteServiceTest {
+    
+    private static final long TIMEOUT_MILLIS = 10000L;
+    
+    @Autowired
+    private FileDeleteService fileDeleteService;
+    
+    @Autowired
+    private OssService ossService;
+    
+    @Autowired
+    private InMemoryStorageBackend storage;
+    
+    @Autowired
+    private FileInfoRepository fileInfoRepository;
+    
+    @Autowired
+    private FileStatisticsCounter fileStatisticsCounter;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DELETE FROM file_name_gram");
+        jdbcTemplate.execute("DELETE FROM file_info");
+        fileStatisticsCounter.reconcile();
+        storage.clear();
+    }
+    
+    @Test
+    void deleteRemovesRowsAcrossChunksAndObjects() {
+        List<Long> ids = upload(5);
+        
+        int deleted = fileDeleteService.delete(ids, true);
+        
+        assertThat(deleted).isEqualTo(5);
+        assertThat(fileInfoRepository.count()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM file_name_gram", Long.class)).isZero();
+        assertThat(fileStatisticsCounter.getTotalCount()).isZero();
+        awaitUntil(() -> storage.getObjectCount() == 0);
+    }
+    
+    @Test
+    void deleteRollsBackWhenAnyIdIsMissing() {
+        List<Long> ids = new ArrayList<>(upload(3));
+        ids.add(-1L);
+        
+        assertThatThrownBy(() -> fileDeleteService.delete(ids, true)).hasMessageContaining("部分文件信息不存在");
+        
+        assertThat(fileInfoRepository.count()).isEqualTo(3);
+        assertThat(fileStatisticsCounter.getCount(1)).isEqualTo(3);
+        assertThat(storage.getObjectCount()).isEqualTo(3);
+        assertThat(storage.getDeleteBatchSizes()).isEmpty();
+    }
+    
+    @Test
+    void deleteSkipsMissingIdsWhenNotRequired() {
+        List<Long> ids = upload(2);
+        
+        assertThat(fileDeleteService.delete(Arrays.asList(ids.get(0), -1L), false)).isEqualTo(1);
+        
+        assertThat(fileInfoRepository.existsById(ids.get(1))).isTrue();
+        awaitUntil(() -> storage.getObjectCount() == 1);
+    }
+    
+    @Test
+    void objectsAreDeletedInBatchesOfAtMostOneThousandKeys() {
+        List<Long> ids = new ArrayList<>();
+        for (OssSignatureResponse response : ossService.generateSignatures(requests(1001))) {
+            storage.putObject(response.getKey(), new byte[0]);
+            ids.add(response.getFileInfoId());
+        }
+        
+        fileDeleteService.delete(ids, true);
+        
+        awaitUntil(() -> storage.getObjectCount() == 0);
+        assertThat(storage.getDeleteBatchSizes()).containsExactlyInAnyOrder(1000, 1);
+    }
+    
+    @Test
+    void jobCompletesAndReportsProgress() {
+        List<Long> ids = upload(5);
+        
+        DeleteJobStatus submitted = fileDeleteService.submit(ids);
+        DeleteJobStatus finished = awaitJob(submitted.getJobId());
+        
+        assertThat(finished.getStatus()).isEqualTo("COMPLETED");
+        assertThat(finished.getTotal()).isEqualTo(5L);
+        assertThat(finished.getDeletedRows()).isEqualTo(5L);
+        assertThat(finished.getDeletedObjects()).isEqualTo(5L);
+        assertThat(finished.getFailedObjects()).isZero();
+        assertThat(storage.getObjectCount()).isZero();
+    }
+    
+    @Test
+    void objectDeleteIsRetriedAfterFailure() {
+        List<Long> ids = upload(2);
+        storage.failNextDeletes(1);
+        
+        DeleteJobStatus finished = awaitJob(fileDeleteService.submit(ids).getJobId());
+        
+        assertThat(finished.getStatus()).isEqualTo("COMPLETED");
+        assertThat(storage.getObjectCount()).isZero();
+    }
+    
+    @Test
+    void onlyKeysReportedAsFailedAreRetried() {
+        List<Long> ids = upload(3);
+        String failingKey = fileInfoRepository.findById(ids.get(0)).get().getOssKey();
+        storage.failDeletesOnce(Collections.singletonList(failingKey));
+        
+        DeleteJobStatus finished = awaitJob(fileDeleteService.submit(ids).getJobId());
+        
+        assertThat(finished.getStatus()).isEqualTo("COMPLETED");
+        assertThat(finished.getDeletedObjects()).isEqualTo(3L);
+        assertThat(finished.getFailedObjects()).isZero();
+        assertThat(storage.getDeleteBatchSizes()).containsExactlyInAnyOrder(2, 1, 1);
+        assertThat(storage.getObjectCount()).isZero();
+    }
+    
+    @Test
+    void jobFailsWhenRetriesAreExhausted() {
+        List<Long> ids = upload(2);
+        storage.failNextDeletes(Integer.MAX_VALUE);
+        
+        DeleteJobStatus finished = awaitJob(fileDeleteService.submit(ids).getJobId());
+        
+        assertThat(finished.getStatus()).isEqualTo("FAILED");
+        assertThat(finished.getDeletedRows()).isEqualTo(2L);
+        assertThat(finished.getFailedObjects()).isEqualTo(2L);
+        assertThat(fileInfoRepository.count()).isZero();
+        assertThat(storage.getObjectCount()).isEqualTo(2);
+    }
+    
+    /**
+     * 签名、写入对象并回调成功，返回文件信息ID
+     */
+    private List<Long> upload(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (OssSignatureResponse response : ossService.generateSignatures(requests(count))) {
+            storage.putObject(response.getKey(), response.getKey().getBytes(StandardCharsets.UTF_8));
+            FileUploadCallbackRequest callback = new FileUploadCallbackRequest();
+            callback.setFileInfoId(response.getFileInfoId());
+            callback.setOssKey(response.getKey());
+            callback.setUploadStatus(1);
+            ossService.handleUploadCallback(callback);
+            ids.add(response.getFileInfoId());
+        }
+        return ids;
+    }
+    
+    private static List<FileUploadRequest> requests(int count) {
+        List<FileUploadRequest> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            FileUploadRequest request = new FileUploadRequest();
+            request.setFileName("delete-" + i + ".pdf");
+            request.setFileSize(1024L);
+            request.setContentType("application/pdf");
+            request.setFileExtension("pdf");
+            requests.add(request);
+        }
+        return requests;
+    }
+    
+    private DeleteJobStatus awaitJob(String jobId) {
+        awaitUntil(() -> !"RUNNING".equals(fileDeleteService.getJobStatus(jobId).getStatus()));
+        return fileDeleteService.getJobStatus(jobId);
+    }
+    
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("等待超时");
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
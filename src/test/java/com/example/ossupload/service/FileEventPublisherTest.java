@@ -0,0 +1,138 @@
+package com.example.ossupload.service;
+
+import com.example.ossupload.entity.FileInfo;
+import com.example.ossupload.storage.InMemoryStorageConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 文件变更事件推送：慢订阅者只积压自己的发送队列，溢出后被断开，不阻塞其他订阅者
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:events-test",
+        "oss.storage.type=local",
+        "oss.storage.local-root=target/test-storage",
+        "oss.sweeper.enabled=false",
+        "oss.events.subscriber-queue-capacity=8"
+})
+@Import(InMemoryStorageConfiguration.class)
+class FileEventPublisherTest {
+    
+    private static final long TIMEOUT_MILLIS = 10000L;
+    
+    @Autowired
+    private FileEventPublisher fileEventPublisher;
+    
+    @Test
+    void slowSubscriberIsDroppedWithoutBlockingOthers() {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        RecordingEmitter fast = new RecordingEmitter(null);
+        try {
+            fileEventPublisher.subscribe(fast, null);
+            fileEventPublisher.subscribe(slow, null);
+            assertThat(fileEventPublisher.getSubscriberCount()).isEqualTo(2);
+            
+            // 慢订阅者收到连接确认后不再读取，后续事件积压直到发送队列溢出
+            awaitUntil(() -> slow.getFrameCount() == 1 && fast.getFrameCount() == 1);
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            for (long id = 1; fileEventPublisher.getSubscriberCount() > 1; id++) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new AssertionError("慢订阅者未被断开");
+                }
+                fileEventPublisher.created(Collections.singletonList(fileInfo(id, "event-" + id + ".pdf")));
+                sleep(5);
+            }
+            
+            fileEventPublisher.created(Collections.singletonList(fileInfo(1000L, "marker.pdf")));
+            awaitUntil(() -> fast.contains("marker.pdf"));
+            assertThat(slow.contains("marker.pdf")).isFalse();
+        } finally {
+            release.countDown();
+        }
+    }
+    
+    private static FileInfo fileInfo(Long id, String name) {
+        FileInfo fileInfo = new FileInfo();
+        fileInfo.setId(id);
+        fileInfo.setOriginalName(name);
+        fileInfo.setOssKey("events/" + name);
+        fileInfo.setFileSize(1024L);
+        fileInfo.setFileExtension("pdf");
+        fileInfo.setUploadStatus(0);
+        fileInfo.setCreateTime(LocalDateTime.now());
+        return fileInfo;
+    }
+    
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("等待超时");
+            }
+            sleep(20);
+        }
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError(e);
+        }
+    }
+    
+    /**
+     * 记录写出内容的连接；release不为空时首次写出之后的写出都等待其放行（模拟连接后不再读取数据的慢客户端），
+     * 与ResponseBodyEmitter一样在写出期间持有连接的锁
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        
+        private final CountDownLatch release;
+        private final List<String> frames = new CopyOnWriteArrayList<>();
+        
+        RecordingEmitter(CountDownLatch release) {
+            super(0L);
+            this.release = release;
+        }
+        
+        @Override
+        public synchronized void send(SseEventBuilder builder) throws IOException {
+            if (release != null && !frames.isEmpty()) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            StringBuilder frame = new StringBuilder();
+            for (DataWithMediaType data : builder.build()) {
+                frame.append(data.getData());
+            }
+            frames.add(frame.toString());
+        }
+        
+        int getFrameCount() {
+            return frames.size();
+        }
+        
+        boolean contains(String text) {
+            return frames.stream().anyMatch(frame -> frame.contains(text));
+        }
+    }
+}
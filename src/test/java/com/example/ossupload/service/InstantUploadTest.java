@@ -0,0 +1,136 @@
+package com.example.ossupload.service;
+
+import com.example.ossupload.dto.FileUploadCallbackRequest;
+import com.example.ossupload.dto.FileUploadRequest;
+import com.example.ossupload.dto.OssSignatureResponse;
+import com.example.ossupload.repository.FileInfoRepository;
+import com.example.ossupload.repository.FileObjectRepository;
+import com.example.ossupload.storage.InMemoryStorageBackend;
+import com.example.ossupload.storage.InMemoryStorageConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 秒传：客户端声明的内容哈希经服务端读取对象校验后才可复用（内存存储后端代替OSS）
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:instant-upload-test",
+        "oss.storage.type=local",
+        "oss.storage.local-root=target/test-storage",
+        "oss.sweeper.enabled=false"
+})
+@Import(InMemoryStorageConfiguration.class)
+class InstantUploadTest {
+    
+    private static final long TIMEOUT_MILLIS = 10000L;
+    
+    private static final byte[] CONTENT = "instant upload content".getBytes(StandardCharsets.UTF_8);
+    
+    @Autowired
+    private OssService ossService;
+    
+    @Autowired
+    private InMemoryStorageBackend storage;
+    
+    @Autowired
+    private FileInfoRepository fileInfoRepository;
+    
+    @Autowired
+    private FileObjectRepository fileObjectRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DELETE FROM file_object");
+        jdbcTemplate.execute("DELETE FROM file_name_gram");
+        jdbcTemplate.execute("DELETE FROM file_info");
+        storage.clear();
+    }
+    
+    @Test
+    void verifiedHashIsReusedAfterServerCheck() throws Exception {
+        String hash = sha256(CONTENT);
+        OssSignatureResponse first = upload(hash, CONTENT);
+        
+        // 首次复用只触发校验，本次照常上传
+        assertThat(ossService.generateSignature(request(hash, CONTENT.length)).getInstant()).isNotEqualTo(Boolean.TRUE);
+        awaitUntil(() -> fileObjectRepository.findByContentHash(hash).isPresent());
+        
+        OssSignatureResponse instant = ossService.generateSignature(request(hash, CONTENT.length));
+        assertThat(instant.getInstant()).isTrue();
+        assertThat(instant.getKey()).isEqualTo(first.getKey());
+    }
+    
+    @Test
+    void mismatchedHashIsClearedAndNeverReused() throws Exception {
+        // 客户端声明了他人文件的哈希，实际上传的是其他内容
+        String claimed = sha256(CONTENT);
+        byte[] actual = "forged upload content!".getBytes(StandardCharsets.UTF_8);
+        OssSignatureResponse forged = upload(claimed, actual);
+        
+        assertThat(ossService.generateSignature(request(claimed, actual.length)).getInstant()).isNotEqualTo(Boolean.TRUE);
+        awaitUntil(() -> fileInfoRepository.findById(forged.getFileInfoId()).get().getContentHash() == null);
+        
+        assertThat(fileObjectRepository.findByContentHash(claimed)).isEmpty();
+        assertThat(ossService.generateSignature(request(claimed, actual.length)).getInstant()).isNotEqualTo(Boolean.TRUE);
+    }
+    
+    /**
+     * 签名、写入对象并回调成功
+     */
+    private OssSignatureResponse upload(String contentHash, byte[] content) {
+        OssSignatureResponse response = ossService.generateSignature(request(contentHash, content.length));
+        storage.putObject(response.getKey(), content);
+        FileUploadCallbackRequest callback = new FileUploadCallbackRequest();
+        callback.setFileInfoId(response.getFileInfoId());
+        callback.setOssKey(response.getKey());
+        callback.setUploadStatus(1);
+        ossService.handleUploadCallback(callback);
+        return response;
+    }
+    
+    private static FileUploadRequest request(String contentHash, long fileSize) {
+        FileUploadRequest request = new FileUploadRequest();
+        request.setFileName("instant.txt");
+        request.setFileSize(fileSize);
+        request.setContentType("text/plain");
+        request.setFileExtension("txt");
+        request.setContentHash(contentHash);
+        return request;
+    }
+    
+    private static String sha256(byte[] content) throws Exception {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : MessageDigest.getInstance("SHA-256").digest(content)) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+    
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("等待超时");
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.ossupload.service;
+
+import com.example.ossupload.dto.FileUploadRequest;
+import com.example.ossupload.dto.MultipartPartInfo;
+import com.example.ossupload.dto.MultipartUploadResponse;
+import com.example.ossupload.entity.FileInfo;
+import com.example.ossupload.repository.FileInfoRepository;
+import com.example.ossupload.repository.FilePartRepository;
+import com.example.ossupload.storage.InMemoryStorageBackend;
+import com.example.ossupload.storage.InMemoryStorageConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 分片上传流程（内存存储后端代替OSS）
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:multipart-test",
+        "oss.storage.type=local",
+        "oss.storage.local-root=target/test-storage",
+        "oss.sweeper.enabled=false"
+})
+@Import(InMemoryStorageConfiguration.class)
+class OssServiceMultipartTest {
+    
+    private static final long PART_SIZE = 8388608L;
+    
+    @Autowired
+    private OssService ossService;
+    
+    @Autowired
+    private InMemoryStorageBackend storage;
+    
+    @Autowired
+    private FileInfoRepository fileInfoRepository;
+    
+    @Autowired
+    private FilePartRepository filePartRepository;
+    
+    @BeforeEach
+    void setUp() {
+        storage.clear();
+    }
+    
+    @Test
+    void completeMergesRecordedPartsInOrder() {
+        MultipartUploadResponse upload = ossService.initiateMultipartUpload(request(3 * PART_SIZE - 1));
+        assertThat(upload.getPartCount()).isEqualTo(3);
+        assertThat(ossService.generatePartUrls(upload.getFileInfoId(), Arrays.asList(1, 2, 3))).hasSize(3);
+        
+        // 乱序上传，ETag带引号（浏览器读取的ETag响应头）
+        uploadPart(upload, 3, "c");
+        uploadPart(upload, 1, "a");
+        uploadPart(upload, 2, "b");
+        assertThat(ossService.getMultipartUpload(upload.getFileInfoId()).getParts()).hasSize(3);
+        
+        FileInfo completed = ossService.completeMultipartUpload(upload.getFileInfoId());
+        
+        assertThat(completed.getUploadStatus()).isEqualTo(1);
+        assertThat(new String(storage.getObject(upload.getKey()), StandardCharsets.UTF_8)).isEqualTo("abc");
+        assertThat(storage.getOpenUploadCount()).isZero();
+        assertThat(filePartRepository.findByFileInfoIdOrderByPartNumber(upload.getFileInfoId())).isEmpty();
+        assertThat(fileInfoRepository.findById(upload.getFileInfoId()).get().getUploadStatus()).isEqualTo(1);
+    }
+    
+    @Test
+    void completeRejectsMissingParts() {
+        MultipartUploadResponse upload = ossService.initiateMultipartUpload(request(2 * PART_SIZE));
+        uploadPart(upload, 1, "a");
+        
+        assertThatThrownBy(() -> ossService.completeMultipartUpload(upload.getFileInfoId()))
+                .hasMessageContaining("分片未全部上传");
+        assertThat(storage.getObject(upload.getKey())).isNull();
+        assertThat(fileInfoRepository.findById(upload.getFileInfoId()).get().getUploadStatus()).isZero();
+    }
+    
+    @Test
+    void storageFailureLeavesUploadResumable() {
+        MultipartUploadResponse upload = ossService.initiateMultipartUpload(request(2 * PART_SIZE));
+        uploadPart(upload, 1, "a");
+        uploadPart(upload, 2, "b");
+        storage.failNextComplete();
+        
+        assertThatThrownBy(() -> ossService.completeMultipartUpload(upload.getFileInfoId()))
+                .hasMessageContaining("模拟的存储故障");
+        assertThat(fileInfoRepository.findById(upload.getFileInfoId()).get().getUploadStatus()).isZero();
+        assertThat(filePartRepository.findByFileInfoIdOrderByPartNumber(upload.getFileInfoId())).hasSize(2);
+        
+        // 重试完成
+        assertThat(ossService.completeMultipartUpload(upload.getFileInfoId()).getUploadStatus()).isEqualTo(1);
+        assertThat(new String(storage.getObject(upload.getKey()), StandardCharsets.UTF_8)).isEqualTo("ab");
+    }
+    
+    @Test
+    void abortMarksUploadFailedAndEndsIt() {
+        MultipartUploadResponse upload = ossService.initiateMultipartUpload(request(2 * PART_SIZE));
+        uploadPart(upload, 1, "a");
+        
+        ossService.abortMultipartUpload(upload.getFileInfoId());
+        
+        assertThat(storage.getOpenUploadCount()).isZero();
+        assertThat(fileInfoRepository.findById(upload.getFileInfoId()).get().getUploadStatus()).isEqualTo(2);
+        assertThat(filePartRepository.findByFileInfoIdOrderByPartNumber(upload.getFileInfoId())).isEmpty();
+        assertThatThrownBy(() -> ossService.completeMultipartUpload(upload.getFileInfoId()))
+                .hasMessageContaining("分片上传已结束");
+    }
+    
+    private void uploadPart(MultipartUploadResponse upload, int partNumber, String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        String etag = storage.uploadPart(upload.getKey(), upload.getUploadId(), partNumber, bytes);
+        ossService.recordPart(upload.getFileInfoId(),
+                new MultipartPartInfo(partNumber, "\"" + etag + "\"", (long) bytes.length));
+    }
+    
+    private static FileUploadRequest request(long fileSize) {
+        FileUploadRequest request = new FileUploadRequest();
+        request.setFileName("large-video.zip");
+        request.setFileSize(fileSize);
+        request.setContentType("application/zip");
+        request.setFileExtension("zip");
+        return request;
+    }
+}
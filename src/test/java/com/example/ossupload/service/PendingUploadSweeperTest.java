@@ -0,0 +1,166 @@
+package com.example.ossupload.service;
+
+import com.example.ossupload.config.OssConfig;
+import com.example.ossupload.dto.FileUploadCallbackRequest;
+import com.example.ossupload.dto.FileUploadRequest;
+import com.example.ossupload.dto.OssSignatureResponse;
+import com.example.ossupload.entity.FileInfo;
+import com.example.ossupload.repository.FileInfoRepository;
+import com.example.ossupload.storage.InMemoryStorageBackend;
+import com.example.ossupload.storage.InMemoryStorageConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 待上传记录清理：fail 与 purge 两种处理方式，以及检查对象期间到达的回调（内存存储后端代替OSS）
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sweeper-test",
+        "oss.storage.type=local",
+        "oss.storage.local-root=target/test-storage",
+        "oss.sweeper.enabled=false",
+        "oss.sweeper.head-rate-limit=1000"
+})
+@Import(InMemoryStorageConfiguration.class)
+class PendingUploadSweeperTest {
+    
+    @Autowired
+    private PendingUploadSweeper sweeper;
+    
+    @Autowired
+    private OssService ossService;
+    
+    @Autowired
+    private OssConfig ossConfig;
+    
+    @Autowired
+    private InMemoryStorageBackend storage;
+    
+    @Autowired
+    private FileInfoRepository fileInfoRepository;
+    
+    @Autowired
+    private FileStatisticsCounter fileStatisticsCounter;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DELETE FROM file_name_gram");
+        jdbcTemplate.execute("DELETE FROM file_info");
+        fileStatisticsCounter.reconcile();
+        storage.clear();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        ossConfig.getSweeper().setAbandonedAction("fail");
+    }
+    
+    @Test
+    void failModePromotesUploadedAndFailsAbandoned() {
+        List<OssSignatureResponse> pending = signStale(2);
+        storage.putObject(pending.get(0).getKey(), new byte[42]);
+        
+        assertThat(sweeper.sweep()).isEqualTo(2);
+        
+        FileInfo uploaded = fileInfoRepository.findById(pending.get(0).getFileInfoId()).get();
+        assertThat(uploaded.getUploadStatus()).isEqualTo(1);
+        assertThat(uploaded.getFileSize()).isEqualTo(42L);
+        assertThat(fileInfoRepository.findById(pending.get(1).getFileInfoId()).get().getUploadStatus()).isEqualTo(2);
+        assertThat(fileStatisticsCounter.getCount(0)).isZero();
+        assertThat(fileStatisticsCounter.getCount(1)).isEqualTo(1);
+        assertThat(fileStatisticsCounter.getCount(2)).isEqualTo(1);
+    }
+    
+    @Test
+    void purgeModePromotesUploadedAndDeletesAbandoned() {
+        ossConfig.getSweeper().setAbandonedAction("purge");
+        List<OssSignatureResponse> pending = signStale(2);
+        storage.putObject(pending.get(0).getKey(), new byte[42]);
+        
+        assertThat(sweeper.sweep()).isEqualTo(2);
+        
+        assertThat(fileInfoRepository.findById(pending.get(0).getFileInfoId()).get().getUploadStatus()).isEqualTo(1);
+        assertThat(fileInfoRepository.existsById(pending.get(1).getFileInfoId())).isFalse();
+        assertThat(fileStatisticsCounter.getTotalCount()).isEqualTo(1);
+    }
+    
+    @Test
+    void callbackDuringSweepKeepsRowInPurgeMode() {
+        ossConfig.getSweeper().setAbandonedAction("purge");
+        OssSignatureResponse pending = signStale(1).get(0);
+        // 对象检查返回不存在之前，回调已报告上传成功
+        storage.setHeadListener(key -> callback(pending, 1, null));
+        
+        assertThat(sweeper.sweep()).isZero();
+        
+        assertThat(fileInfoRepository.findById(pending.getFileInfoId()).get().getUploadStatus()).isEqualTo(1);
+        assertThat(fileStatisticsCounter.getCount(1)).isEqualTo(1);
+    }
+    
+    @Test
+    void callbackDuringSweepIsNotOverwrittenInFailMode() {
+        OssSignatureResponse pending = signStale(1).get(0);
+        storage.setHeadListener(key -> callback(pending, 1, null));
+        
+        assertThat(sweeper.sweep()).isZero();
+        
+        assertThat(fileInfoRepository.findById(pending.getFileInfoId()).get().getUploadStatus()).isEqualTo(1);
+        assertThat(fileStatisticsCounter.getCount(2)).isZero();
+    }
+    
+    @Test
+    void callbackDuringSweepKeepsReportedFileSize() {
+        OssSignatureResponse pending = signStale(1).get(0);
+        storage.putObject(pending.getKey(), new byte[42]);
+        // 回调报告上传失败，对象检查仍看到残留对象，记录不应被补记为成功或改写大小
+        storage.setHeadListener(key -> callback(pending, 2, 7L));
+        
+        assertThat(sweeper.sweep()).isZero();
+        
+        FileInfo fileInfo = fileInfoRepository.findById(pending.getFileInfoId()).get();
+        assertThat(fileInfo.getUploadStatus()).isEqualTo(2);
+        assertThat(fileInfo.getFileSize()).isEqualTo(7L);
+        assertThat(fileStatisticsCounter.getCount(1)).isZero();
+    }
+    
+    /**
+     * 签名后将创建时间提前到签名有效期之前
+     */
+    private List<OssSignatureResponse> signStale(int count) {
+        List<FileUploadRequest> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            FileUploadRequest request = new FileUploadRequest();
+            request.setFileName("pending-" + i + ".pdf");
+            request.setFileSize(1024L);
+            request.setContentType("application/pdf");
+            request.setFileExtension("pdf");
+            requests.add(request);
+        }
+        List<OssSignatureResponse> responses = ossService.generateSignatures(requests);
+        jdbcTemplate.update("UPDATE file_info SET create_time = DATEADD('SECOND', ?, create_time)",
+                -2 * ossConfig.getSignatureExpireTime());
+        return responses;
+    }
+    
+    private void callback(OssSignatureResponse response, int uploadStatus, Long actualFileSize) {
+        FileUploadCallbackRequest callback = new FileUploadCallbackRequest();
+        callback.setFileInfoId(response.getFileInfoId());
+        callback.setOssKey(response.getKey());
+        callback.setUploadStatus(uploadStatus);
+        callback.setActualFileSize(actualFileSize);
+        ossService.handleUploadCallback(callback);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.ossupload.service;
+
+import com.example.ossupload.config.OssConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 签名准入：客户端识别
+ */
+class SignatureAdmissionTest {
+    
+    @Test
+    void registeredApiKeyIdentifiesClient() {
+        OssConfig.RateLimit config = new OssConfig.RateLimit();
+        config.setApiKeys(Collections.singleton("partner-key"));
+        
+        assertThat(SignatureAdmission.resolveClientId(request("partner-key"), config)).isEqualTo("key:partner-key");
+    }
+    
+    @Test
+    void unregisteredApiKeyFallsBackToRemoteAddress() {
+        OssConfig.RateLimit config = new OssConfig.RateLimit();
+        config.setApiKeys(Collections.singleton("partner-key"));
+        
+        // 每次请求换一个伪造的请求头也落在同一个IP令牌桶
+        assertThat(SignatureAdmission.resolveClientId(request("forged-1"), config)).isEqualTo("ip:203.0.113.7");
+        assertThat(SignatureAdmission.resolveClientId(request("forged-2"), config)).isEqualTo("ip:203.0.113.7");
+        assertThat(SignatureAdmission.resolveClientId(request(null), config)).isEqualTo("ip:203.0.113.7");
+    }
+    
+    private static MockHttpServletRequest request(String apiKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("203.0.113.7");
+        if (apiKey != null) {
+            request.addHeader("X-API-Key", apiKey);
+        }
+        return request;
+    }
+}
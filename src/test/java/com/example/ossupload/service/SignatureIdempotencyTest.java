@@ -0,0 +1,138 @@
+package com.example.ossupload.service;
+
+import com.example.ossupload.dto.FileUploadCallbackRequest;
+import com.example.ossupload.dto.FileUploadRequest;
+import com.example.ossupload.dto.OssSignatureResponse;
+import com.example.ossupload.storage.InMemoryStorageBackend;
+import com.example.ossupload.storage.InMemoryStorageConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 签名幂等：重放前按文件当前状态校验（内存存储后端代替OSS）
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotency-test",
+        "oss.storage.type=local",
+        "oss.storage.local-root=target/test-storage",
+        "oss.sweeper.enabled=false"
+})
+@Import(InMemoryStorageConfiguration.class)
+class SignatureIdempotencyTest {
+    
+    @Autowired
+    private OssService ossService;
+    
+    @Autowired
+    private FileDeleteService fileDeleteService;
+    
+    @Autowired
+    private InMemoryStorageBackend storage;
+    
+    @Autowired
+    private FileStatisticsCounter fileStatisticsCounter;
+    
+    @Autowired
+    private FileArchiveService fileArchiveService;
+    
+    @Autowired
+    private SignatureIdempotencyCache signatureIdempotencyCache;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DELETE FROM file_name_gram");
+        jdbcTemplate.execute("DELETE FROM file_info");
+        jdbcTemplate.execute("DELETE FROM file_info_archive");
+        fileStatisticsCounter.reconcile();
+        storage.clear();
+    }
+    
+    @Test
+    void retryBeforeUploadReplaysSignature() {
+        OssSignatureResponse first = ossService.generateSignature(request("retry-key"));
+        
+        OssSignatureResponse retried = ossService.generateSignature(request("retry-key"));
+        
+        assertThat(retried.getFileInfoId()).isEqualTo(first.getFileInfoId());
+        assertThat(retried.getKey()).isEqualTo(first.getKey());
+        assertThat(retried.getInstant()).isNotEqualTo(Boolean.TRUE);
+    }
+    
+    @Test
+    void retryAfterUploadReturnsInstantResponse() {
+        OssSignatureResponse first = ossService.generateSignature(request("uploaded-key"));
+        complete(first);
+        
+        OssSignatureResponse retried = ossService.generateSignature(request("uploaded-key"));
+        
+        assertThat(retried.getFileInfoId()).isEqualTo(first.getFileInfoId());
+        assertThat(retried.getInstant()).isTrue();
+    }
+    
+    @Test
+    void retryAfterDeleteCreatesNewFile() {
+        OssSignatureResponse first = ossService.generateSignature(request("deleted-key"));
+        complete(first);
+        fileDeleteService.delete(Collections.singletonList(first.getFileInfoId()), true);
+        
+        OssSignatureResponse retried = ossService.generateSignature(request("deleted-key"));
+        
+        assertThat(retried.getFileInfoId()).isNotEqualTo(first.getFileInfoId());
+        assertThat(retried.getInstant()).isNotEqualTo(Boolean.TRUE);
+    }
+    
+    @Test
+    void retryAfterArchiveReturnsInstantResponse() {
+        OssSignatureResponse first = ossService.generateSignature(request("archived-key"));
+        complete(first);
+        archive(first.getFileInfoId());
+        
+        OssSignatureResponse cachedRetry = ossService.generateSignature(request("archived-key"));
+        // 内存中的幂等键过期后从归档表恢复
+        signatureIdempotencyCache.invalidate(Collections.singletonList("archived-key"));
+        OssSignatureResponse restoredRetry = ossService.generateSignature(request("archived-key"));
+        
+        assertThat(cachedRetry.getFileInfoId()).isEqualTo(first.getFileInfoId());
+        assertThat(cachedRetry.getInstant()).isTrue();
+        assertThat(restoredRetry.getFileInfoId()).isEqualTo(first.getFileInfoId());
+        assertThat(restoredRetry.getInstant()).isTrue();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM file_info", Long.class)).isZero();
+    }
+    
+    private void archive(Long fileInfoId) {
+        jdbcTemplate.update("UPDATE file_info SET create_time = DATEADD('YEAR', -1, create_time) WHERE id = ?",
+                fileInfoId);
+        assertThat(fileArchiveService.archive()).isEqualTo(1);
+    }
+    
+    private void complete(OssSignatureResponse response) {
+        storage.putObject(response.getKey(), response.getKey().getBytes(StandardCharsets.UTF_8));
+        FileUploadCallbackRequest callback = new FileUploadCallbackRequest();
+        callback.setFileInfoId(response.getFileInfoId());
+        callback.setOssKey(response.getKey());
+        callback.setUploadStatus(1);
+        ossService.handleUploadCallback(callback);
+    }
+    
+    private static FileUploadRequest request(String idempotencyKey) {
+        FileUploadRequest request = new FileUploadRequest();
+        request.setFileName(idempotencyKey + ".pdf");
+        request.setFileSize(1024L);
+        request.setContentType("application/pdf");
+        request.setFileExtension("pdf");
+        request.setIdempotencyKey(idempotencyKey);
+        return request;
+    }
+}
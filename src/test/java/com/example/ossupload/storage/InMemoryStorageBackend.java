@@ -0,0 +1,253 @@
+package com.example.ossupload.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 测试用内存存储后端：模拟OSS的对象与分片上传语义，供服务层测试替换真实存储
+ */
+public class InMemoryStorageBackend implements StorageBackend {
+    
+    private final NavigableMap<String, byte[]> objects = new ConcurrentSkipListMap<>();
+    private final Map<String, MultipartUpload> uploads = new ConcurrentHashMap<>();
+    private final AtomicBoolean failNextComplete = new AtomicBoolean();
+    private final AtomicInteger failingDeletes = new AtomicInteger();
+    private final Set<String> failingDeleteKeys = ConcurrentHashMap.newKeySet();
+    private final List<Integer> deleteBatchSizes = new CopyOnWriteArrayList<>();
+    private volatile Consumer<String> headListener;
+    
+    /**
+     * 模拟客户端直传对象
+     */
+    public void putObject(String key, byte[] content) {
+        objects.put(key, content);
+    }
+    
+    /**
+     * 读取对象内容，不存在时返回null
+     */
+    public byte[] getObject(String key) {
+        return objects.get(key);
+    }
+    
+    /**
+     * 模拟客户端通过预签名地址上传分片，返回分片ETag
+     */
+    public String uploadPart(String key, String uploadId, int partNumber, byte[] content) {
+        MultipartUpload upload = uploads.get(uploadId);
+        if (upload == null || !upload.key.equals(key)) {
+            throw new IllegalStateException("分片上传不存在: " + uploadId);
+        }
+        String etag = UUID.randomUUID().toString().replace("-", "").toUpperCase();
+        upload.parts.put(partNumber, new Part(etag, content));
+        return etag;
+    }
+    
+    /**
+     * 进行中的分片上传数
+     */
+    public int getOpenUploadCount() {
+        return uploads.size();
+    }
+    
+    /**
+     * 下一次完成分片上传时抛出异常（模拟网络故障）
+     */
+    public void failNextComplete() {
+        failNextComplete.set(true);
+    }
+    
+    /**
+     * 接下来的times次批量删除抛出异常（模拟网络故障）
+     */
+    public void failNextDeletes(int times) {
+        failingDeletes.set(times);
+    }
+    
+    /**
+     * 下一次批量删除中包含这些键时将其报告为删除失败并保留对象（模拟OSS逐键返回的错误）
+     */
+    public void failDeletesOnce(Collection<String> keys) {
+        failingDeleteKeys.addAll(keys);
+    }
+    
+    /**
+     * 成功的批量删除调用各自的键数
+     */
+    public List<Integer> getDeleteBatchSizes() {
+        return deleteBatchSizes;
+    }
+    
+    /**
+     * 每次检查对象前回调（模拟检查期间到达的并发请求），为null时取消
+     */
+    public void setHeadListener(Consumer<String> headListener) {
+        this.headListener = headListener;
+    }
+    
+    /**
+     * 对象总数
+     */
+    public int getObjectCount() {
+        return objects.size();
+    }
+    
+    /**
+     * 清空全部对象与分片上传
+     */
+    public void clear() {
+        objects.clear();
+        uploads.clear();
+        failNextComplete.set(false);
+        failingDeletes.set(0);
+        failingDeleteKeys.clear();
+        deleteBatchSizes.clear();
+        headListener = null;
+    }
+    
+    @Override
+    public PostUploadPolicy signPostObject(String key, long expireTimeMillis) {
+        return new PostUploadPolicy("memory://bucket", "test-access-key-id", "policy", "signature");
+    }
+    
+    @Override
+    public String getObjectUrlPrefix() {
+        return "memory://bucket/";
+    }
+    
+    @Override
+    public List<StorageObject> listObjects(String prefix, String startAfter, int maxKeys) {
+        List<StorageObject> result = new ArrayList<>();
+        SortedMap<String, byte[]> tail = startAfter == null ? objects : objects.tailMap(startAfter, false);
+        for (Map.Entry<String, byte[]> entry : tail.entrySet()) {
+            if (result.size() >= maxKeys) {
+                break;
+            }
+            if (prefix == null || entry.getKey().startsWith(prefix)) {
+                result.add(new StorageObject(entry.getKey(), entry.getValue().length, new Date()));
+            }
+        }
+        return result;
+    }
+    
+    @Override
+    public StorageObject headObject(String key) {
+        Consumer<String> listener = headListener;
+        if (listener != null) {
+            listener.accept(key);
+        }
+        byte[] content = objects.get(key);
+        return content == null ? null : new StorageObject(key, content.length, new Date());
+    }
+    
+    @Override
+    public void deleteObject(String key) {
+        objects.remove(key);
+    }
+    
+    @Override
+    public List<String> deleteObjects(List<String> keys) {
+        if (failingDeletes.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            throw new IllegalStateException("模拟的存储故障");
+        }
+        List<String> failed = new ArrayList<>();
+        for (String key : keys) {
+            if (failingDeleteKeys.remove(key)) {
+                failed.add(key);
+            } else {
+                objects.remove(key);
+            }
+        }
+        deleteBatchSizes.add(keys.size());
+        return failed;
+    }
+    
+    @Override
+    public long transferObject(String key, WritableByteChannel target) throws IOException {
+        byte[] content = objects.get(key);
+        if (content == null) {
+            throw new IOException("对象不存在: " + key);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+        return content.length;
+    }
+    
+    @Override
+    public String initiateMultipartUpload(String key) {
+        String uploadId = UUID.randomUUID().toString();
+        uploads.put(uploadId, new MultipartUpload(key));
+        return uploadId;
+    }
+    
+    @Override
+    public String generatePartUploadUrl(String key, String uploadId, int partNumber, Date expiration) {
+        return "memory://bucket/" + key + "?uploadId=" + uploadId + "&partNumber=" + partNumber;
+    }
+    
+    @Override
+    public void completeMultipartUpload(String key, String uploadId, SortedMap<Integer, String> partETags) {
+        if (failNextComplete.compareAndSet(true, false)) {
+            throw new IllegalStateException("模拟的存储故障");
+        }
+        MultipartUpload upload = uploads.get(uploadId);
+        if (upload == null || !upload.key.equals(key)) {
+            throw new IllegalStateException("分片上传不存在: " + uploadId);
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (Map.Entry<Integer, String> entry : partETags.entrySet()) {
+            Part part = upload.parts.get(entry.getKey());
+            if (part == null || !part.etag.equals(entry.getValue())) {
+                throw new IllegalStateException("分片ETag不匹配: " + entry.getKey());
+            }
+            content.write(part.content, 0, part.content.length);
+        }
+        objects.put(key, content.toByteArray());
+        uploads.remove(uploadId);
+    }
+    
+    @Override
+    public void abortMultipartUpload(String key, String uploadId) {
+        uploads.remove(uploadId);
+    }
+    
+    private static class MultipartUpload {
+        
+        private final String key;
+        private final Map<Integer, Part> parts = new ConcurrentHashMap<>();
+        
+        MultipartUpload(String key) {
+            this.key = key;
+        }
+    }
+    
+    private static class Part {
+        
+        private final String etag;
+        private final byte[] content;
+        
+        Part(String etag, byte[] content) {
+            this.etag = etag;
+            this.content = content;
+        }
+    }
+}
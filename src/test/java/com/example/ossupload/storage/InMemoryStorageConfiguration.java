@@ -0,0 +1,18 @@
+package com.example.ossupload.storage;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * 以内存存储后端替换配置的存储后端
+ */
+@TestConfiguration
+public class InMemoryStorageConfiguration {
+    
+    @Bean
+    @Primary
+    public InMemoryStorageBackend inMemoryStorageBackend() {
+        return new InMemoryStorageBackend();
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.ossupload.storage;
+
+import com.example.ossupload.config.OssConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 本地磁盘存储后端的表单上传与分片上传
+ */
+class LocalStorageBackendTest {
+    
+    private static final String KEY = "2024/01/01/large.zip";
+    
+    @TempDir
+    Path rootDir;
+    
+    private LocalStorageBackend backend;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        OssConfig ossConfig = new OssConfig();
+        ossConfig.setAccessKeyId("test-access-key-id");
+        ossConfig.setAccessKeySecret("test-access-key-secret");
+        ossConfig.getStorage().setLocalRoot(rootDir.toString());
+        // 表单上传凭证的大小上限
+        ossConfig.setMaxFileSize(16L);
+        PostPolicySigner signer = new PostPolicySigner(ossConfig);
+        signer.init();
+        backend = new LocalStorageBackend(ossConfig, signer, new ObjectMapper());
+        backend.init();
+    }
+    
+    @Test
+    void postObjectStreamsBodyIntoObject() throws IOException {
+        postObject("hello world");
+        
+        assertThat(read(KEY)).isEqualTo("hello world");
+    }
+    
+    @Test
+    void postObjectRejectsBodyOverPolicyLimit() {
+        assertThatThrownBy(() -> postObject("seventeen bytes!!")).isInstanceOf(SecurityException.class);
+        
+        assertThat(backend.getObjectPath(KEY)).isNull();
+        assertThat(backend.listObjects(null, null, 100)).isEmpty();
+    }
+    
+    @Test
+    void multipartUploadConcatenatesPartsInOrder() throws IOException {
+        String uploadId = backend.initiateMultipartUpload(KEY);
+        SortedMap<Integer, String> etags = new TreeMap<>();
+        etags.put(2, putPart(uploadId, 2, "world"));
+        etags.put(1, putPart(uploadId, 1, "hello "));
+        
+        // 分片不出现在对象列举中
+        assertThat(backend.listObjects(null, null, 100)).isEmpty();
+        
+        backend.completeMultipartUpload(KEY, uploadId, etags);
+        
+        assertThat(read(KEY)).isEqualTo("hello world");
+        assertThat(backend.listObjects(null, null, 100)).hasSize(1);
+        assertThatThrownBy(() -> putPart(uploadId, 3, "late")).isInstanceOf(IllegalStateException.class);
+    }
+    
+    @Test
+    void partETagIsContentMd5() throws IOException {
+        String uploadId = backend.initiateMultipartUpload(KEY);
+        assertThat(putPart(uploadId, 1, "hello")).isEqualTo("5D41402ABC4B2A76B9719D911017C592");
+    }
+    
+    @Test
+    void completeRejectsMismatchedETag() throws IOException {
+        String uploadId = backend.initiateMultipartUpload(KEY);
+        putPart(uploadId, 1, "hello");
+        SortedMap<Integer, String> etags = new TreeMap<>();
+        etags.put(1, "00000000000000000000000000000000");
+        
+        assertThatThrownBy(() -> backend.completeMultipartUpload(KEY, uploadId, etags))
+                .hasMessageContaining("ETag");
+        assertThat(backend.headObject(KEY)).isNull();
+    }
+    
+    @Test
+    void partUploadRequiresValidSignature() {
+        String uploadId = backend.initiateMultipartUpload(KEY);
+        long expires = System.currentTimeMillis() / 1000 + 60;
+        
+        assertThatThrownBy(() -> backend.storePart(KEY, uploadId, 1, expires, "forged",
+                new ByteArrayInputStream(new byte[1]), 1)).isInstanceOf(SecurityException.class);
+        // 签名针对分片序号，不能用于其他分片
+        UriComponents url = partUrl(uploadId, 1, new Date(expires * 1000));
+        assertThatThrownBy(() -> backend.storePart(KEY, uploadId, 2, expires,
+                param(url, "signature"), new ByteArrayInputStream(new byte[1]), 1))
+                .isInstanceOf(SecurityException.class);
+    }
+    
+    @Test
+    void expiredPartUrlIsRejected() {
+        String uploadId = backend.initiateMultipartUpload(KEY);
+        UriComponents url = partUrl(uploadId, 1, new Date(System.currentTimeMillis() - 1000));
+        
+        assertThatThrownBy(() -> store(uploadId, url, "hello")).hasMessageContaining("过期");
+    }
+    
+    @Test
+    void abortDiscardsParts() throws IOException {
+        String uploadId = backend.initiateMultipartUpload(KEY);
+        String etag = putPart(uploadId, 1, "hello");
+        backend.abortMultipartUpload(KEY, uploadId);
+        
+        SortedMap<Integer, String> etags = new TreeMap<>();
+        etags.put(1, etag);
+        assertThatThrownBy(() -> backend.completeMultipartUpload(KEY, uploadId, etags))
+                .isInstanceOf(IllegalStateException.class);
+    }
+    
+    /**
+     * 按表单上传凭证上传对象，与浏览器提交PostObject表单等价
+     */
+    private void postObject(String content) throws IOException {
+        PostUploadPolicy policy = backend.signPostObject(KEY, System.currentTimeMillis() + 60000);
+        backend.storePostObject(KEY, policy.getPolicy(), policy.getSignature(),
+                Channels.newChannel(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8))));
+    }
+    
+    /**
+     * 按预签名地址中的参数上传分片，与浏览器PUT到该地址等价
+     */
+    private String putPart(String uploadId, int partNumber, String content) throws IOException {
+        return store(uploadId, partUrl(uploadId, partNumber, new Date(System.currentTimeMillis() + 60000)), content);
+    }
+    
+    private String store(String uploadId, UriComponents url, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        return backend.storePart(KEY, uploadId, Integer.parseInt(param(url, "partNumber")),
+                Long.parseLong(param(url, "expires")),
+                param(url, "signature"), new ByteArrayInputStream(bytes), bytes.length);
+    }
+    
+    private UriComponents partUrl(String uploadId, int partNumber, Date expiration) {
+        String url = backend.generatePartUploadUrl(KEY, uploadId, partNumber, expiration);
+        return UriComponentsBuilder.fromUriString(url).build();
+    }
+    
+    /**
+     * 按Servlet容器的规则解码查询参数（+解码为空格）
+     */
+    private static String param(UriComponents url, String name) {
+        return UriUtils.decode(url.getQueryParams().getFirst(name).replace('+', ' '), StandardCharsets.UTF_8);
+    }
+    
+    private String read(String key) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        backend.transferObject(key, Channels.newChannel(out));
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
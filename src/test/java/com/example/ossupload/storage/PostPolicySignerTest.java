@@ -0,0 +1,80 @@
+package com.example.ossupload.storage;
+
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.OSSClientBuilder;
+import com.aliyun.oss.model.MatchMode;
+import com.aliyun.oss.model.PolicyConditions;
+import com.example.ossupload.config.OssConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * PostObject签名器与SDK输出的一致性
+ */
+class PostPolicySignerTest {
+
+    private OssConfig ossConfig;
+    private PostPolicySigner signer;
+    private OSS ossClient;
+
+    @BeforeEach
+    void setUp() {
+        ossConfig = new OssConfig();
+        ossConfig.setEndpoint("https://oss-cn-hangzhou.aliyuncs.com");
+        ossConfig.setAccessKeyId("test-access-key-id");
+        ossConfig.setAccessKeySecret("test-access-key-secret");
+        ossConfig.setMaxFileSize(104857600L);
+        signer = new PostPolicySigner(ossConfig);
+        signer.init();
+        ossClient = new OSSClientBuilder().build(
+                ossConfig.getEndpoint(), ossConfig.getAccessKeyId(), ossConfig.getAccessKeySecret());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ossClient.shutdown();
+    }
+
+    @Test
+    void policyAndSignatureMatchSdk() {
+        // 毫秒不为零，覆盖SDK日期格式中的毫秒部分
+        long expireTime = 1760000000123L;
+        for (String fileKey : new String[]{"2024/01/01/a.pdf", "uploads/报告 (1).docx", "k\"ey\\path.txt"}) {
+            PolicyConditions conditions = new PolicyConditions();
+            conditions.addConditionItem(PolicyConditions.COND_CONTENT_LENGTH_RANGE, 0, ossConfig.getMaxFileSize());
+            conditions.addConditionItem(MatchMode.Exact, PolicyConditions.COND_KEY, fileKey);
+            String expectedPolicy = ossClient.generatePostPolicy(new Date(expireTime), conditions);
+            String expectedEncoded = Base64.getEncoder()
+                    .encodeToString(expectedPolicy.getBytes(StandardCharsets.UTF_8));
+
+            PostPolicySigner.SignedPolicy signed = signer.sign(fileKey, expireTime);
+
+            assertThat(signer.generatePostPolicy(fileKey, expireTime)).isEqualTo(expectedPolicy);
+            assertThat(signed.getPolicy()).isEqualTo(expectedEncoded);
+            assertThat(signed.getSignature()).isEqualTo(ossClient.calculatePostSignature(expectedPolicy));
+        }
+    }
+
+    @Test
+    void signatureIsStableAcrossThreads() throws InterruptedException {
+        String expected = signer.sign("a.txt", 1760000000000L).getSignature();
+        String[] results = new String[8];
+        Thread[] threads = new Thread[results.length];
+        for (int i = 0; i < threads.length; i++) {
+            int index = i;
+            threads[i] = new Thread(() -> results[index] = signer.sign("a.txt", 1760000000000L).getSignature());
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(results).containsOnly(expected);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.ossupload.storage;
+
+import com.example.ossupload.config.OssConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 分片对象键：格式与分片前缀的均匀分布
+ */
+class ShardedKeyGeneratorTest {
+    
+    @Test
+    void generatesShardedDatePathKeys() {
+        String key = generator(2).generate("报告.PDF");
+        String datePath = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy/MM/dd"));
+        
+        assertThat(key).matches("uploads/[0-9a-f]{2}/" + datePath + "/[0-9a-z]{26}\\.PDF");
+        assertThat(generator(2).generate("README")).doesNotContain(".");
+    }
+    
+    @Test
+    void rejectsOutOfRangeShardPrefixLength() {
+        assertThatThrownBy(() -> generator(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> generator(5)).isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    void shardsAreEvenlySpread() {
+        // 256个分片、每片期望400个键，卡方检验（自由度255，阈值约为p=1e-6）
+        ShardedKeyGenerator generator = generator(2);
+        long[] buckets = new long[256];
+        for (int i = 0; i < buckets.length * 400; i++) {
+            String key = generator.generate("a.pdf");
+            buckets[Integer.parseInt(key.substring("uploads/".length(), "uploads/".length() + 2), 16)]++;
+        }
+        
+        long total = buckets.length * 400L;
+        double expected = (double) total / buckets.length;
+        double chiSquare = 0;
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for (long count : buckets) {
+            chiSquare += (count - expected) * (count - expected) / expected;
+            min = Math.min(min, count);
+            max = Math.max(max, count);
+        }
+        assertThat(chiSquare).isLessThan(400.0);
+        assertThat(min).isGreaterThan(0L);
+        assertThat((double) max / min).isLessThan(2.0);
+    }
+    
+    private static ShardedKeyGenerator generator(int shardPrefixLength) {
+        OssConfig ossConfig = new OssConfig();
+        ossConfig.getKey().setShardPrefixLength(shardPrefixLength);
+        return new ShardedKeyGenerator(ossConfig);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.ossupload.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 紧凑ID：编码格式与随机部分的均匀分布
+ */
+class CompactIdGeneratorTest {
+    
+    private static final String ALPHABET = "0123456789abcdefghjkmnpqrstvwxyz";
+    
+    private static final int SAMPLES = 64000;
+    
+    @Test
+    void encodesTimestampAndRandomBitsInCrockfordBase32() {
+        assertThat(CompactIdGenerator.encode(0L, 0L, 0L)).isEqualTo("00000000000000000000000000");
+        assertThat(CompactIdGenerator.encode((1L << 48) - 1, 0xFFFFL, -1L)).isEqualTo("7zzzzzzzzzzzzzzzzzzzzzzzzz");
+        // 随机数高16位之外的位不参与编码
+        assertThat(CompactIdGenerator.encode(1L, -1L, 1L)).isEqualTo(CompactIdGenerator.encode(1L, 0xFFFFL, 1L));
+    }
+    
+    @Test
+    void idsAreUniqueAndOrderedByMillisecond() throws InterruptedException {
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 10000; i++) {
+            String id = CompactIdGenerator.nextId();
+            assertThat(id).hasSize(CompactIdGenerator.LENGTH);
+            assertThat(id.chars().allMatch(c -> ALPHABET.indexOf(c) >= 0)).isTrue();
+            ids.add(id);
+        }
+        assertThat(ids).hasSize(10000);
+        
+        String earlier = CompactIdGenerator.nextId();
+        Thread.sleep(2);
+        assertThat(CompactIdGenerator.nextId().compareTo(earlier)).isGreaterThan(0);
+    }
+    
+    @Test
+    void randomCharactersAreEvenlySpread() {
+        // 随机部分的首尾字符分别按32个桶统计，卡方检验（自由度31，阈值约为p=1e-6）
+        long[] first = new long[32];
+        long[] last = new long[32];
+        for (int i = 0; i < SAMPLES; i++) {
+            String id = CompactIdGenerator.nextId();
+            first[ALPHABET.indexOf(id.charAt(10))]++;
+            last[ALPHABET.indexOf(id.charAt(CompactIdGenerator.LENGTH - 1))]++;
+        }
+        assertThat(chiSquare(first)).isLessThan(80.0);
+        assertThat(chiSquare(last)).isLessThan(80.0);
+    }
+    
+    private static double chiSquare(long[] buckets) {
+        long total = 0;
+        for (long count : buckets) {
+            total += count;
+        }
+        double expected = (double) total / buckets.length;
+        double sum = 0;
+        for (long count : buckets) {
+            sum += (count - expected) * (count - expected) / expected;
+        }
+        return sum;
+    }
+}
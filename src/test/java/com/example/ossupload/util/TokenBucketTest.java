@@ -0,0 +1,50 @@
+package com.example.ossupload.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 令牌桶：突发容量与超过容量的批量扣减
+ */
+class TokenBucketTest {
+    
+    @Test
+    void allowsBurstUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(5, 1.0);
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire()).isTrue();
+        }
+        assertThat(bucket.tryAcquire()).isFalse();
+        assertThat(bucket.nanosUntilAvailable()).isGreaterThan(0L);
+    }
+    
+    @Test
+    void oversizedBatchIsChargedInFull() {
+        TokenBucket bucket = new TokenBucket(5, 1.0);
+        
+        // 桶满时放行，按20个令牌扣减：透支15个，补回后再等1个令牌，约16秒
+        assertThat(bucket.tryAcquire(20)).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+        assertThat(bucket.nanosUntilAvailable()).isBetween(TimeUnit.SECONDS.toNanos(15), TimeUnit.SECONDS.toNanos(16));
+    }
+    
+    @Test
+    void oversizedBatchRequiresFullBucket() {
+        TokenBucket bucket = new TokenBucket(5, 1.0);
+        assertThat(bucket.tryAcquire()).isTrue();
+        
+        assertThat(bucket.tryAcquire(20)).isFalse();
+        assertThat(bucket.nanosUntilAvailable(20)).isBetween(TimeUnit.MILLISECONDS.toNanos(900),
+                TimeUnit.SECONDS.toNanos(1));
+    }
+    
+    @Test
+    void rejectsInvalidArguments() {
+        assertThatThrownBy(() -> new TokenBucket(0, 1.0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucket(1, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}